@@ -0,0 +1,116 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.io.file.PathUtils;
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Archive creation and extraction time of every {@link AbstractArchive.ArchiveAlgorithm} that can write, with no
+ * compression codec on top, for a few file count and size mixes of about 4 MiB in total. Entries are created from
+ * files like {@code ArchiveCompress} does, and extracted entries are read fully like {@code ArchiveDecompress} does.
+ * Compare with {@link CodecBenchmark} to choose the compression on top.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=ArchiveBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ArchiveBenchmark {
+    @Param({"AR", "CPIO", "JAR", "TAR", "ZIP"})
+    public AbstractArchive.ArchiveAlgorithm algorithm;
+
+    /**
+     * File count x file size.
+     */
+    @Param({"4096x1024", "64x65536", "1x4194304"})
+    public String mix;
+
+    @Param({"TEXT"})
+    public BenchmarkData.Corpus corpus;
+
+    private Path directory;
+    private final List<File> files = new ArrayList<>();
+    private byte[] archive;
+
+    @Setup
+    public void setup() throws Exception {
+        int count = Integer.parseInt(mix.substring(0, mix.indexOf('x')));
+        int size = Integer.parseInt(mix.substring(mix.indexOf('x') + 1));
+        byte[] data = corpus.generate(count * size);
+
+        directory = Files.createTempDirectory("archive-benchmark");
+        for (int i = 0; i < count; i++) {
+            // short names: AR entries are limited to 16 characters
+            Path file = directory.resolve(String.format("f%05d.json", i));
+            Files.write(file, Arrays.copyOfRange(data, i * size, (i + 1) * size));
+            files.add(file.toFile());
+        }
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        this.write(outputStream);
+        archive = outputStream.toByteArray();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        PathUtils.deleteDirectory(directory);
+    }
+
+    @Benchmark
+    public void create() throws Exception {
+        this.write(NullOutputStream.INSTANCE);
+    }
+
+    @Benchmark
+    public long extract() throws Exception {
+        long size = 0;
+        try (ArchiveInputStream<?> archiveInputStream = AbstractArchive.archiveInputStream(new ByteArrayInputStream(archive), algorithm)) {
+            ArchiveEntry entry;
+            while ((entry = archiveInputStream.getNextEntry()) != null) {
+                if (!entry.isDirectory()) {
+                    size += archiveInputStream.transferTo(NullOutputStream.INSTANCE);
+                }
+            }
+        }
+
+        return size;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void write(OutputStream outputStream) throws Exception {
+        try (ArchiveOutputStream archiveOutputStream = AbstractArchive.archiveOutputStream(outputStream, algorithm)) {
+            for (File file : files) {
+                archiveOutputStream.putArchiveEntry(archiveOutputStream.createArchiveEntry(file, file.getName()));
+                try (InputStream inputStream = Files.newInputStream(file.toPath())) {
+                    inputStream.transferTo(archiveOutputStream);
+                }
+                archiveOutputStream.closeArchiveEntry();
+            }
+            archiveOutputStream.finish();
+        }
+    }
+}
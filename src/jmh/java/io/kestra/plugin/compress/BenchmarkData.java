@@ -0,0 +1,54 @@
+package io.kestra.plugin.compress;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Deterministic benchmark inputs.
+ */
+public final class BenchmarkData {
+    private static final String[] WORDS = {"kestra", "flow", "task", "execution", "namespace", "company", "team", "SUCCESS", "FAILED", "RUNNING"};
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * JSON lines shaped like execution logs, compressible like most pipeline data.
+     */
+    static byte[] text(int size) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder(size + 128);
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(random.nextInt(1_000_000))
+                .append(",\"namespace\":\"").append(WORDS[random.nextInt(WORDS.length)])
+                .append("\",\"state\":\"").append(WORDS[random.nextInt(WORDS.length)])
+                .append("\",\"duration\":").append(random.nextInt(10_000))
+                .append("}\n");
+        }
+
+        return Arrays.copyOf(builder.toString().getBytes(StandardCharsets.UTF_8), size);
+    }
+
+    /**
+     * Random bytes, like already compressed or encrypted files: the worst case for every codec.
+     */
+    static byte[] random(int size) {
+        byte[] data = new byte[size];
+        new Random(42).nextBytes(data);
+        return data;
+    }
+
+    /**
+     * Inputs a benchmark can run on, generated so that the suite runs offline. Public for the code JMH generates
+     * to set {@code @Param} fields.
+     */
+    public enum Corpus {
+        TEXT,
+        RANDOM;
+
+        byte[] generate(int size) {
+            return this == TEXT ? text(size) : random(size);
+        }
+    }
+}
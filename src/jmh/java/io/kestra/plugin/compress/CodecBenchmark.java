@@ -0,0 +1,73 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Compression and decompression throughput of every {@link AbstractTask.CompressionAlgorithm} that can encode, through
+ * the same streams the tasks use, on compressible text and on random bytes. One operation processes 1 MiB, so
+ * operations per second read as MiB/s; the {@code gc} profiler adds the allocation rate per operation.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=CodecBenchmark}, compare a single codec with
+ * {@code -Pjmh.includes='CodecBenchmark.*compression=ZSTD'} or on several cores by changing {@code threads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CodecBenchmark {
+    private static final int SIZE = 1024 * 1024;
+
+    @Param({"BROTLI", "BZIP2", "DEFLATE", "GZIP", "LZ4BLOCK", "LZ4FRAME", "LZMA", "SNAPPY", "SNAPPYFRAME", "XZ", "ZSTD"})
+    public AbstractTask.CompressionAlgorithm compression;
+
+    @Param({"TEXT", "RANDOM"})
+    public BenchmarkData.Corpus corpus;
+
+    @Param({"1"})
+    public int threads;
+
+    private final FileDecompress task = new FileDecompress();
+    private CodecOptions options;
+    private byte[] data;
+    private byte[] compressed;
+
+    @Setup
+    public void setup() throws IOException {
+        options = CodecOptions.builder().threads(threads).build();
+        data = corpus.generate(SIZE);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream compressor = task.compressorOutputStream(compression, outputStream, options)) {
+            compressor.write(data);
+        }
+        compressed = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void compress() throws IOException {
+        try (OutputStream compressor = task.compressorOutputStream(compression, NullOutputStream.INSTANCE, options)) {
+            compressor.write(data);
+        }
+    }
+
+    @Benchmark
+    public long decompress() throws IOException {
+        try (InputStream decompressor = task.compressorInputStream(compression, new ByteArrayInputStream(compressed), options)) {
+            return decompressor.transferTo(NullOutputStream.INSTANCE);
+        }
+    }
+}
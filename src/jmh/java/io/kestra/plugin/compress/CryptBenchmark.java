@@ -0,0 +1,114 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.Cipher;
+import javax.crypto.CipherInputStream;
+import javax.crypto.CipherOutputStream;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Costs of {@code FileEncrypt} and {@code FileDecrypt}: the fixed cost of the key derivation of each
+ * {@link AbstractFileCrypt.KeyDerivation} with the task defaults, paid once per file, and the throughput of the
+ * cipher used after it, AES-CBC for PBKDF2_SHA256 and AES-GCM for the others, paid per byte.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=CryptBenchmark}.
+ */
+public class CryptBenchmark {
+    private static final char[] PASSWORD = "kestra-benchmark-password".toCharArray();
+    private static final byte[] SALT = new byte[16];
+
+    /**
+     * One operation derives one key: it takes hundreds of milliseconds by design.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public static class KeyDerivationCost {
+        // a name: the enum is not visible to the code JMH generates
+        @Param({"PBKDF2_SHA256", "PBKDF2_SHA512", "ARGON2ID", "SCRYPT"})
+        public String keyDerivation;
+
+        private AbstractFileCrypt.KdfParams params;
+
+        @Setup
+        public void setup() {
+            // the defaults of FileEncrypt
+            AbstractFileCrypt.KeyDerivation algorithm = AbstractFileCrypt.KeyDerivation.valueOf(keyDerivation);
+            params = switch (algorithm) {
+                case PBKDF2_SHA256, PBKDF2_SHA512 -> AbstractFileCrypt.KdfParams.pbkdf2(algorithm, 600000);
+                case ARGON2ID -> AbstractFileCrypt.KdfParams.argon2id(3, 65536, 1);
+                case SCRYPT -> AbstractFileCrypt.KdfParams.scrypt(65536, 1);
+            };
+        }
+
+        @Benchmark
+        public byte[] derive() throws GeneralSecurityException {
+            return AbstractFileCrypt.deriveKey(PASSWORD, SALT, params);
+        }
+    }
+
+    /**
+     * One operation processes 1 MiB, so operations per second read as MiB/s.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public static class CipherThroughput {
+        private static final int SIZE = 1024 * 1024;
+
+        @Param({"CBC", "GCM"})
+        public String mode;
+
+        private byte[] keyMaterial;
+        private byte[] nonce;
+        private byte[] data;
+        private byte[] encrypted;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            keyMaterial = new byte[48];
+            Arrays.fill(keyMaterial, (byte) 1);
+            nonce = mode.equals("GCM") ? new byte[12] : null;
+            data = BenchmarkData.text(SIZE);
+
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            try (OutputStream cipherOutputStream = new CipherOutputStream(outputStream, AbstractFileCrypt.newCipher(Cipher.ENCRYPT_MODE, keyMaterial, nonce))) {
+                cipherOutputStream.write(data);
+            }
+            encrypted = outputStream.toByteArray();
+        }
+
+        @Benchmark
+        public void encrypt() throws IOException, GeneralSecurityException {
+            // GCM refuses to encrypt twice with the same key and nonce: each operation gets a new cipher, like each file
+            try (OutputStream cipherOutputStream = new CipherOutputStream(NullOutputStream.INSTANCE, AbstractFileCrypt.newCipher(Cipher.ENCRYPT_MODE, keyMaterial, nonce))) {
+                cipherOutputStream.write(data);
+            }
+        }
+
+        @Benchmark
+        public long decrypt() throws IOException, GeneralSecurityException {
+            try (InputStream cipherInputStream = new CipherInputStream(new ByteArrayInputStream(encrypted), AbstractFileCrypt.newCipher(Cipher.DECRYPT_MODE, keyMaterial, nonce))) {
+                return cipherInputStream.transferTo(NullOutputStream.INSTANCE);
+            }
+        }
+    }
+}
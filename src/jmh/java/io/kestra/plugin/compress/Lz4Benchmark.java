@@ -0,0 +1,65 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.output.NullOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * LZ4FRAME throughput of each {@link AbstractTask.Lz4Backend}, through the same streams the tasks use. One operation
+ * processes 1 MiB, so operations per second read as MiB/s.
+ * <p>
+ * Run with {@code ./gradlew jmh -Pjmh.includes=Lz4Benchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class Lz4Benchmark {
+    private static final int SIZE = 1024 * 1024;
+
+    @Param({"COMMONS", "NATIVE", "JAVA"})
+    public AbstractTask.Lz4Backend backend;
+
+    private final FileDecompress task = new FileDecompress();
+    private CodecOptions options;
+    private byte[] data;
+    private byte[] compressed;
+
+    @Setup
+    public void setup() throws IOException {
+        options = CodecOptions.builder().lz4Backend(backend).build();
+        data = BenchmarkData.text(SIZE);
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream lz4 = task.compressorOutputStream(AbstractTask.CompressionAlgorithm.LZ4FRAME, outputStream, options)) {
+            lz4.write(data);
+        }
+        compressed = outputStream.toByteArray();
+    }
+
+    @Benchmark
+    public void compress() throws IOException {
+        try (OutputStream lz4 = task.compressorOutputStream(AbstractTask.CompressionAlgorithm.LZ4FRAME, NullOutputStream.INSTANCE, options)) {
+            lz4.write(data);
+        }
+    }
+
+    @Benchmark
+    public long decompress() throws IOException {
+        try (InputStream lz4 = task.compressorInputStream(AbstractTask.CompressionAlgorithm.LZ4FRAME, new ByteArrayInputStream(compressed), options)) {
+            return lz4.transferTo(NullOutputStream.INSTANCE);
+        }
+    }
+}
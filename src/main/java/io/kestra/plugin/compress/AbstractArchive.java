@@ -1,8 +1,23 @@
 package io.kestra.plugin.compress;
 
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.ZipEntry;
 
+import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
@@ -16,11 +31,16 @@ import org.apache.commons.compress.archivers.jar.JarArchiveInputStream;
 import org.apache.commons.compress.archivers.jar.JarArchiveOutputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
 import org.apache.commons.compress.archivers.tar.TarArchiveOutputStream;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.io.IOUtils;
 
 import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Data;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.models.property.URIFetcher;
 import io.kestra.core.runners.RunContext;
 
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -30,6 +50,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.ToString;
 import lombok.experimental.SuperBuilder;
+import reactor.core.scheduler.Schedulers;
+
+import static io.kestra.core.utils.Rethrow.throwConsumer;
 import io.kestra.core.models.annotations.PluginProperty;
 
 @SuperBuilder
@@ -48,13 +71,17 @@ public abstract class AbstractArchive extends AbstractTask {
 
     @Schema(
         title = "Optional compressor applied to the archive stream",
-        description = "Use a single-file compressor such as GZIP alongside TAR. Leave null to store the archive uncompressed. Brotli, Deflate64, and Snappy variants are decode-only and will fail during compression."
+        description = "Use a single-file compressor such as GZIP alongside TAR. Leave null to store the archive uncompressed. Deflate64 is decode-only and will fail during compression. AUTO is only supported by `ArchiveCompress`: ZIP and JAR entries are then stored or deflated one by one, other archives get ZSTD or no compression from the first bytes of their files."
     )
     protected Property<ArchiveDecompress.CompressionAlgorithm> compression;
 
     protected ArchiveInputStream archiveInputStream(InputStream inputStream, RunContext runContext) throws ArchiveException, IllegalVariableEvaluationException {
         var renderedAlgorithm = runContext.render(this.algorithm).as(ArchiveAlgorithm.class);
-        return switch (renderedAlgorithm.orElseThrow(() -> new IllegalArgumentException("Unknown algorithm"))) {
+        return archiveInputStream(inputStream, renderedAlgorithm.orElseThrow(() -> new IllegalArgumentException("Unknown algorithm")));
+    }
+
+    protected static ArchiveInputStream archiveInputStream(InputStream inputStream, ArchiveAlgorithm algorithm) throws ArchiveException {
+        return switch (algorithm) {
             case AR -> new ArArchiveInputStream(inputStream);
             case ARJ -> new ArjArchiveInputStream(inputStream);
             case CPIO -> new CpioArchiveInputStream(inputStream);
@@ -68,7 +95,11 @@ public abstract class AbstractArchive extends AbstractTask {
 
     protected ArchiveOutputStream archiveOutputStream(OutputStream outputStream, RunContext runContext) throws ArchiveException, IllegalVariableEvaluationException {
         var renderedAlgorithm = runContext.render(this.algorithm).as(ArchiveAlgorithm.class);
-        return switch (renderedAlgorithm.orElseThrow(() -> new IllegalArgumentException("Unknown algorithm"))) {
+        return archiveOutputStream(outputStream, renderedAlgorithm.orElseThrow(() -> new IllegalArgumentException("Unknown algorithm")));
+    }
+
+    protected static ArchiveOutputStream archiveOutputStream(OutputStream outputStream, ArchiveAlgorithm algorithm) throws ArchiveException {
+        return switch (algorithm) {
             case AR -> new ArArchiveOutputStream(outputStream);
             case CPIO -> new CpioArchiveOutputStream(outputStream);
             case JAR -> new JarArchiveOutputStream(outputStream);
@@ -80,11 +111,145 @@ public abstract class AbstractArchive extends AbstractTask {
                 yield out;
             }
             case ZIP -> new ZipArchiveOutputStream(outputStream);
-            default -> throw new IllegalArgumentException("Unknown algorithm '" + renderedAlgorithm.get() + "'");
+            default -> throw new IllegalArgumentException("Unknown algorithm '" + algorithm + "'");
         };
 
     }
 
+    /**
+     * Write the files of a {@code from} map, entry name to file URI, to an archive and finish it.
+     *
+     * @param entryDigests filled with the {@code digests} of each file, by entry name
+     */
+    protected static void writeArchive(RunContext runContext, Object from, ArchiveOutputStream archiveInputStream, Digests digests, Map<String, Map<String, String>> entryDigests) throws Exception {
+        writeArchive(runContext, from, archiveInputStream, digests, entryDigests, false);
+    }
+
+    /**
+     * Same as {@link #writeArchive(RunContext, Object, ArchiveOutputStream, Digests, Map)}, storing the ZIP and JAR
+     * entries whose first bytes would not compress when {@code storeIncompressible} is set, instead of deflating them.
+     *
+     * @return the number of entries stored
+     */
+    @SuppressWarnings("unchecked")
+    protected static int writeArchive(RunContext runContext, Object from, ArchiveOutputStream archiveInputStream, Digests digests, Map<String, Map<String, String>> entryDigests, boolean storeIncompressible) throws Exception {
+        AtomicInteger stored = new AtomicInteger();
+        Data.from(from)
+            .read(runContext)
+            .publishOn(Schedulers.boundedElastic())
+            .doOnNext(throwConsumer(map ->
+            {
+                for (Map.Entry<String, Object> current : map.entrySet()) {
+
+                    // temp file and path
+                    String finalPath = runContext.render(current.getKey());
+                    File tempFile = runContext.workingDir().resolve(Path.of(finalPath)).toFile();
+                    new File(tempFile.getParent()).mkdirs();
+
+                    // write to temp file
+                    String render = runContext.render(current.getValue().toString());
+                    OutputStream fileOutputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
+                    Digests fileDigests = digests.copy();
+                    InputStream inputStream = fileDigests.inputStream(URIFetcher.of(URI.create(render)).fetch(runContext), false);
+                    CRC32 crc = new CRC32();
+                    if (storeIncompressible) {
+                        inputStream = new CheckedInputStream(inputStream, crc);
+                    }
+
+                    IOUtils.copy(inputStream, fileOutputStream);
+                    fileOutputStream.flush();
+                    fileOutputStream.close();
+
+                    // create archive entry
+                    ArchiveEntry entry = archiveInputStream.createArchiveEntry(tempFile, finalPath);
+                    if (storeIncompressible && entry instanceof ZipArchiveEntry zipEntry && CompressibilityProbe.ratio(tempFile.toPath()) < CompressibilityProbe.MIN_RATIO) {
+                        // written to a stream, a stored entry needs its size and CRC before its data
+                        zipEntry.setMethod(ZipEntry.STORED);
+                        zipEntry.setSize(tempFile.length());
+                        zipEntry.setCrc(crc.getValue());
+                        stored.incrementAndGet();
+                    }
+                    archiveInputStream.putArchiveEntry(entry);
+
+                    // write archive entry
+                    try (InputStream i = Files.newInputStream(tempFile.toPath())) {
+                        IOUtils.copy(i, archiveInputStream);
+                    }
+                    archiveInputStream.closeArchiveEntry();
+
+                    if (!fileDigests.isEmpty()) {
+                        entryDigests.put(finalPath, fileDigests.values());
+                    }
+                }
+            }))
+            .blockLast();
+
+        archiveInputStream.finish();
+
+        return stored.get();
+    }
+
+    /**
+     * Write the entries of an archive to internal storage, all of them when {@code entries} is empty.
+     *
+     * @param entryDigests filled with the {@code digests} of each extracted entry, by entry name
+     */
+    protected static Map<String, URI> readArchive(RunContext runContext, ArchiveInputStream archiveInputStream, Set<String> entries, Digests digests, Map<String, Map<String, String>> entryDigests) throws IOException {
+        HashMap<String, URI> files = new HashMap<>();
+
+        long size = 0;
+        ArchiveEntry entry;
+        while ((entry = archiveInputStream.getNextEntry()) != null) {
+            if (!entries.isEmpty() && !entries.contains(entry.getName())) {
+                continue;
+            }
+
+            size += extract(runContext, archiveInputStream, entry, files, digests, entryDigests);
+        }
+
+        runContext.metric(Counter.of("size", size));
+        runContext.metric(Counter.of("count", files.size()));
+
+        return files;
+    }
+
+    /**
+     * Write the current entry to internal storage.
+     *
+     * @return the entry size, {@code 0} for directories
+     */
+    protected static long extract(RunContext runContext, ArchiveInputStream archiveInputStream, ArchiveEntry entry, Map<String, URI> files, Digests digests, Map<String, Map<String, String>> entryDigests) throws IOException {
+        if (!archiveInputStream.canReadEntryData(entry)) {
+            throw new IOException("Unable to read entry '" + entry.getName() + "'");
+        }
+
+        if (entry.isDirectory()) {
+            return 0;
+        }
+
+        String sanitizedName = entry.getName().replaceAll(" ", "_");
+        // CWE-22: Prevent path traversal by verifying the resolved path stays within the working directory
+        Path workingDirPath = runContext.workingDir().path();
+        Path resolved = workingDirPath.resolve(sanitizedName).normalize();
+        if (!resolved.startsWith(workingDirPath)) {
+            throw new IOException("Path traversal attempt detected in archive entry: " + entry.getName());
+        }
+        Path path = runContext.workingDir().createFile(sanitizedName);
+
+        Digests fileDigests = digests.copy();
+        try (OutputStream o = fileDigests.outputStream(Files.newOutputStream(path))) {
+            IOUtils.copy(archiveInputStream, o);
+        }
+
+        if (!fileDigests.isEmpty()) {
+            entryDigests.put(entry.getName(), fileDigests.values());
+        }
+
+        files.put(entry.getName(), runContext.storage().putFile(path.toFile(), String.valueOf(path.getFileName())));
+
+        return entry.getSize();
+    }
+
     public enum ArchiveAlgorithm {
         AR,
         ARJ,
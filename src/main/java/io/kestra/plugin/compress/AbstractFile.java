@@ -19,7 +19,7 @@ import io.kestra.core.models.annotations.PluginProperty;
 abstract public class AbstractFile extends AbstractTask {
     @Schema(
         title = "Compressor applied to the single file",
-        description = "Required compression algorithm for a single file. Brotli, Deflate64, and Snappy variants are decode-only and cannot be used when writing."
+        description = "Required compression algorithm for a single file. Deflate64 is decode-only and cannot be used when writing. AUTO is only supported by `FileCompress`, which chooses from the first bytes of the file."
     )
     @NotNull
     @PluginProperty(group = "main")
@@ -1,8 +1,10 @@
 package io.kestra.plugin.compress;
 
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.PluginProperty;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
@@ -29,6 +31,7 @@ import java.security.GeneralSecurityException;
 import java.security.NoSuchAlgorithmException;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Arrays;
+import java.util.List;
 
 @SuperBuilder
 @ToString
@@ -55,6 +58,13 @@ abstract class AbstractFileCrypt extends Task {
     static final int    KESTRAENC_SALT_LEN = 16;
     static final int    MIN_PBKDF2_ITERATIONS = 100_000;
 
+    // defaults of FileEncrypt, also used by the encryption options of the pipeline tasks
+    static final KeyDerivation DEFAULT_KEY_DERIVATION   = KeyDerivation.PBKDF2_SHA256;
+    static final int           DEFAULT_ITERATIONS       = 600_000;
+    static final int           DEFAULT_MEMORY           = 65536;
+    static final int           DEFAULT_PARALLELISM      = 1;
+    static final int           DEFAULT_ARGON2_TIME_COST = 3;
+
     @Schema(title = "Source file URI")
     @NotNull
     @PluginProperty(internalStorageURI = true, group = "main")
@@ -76,7 +86,18 @@ abstract class AbstractFileCrypt extends Task {
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
-    protected Property<Integer> iterations = Property.ofValue(600000);
+    protected Property<Integer> iterations = Property.ofValue(DEFAULT_ITERATIONS);
+
+    @Schema(
+        title = "Digests to compute while streaming",
+        description = "CRC32C, XXHASH64, SHA256 or BLAKE3 digests of the input and output files, returned in hexadecimal in the `inputDigests` and `outputDigests` outputs."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<Digests.Algorithm>> digests;
+
+    Digests digests(RunContext runContext) throws IllegalVariableEvaluationException {
+        return Digests.of(this.digests == null ? null : runContext.render(this.digests).asList(Digests.Algorithm.class));
+    }
 
     enum KeyDerivation { PBKDF2_SHA256, PBKDF2_SHA512, ARGON2ID, SCRYPT }
 
@@ -1,36 +1,41 @@
 package io.kestra.plugin.compress;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
 
 import org.apache.commons.compress.compressors.CompressorInputStream;
 import org.apache.commons.compress.compressors.CompressorOutputStream;
-import org.apache.commons.compress.compressors.brotli.BrotliCompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
 import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
-import org.apache.commons.compress.compressors.deflate.DeflateCompressorInputStream;
-import org.apache.commons.compress.compressors.deflate.DeflateCompressorOutputStream;
 import org.apache.commons.compress.compressors.deflate64.Deflate64CompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
-import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
 import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
 import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream;
 import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
-import org.apache.commons.compress.compressors.lzma.LZMACompressorInputStream;
-import org.apache.commons.compress.compressors.lzma.LZMACompressorOutputStream;
-import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
-import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
-import org.apache.commons.compress.compressors.snappy.SnappyCompressorInputStream;
-import org.apache.commons.compress.compressors.xz.XZCompressorInputStream;
-import org.apache.commons.compress.compressors.xz.XZCompressorOutputStream;
 import org.apache.commons.compress.compressors.z.ZCompressorInputStream;
-import org.apache.commons.compress.compressors.zstandard.ZstdCompressorInputStream;
-import org.apache.commons.compress.compressors.zstandard.ZstdCompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.tukaani.xz.LZMAInputStream;
+import org.tukaani.xz.LZMAOutputStream;
+import org.tukaani.xz.SingleXZInputStream;
+import org.tukaani.xz.XZOutputStream;
 
+import com.github.luben.zstd.Zstd;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
 
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -43,44 +48,301 @@ import lombok.experimental.SuperBuilder;
 @Getter
 @NoArgsConstructor
 public abstract class AbstractTask extends Task {
+    @Schema(
+        title = "Number of threads used by the codec",
+        description = "Codecs supporting parallel work split the data into chunks processed on this many threads. GZIP compression writes a pigz-style stream readable by any GZIP decoder, ZSTD compression uses as many native workers unless `zstd.workers` is set, XZ compression writes independent blocks that XZ decompression decodes in parallel, BZIP2 and LZ4FRAME compress and decompress blocks in parallel, GZIP decompression inflates the members of multi-member files (bgzip, concatenated logs) in parallel, seekable ZSTD files are decompressed frame by frame in parallel. Use 0 to use all available processors."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> threads = Property.ofValue(1);
+
+    @Schema(
+        title = "Size in bytes of the chunks processed in parallel",
+        description = "Only used when `threads` is greater than 1, except for XZ and seekable ZSTD where it always writes one block or frame per chunk to allow random access. Defaults to 128 KiB for GZIP, three times the dictionary size for XZ and 1 MiB for seekable ZSTD. Parallel XZ streams hold at most a quarter of the heap, up to 1 GiB: they use fewer threads, or smaller default chunks, when chunks and encoders would need more."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<Integer> chunkSize;
+
+    @Schema(
+        title = "LZ4 implementation",
+        description = """
+            Only used with LZ4FRAME, LZ4BLOCK always uses commons-compress. All implementations read and write the same format.
+            COMMONS: commons-compress pure Java codec.
+            NATIVE: lz4-java with the reference C library through JNI, several times faster; falls back to JAVA on platforms without a bundled native library.
+            JAVA: lz4-java safe pure Java port, faster than COMMONS without native code."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    protected Property<Lz4Backend> lz4Backend = Property.ofValue(Lz4Backend.COMMONS);
+
+    @Schema(
+        title = "Compression tuning",
+        description = "Trade CPU time for output size with a named profile and per-codec overrides. Only used when compressing."
+    )
+    @PluginProperty(group = "advanced")
+    protected CompressionTuning tuning;
+
+    @Schema(
+        title = "Zstandard settings",
+        description = "Only used with ZSTD compression."
+    )
+    @PluginProperty(group = "advanced")
+    protected ZstdOptions zstd;
+
+    @Schema(
+        title = "Brotli settings",
+        description = "Only used with BROTLI compression."
+    )
+    @PluginProperty(group = "advanced")
+    protected BrotliOptions brotli;
+
+    @Schema(
+        title = "Digests to compute while streaming",
+        description = "CRC32C, XXHASH64, SHA256 or BLAKE3 digests of the input and output of the task, computed as the data goes through and returned in hexadecimal in the `inputDigests` and `outputDigests` outputs, and per entry in `entryDigests` for archives. Saves reading the files again to hash them."
+    )
+    @PluginProperty(group = "advanced")
+    protected Property<List<Digests.Algorithm>> digests;
+
+    protected Digests digests(RunContext runContext) throws IllegalVariableEvaluationException {
+        return Digests.of(this.digests == null ? null : runContext.render(this.digests).asList(Digests.Algorithm.class));
+    }
+
+    protected CodecOptions codecOptions(RunContext runContext) throws IllegalVariableEvaluationException, IOException {
+        int rThreads = runContext.render(this.threads).as(Integer.class).orElse(1);
+        if (rThreads < 0) {
+            throw new IllegalArgumentException("threads must be >= 0, got " + rThreads);
+        }
+
+        int rChunkSize = runContext.render(this.chunkSize).as(Integer.class).orElse(0);
+        if (rChunkSize < 0) {
+            throw new IllegalArgumentException("chunkSize must be >= 0, got " + rChunkSize);
+        }
+
+        CodecOptions.CodecOptionsBuilder builder = CodecOptions.builder()
+            .threads(rThreads == 0 ? Runtime.getRuntime().availableProcessors() : rThreads)
+            .chunkSize(rChunkSize)
+            .lz4Backend(runContext.render(this.lz4Backend).as(Lz4Backend.class).orElse(Lz4Backend.COMMONS));
+
+        if (this.tuning != null) {
+            int rBlockSize = runContext.render(this.tuning.getBlockSize()).as(Integer.class).orElse(0);
+            if (rBlockSize < 0) {
+                throw new IllegalArgumentException("blockSize must be >= 0, got " + rBlockSize);
+            }
+
+            builder
+                .profile(runContext.render(this.tuning.getProfile()).as(CompressionTuning.Profile.class).orElse(null))
+                .level(runContext.render(this.tuning.getLevel()).as(Integer.class).orElse(null))
+                .blockSize(rBlockSize)
+                .dictionarySize(runContext.render(this.tuning.getDictionarySize()).as(Integer.class).orElse(0))
+                .lz4HighCompression(runContext.render(this.tuning.getLz4HighCompression()).as(Boolean.class).orElse(null));
+        }
+
+        if (this.zstd != null) {
+            int rLevel = runContext.render(this.zstd.getLevel()).as(Integer.class).orElse(0);
+            if (rLevel < Zstd.minCompressionLevel() || rLevel > Zstd.maxCompressionLevel()) {
+                throw new IllegalArgumentException("zstd level must be between " + Zstd.minCompressionLevel() + " and " + Zstd.maxCompressionLevel() + ", got " + rLevel);
+            }
+
+            int rWindowLog = runContext.render(this.zstd.getWindowLog()).as(Integer.class).orElse(0);
+            if (rWindowLog != 0 && (rWindowLog < Zstd.windowLogMin() || rWindowLog > Zstd.windowLogMax())) {
+                throw new IllegalArgumentException("zstd windowLog must be between " + Zstd.windowLogMin() + " and " + Zstd.windowLogMax() + ", got " + rWindowLog);
+            }
+
+            int rWindowLogMax = runContext.render(this.zstd.getWindowLogMax()).as(Integer.class).orElse(0);
+            if (rWindowLogMax != 0 && (rWindowLogMax < Zstd.windowLogMin() || rWindowLogMax > Zstd.windowLogMax())) {
+                throw new IllegalArgumentException("zstd windowLogMax must be between " + Zstd.windowLogMin() + " and " + Zstd.windowLogMax() + ", got " + rWindowLogMax);
+            }
+
+            builder
+                .zstdLevel(rLevel)
+                .zstdWorkers(runContext.render(this.zstd.getWorkers()).as(Integer.class).orElse(0))
+                .zstdJobSize(runContext.render(this.zstd.getJobSize()).as(Integer.class).orElse(0))
+                .zstdWindowLog(rWindowLog)
+                .zstdLongDistanceMatching(runContext.render(this.zstd.getLongDistanceMatching()).as(Boolean.class).orElse(false))
+                .zstdWindowLogMax(rWindowLogMax)
+                .zstdSeekable(runContext.render(this.zstd.getSeekable()).as(Boolean.class).orElse(false));
+
+            var rDictionary = runContext.render(this.zstd.getDictionary()).as(String.class);
+            if (rDictionary.isPresent()) {
+                builder.zstdDictionary(ZstdDictionary.load(runContext, URI.create(rDictionary.get())));
+            }
+        }
+
+        if (this.brotli != null) {
+            Integer rQuality = runContext.render(this.brotli.getQuality()).as(Integer.class).orElse(null);
+            if (rQuality != null && (rQuality < 0 || rQuality > 11)) {
+                throw new IllegalArgumentException("brotli quality must be between 0 and 11, got " + rQuality);
+            }
+
+            int rLgwin = runContext.render(this.brotli.getLgwin()).as(Integer.class).orElse(0);
+            if (rLgwin != 0 && (rLgwin < 10 || rLgwin > 24)) {
+                throw new IllegalArgumentException("brotli lgwin must be between 10 and 24, got " + rLgwin);
+            }
+
+            builder
+                .brotliQuality(rQuality)
+                .brotliWindow(rLgwin)
+                .brotliMode(runContext.render(this.brotli.getMode()).as(BrotliOptions.Mode.class).orElse(BrotliOptions.Mode.GENERIC));
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Open a compressed internal storage file positioned at the uncompressed {@code offset}, the caller reading at most
+     * {@code length} bytes from it. Codecs able to decode in parallel or to seek work on a local copy of the file, the
+     * others decode and skip everything before the offset.
+     */
+    protected CompressorInputStream compressorInputStream(RunContext runContext, URI from, CompressionAlgorithm compression, CodecOptions options, long offset, long length) throws IOException {
+        return this.compressorInputStream(runContext, from, compression, options, offset, length, Digests.of(null));
+    }
+
+    /**
+     * Same as {@link #compressorInputStream(RunContext, URI, CompressionAlgorithm, CodecOptions, long, long)}, computing
+     * the {@code source} digests of the whole compressed file, read up to its end when the stream is closed. They are
+     * not computed when reading from a GZIP index checkpoint, which skips the beginning of the file.
+     */
+    protected CompressorInputStream compressorInputStream(RunContext runContext, URI from, CompressionAlgorithm compression, CodecOptions options, long offset, long length, Digests source) throws IOException {
+        if (compression == CompressionAlgorithm.GZIP && options.getGzipIndex() != null && offset > 0) {
+            try (InputStream inputStream = runContext.storage().getFile(from)) {
+                options.getGzipIndex().verify(inputStream, runContext.storage().getAttributes(from).getSize());
+            }
+
+            return IndexedGzipInputStream.open(new BufferedInputStream(runContext.storage().getFile(from)), options.getGzipIndex(), offset);
+        }
+
+        if (compression == CompressionAlgorithm.XZ && (options.parallel() || offset > 0)) {
+            return ParallelXZInputStream.open(this.localCopy(runContext, from, source), offset, options.getThreads());
+        }
+
+        CompressorInputStream compressorInputStream = null;
+        if (compression == CompressionAlgorithm.ZSTD && (options.parallel() || offset > 0 || length != Long.MAX_VALUE)) {
+            Path file = this.localCopy(runContext, from, source);
+            CompressorInputStream seekable = SeekableZstdInputStream.open(file, offset, length, options.getThreads(), options);
+            if (seekable != null) {
+                return seekable;
+            }
+
+            compressorInputStream = ZstdStreams.inputStream(new BufferedInputStream(Files.newInputStream(file)), options);
+        } else if (compression == CompressionAlgorithm.BZIP2 && options.parallel()) {
+            compressorInputStream = new ParallelBZip2InputStream(this.localCopy(runContext, from, source), options.getThreads());
+        } else if (compression == CompressionAlgorithm.GZIP && options.parallel()) {
+            compressorInputStream = new ParallelGzipInputStream(this.localCopy(runContext, from, source), options.getThreads());
+        } else {
+            compressorInputStream = this.compressorInputStream(
+                compression,
+                new BufferedInputStream(source.inputStream(runContext.storage().getFile(from), true)),
+                options
+            );
+        }
+
+        try {
+            IOUtils.skipFully(compressorInputStream, offset);
+        } catch (IOException e) {
+            compressorInputStream.close();
+            throw e;
+        }
+
+        return compressorInputStream;
+    }
+
+    private Path localCopy(RunContext runContext, URI from, Digests source) throws IOException {
+        Path file = runContext.workingDir().createTempFile();
+        try (InputStream inputStream = source.inputStream(runContext.storage().getFile(from), false)) {
+            Files.copy(inputStream, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        return file;
+    }
+
     protected CompressorInputStream compressorInputStream(CompressionAlgorithm compression, InputStream inputStream) throws IOException {
+        return this.compressorInputStream(compression, inputStream, CodecOptions.DEFAULT);
+    }
+
+    protected CompressorInputStream compressorInputStream(CompressionAlgorithm compression, InputStream inputStream, CodecOptions options) throws IOException {
         return switch (compression) {
-            case BROTLI -> new BrotliCompressorInputStream(inputStream);
-            case BZIP2 -> new BZip2CompressorInputStream(inputStream);
-            case DEFLATE -> new DeflateCompressorInputStream(inputStream);
+            case AUTO -> throw new IllegalArgumentException("AUTO compression can only be used to compress, use the compression chosen by the task that wrote the file");
+            case BROTLI -> BrotliStreams.inputStream(inputStream);
+            case BZIP2 -> new BZip2CompressorInputStream(inputStream, true);
+            case DEFLATE -> new PooledInflaterInputStream(inputStream, false);
             case DEFLATE64 -> new Deflate64CompressorInputStream(inputStream);
-            case GZIP -> new GzipCompressorInputStream(inputStream);
+            case GZIP -> new GzipInputStream(inputStream);
             case LZ4BLOCK -> new BlockLZ4CompressorInputStream(inputStream);
-            case LZ4FRAME -> new FramedLZ4CompressorInputStream(inputStream);
-            case LZMA -> new LZMACompressorInputStream(inputStream);
-            case SNAPPY -> new SnappyCompressorInputStream(inputStream);
-            case SNAPPYFRAME -> new FramedSnappyCompressorInputStream(inputStream);
-            case XZ -> new XZCompressorInputStream(inputStream);
-            case ZSTD -> new ZstdCompressorInputStream(inputStream);
+            case LZ4FRAME -> options.parallel() || options.getLz4Backend() != Lz4Backend.COMMONS
+                ? new ParallelLZ4FrameInputStream(inputStream, options.getThreads(), options.lz4Codec())
+                : new FramedLZ4CompressorInputStream(inputStream);
+            case LZMA -> new WrappedCompressorInputStream(new LZMAInputStream(inputStream, -1, CodecPools.ARRAY_CACHE));
+            case SNAPPY -> SnappyStreams.rawInputStream(inputStream);
+            case SNAPPYFRAME -> SnappyStreams.framedInputStream(inputStream);
+            case XZ -> new WrappedCompressorInputStream(new SingleXZInputStream(inputStream, -1, true, CodecPools.ARRAY_CACHE));
+            case ZSTD -> ZstdStreams.inputStream(inputStream, options);
             case Z -> new ZCompressorInputStream(inputStream);
         };
 
     }
 
     protected CompressorOutputStream compressorOutputStream(CompressionAlgorithm compression, OutputStream outputStream) throws IOException {
+        return this.compressorOutputStream(compression, outputStream, CodecOptions.DEFAULT);
+    }
+
+    protected CompressorOutputStream compressorOutputStream(CompressionAlgorithm compression, OutputStream outputStream, CodecOptions options) throws IOException {
         return switch (compression) {
-            case BROTLI, DEFLATE64, SNAPPY ->
+            case AUTO -> throw new IllegalArgumentException("AUTO compression is only supported by FileCompress and ArchiveCompress");
+            case BROTLI -> BrotliStreams.outputStream(outputStream, options);
+            case DEFLATE64 ->
                 throw new IllegalArgumentException("Not implemented compression '" + compression + "'");
-            case BZIP2 -> new BZip2CompressorOutputStream(outputStream);
-            case DEFLATE -> new DeflateCompressorOutputStream(outputStream);
-            case GZIP -> new GzipCompressorOutputStream(outputStream);
-            case LZ4BLOCK -> new BlockLZ4CompressorOutputStream(outputStream);
-            case LZ4FRAME -> new FramedLZ4CompressorOutputStream(outputStream);
-            case LZMA -> new LZMACompressorOutputStream(outputStream);
-            case SNAPPYFRAME -> new FramedSnappyCompressorOutputStream(outputStream);
-            case XZ -> new XZCompressorOutputStream(outputStream);
-            case ZSTD -> new ZstdCompressorOutputStream(outputStream);
+            case BZIP2 -> {
+                if (options.parallel()) {
+                    yield new ParallelBZip2OutputStream(outputStream, options.getThreads(), options.getChunkSize(), options.bzip2BlockSize());
+                }
+
+                yield new BZip2CompressorOutputStream(outputStream, options.bzip2BlockSize());
+            }
+            case DEFLATE -> new PooledDeflaterOutputStream(outputStream, options.deflateLevel(), false);
+            case GZIP -> {
+                if (options.parallel()) {
+                    yield new ParallelGzipOutputStream(outputStream, options.getThreads(), options.getChunkSize(), options.deflateLevel());
+                }
+
+                yield new GzipOutputStream(outputStream, options.deflateLevel());
+            }
+            case LZ4BLOCK -> new BlockLZ4CompressorOutputStream(outputStream, options.lz4Parameters());
+            case LZ4FRAME -> {
+                if (options.parallel()) {
+                    yield new ParallelLZ4FrameOutputStream(outputStream, options.getThreads(), options.lz4BlockSize(), options.lz4Codec());
+                }
+
+                yield options.lz4Codec().frameOutputStream(outputStream, options.lz4BlockSize());
+            }
+            case LZMA -> new WrappedCompressorOutputStream(new LZMAOutputStream(outputStream, options.lzma2Options(), -1, CodecPools.ARRAY_CACHE)) {
+                @Override
+                public void flush() {
+                    // the .lzma format cannot be flushed, data is written out on close
+                }
+            };
+            case SNAPPY -> SnappyStreams.rawOutputStream(outputStream);
+            case SNAPPYFRAME -> SnappyStreams.framedOutputStream(outputStream);
+            case XZ -> {
+                if (options.parallel() || options.getChunkSize() > 0) {
+                    yield new ParallelXZOutputStream(outputStream, options.getThreads(), options.getChunkSize(), options.lzma2Options());
+                }
+
+                yield new WrappedCompressorOutputStream(new XZOutputStream(outputStream, options.lzma2Options(), CodecPools.ARRAY_CACHE));
+            }
+            case ZSTD -> {
+                if (options.isZstdSeekable()) {
+                    yield new SeekableZstdOutputStream(outputStream, options.getThreads(), options.getChunkSize(), options);
+                }
+
+                yield ZstdStreams.outputStream(outputStream, options);
+            }
             default -> throw new IllegalArgumentException("Unknown compression '" + compression + "'");
         };
 
     }
 
     public enum CompressionAlgorithm {
+        AUTO,
         BROTLI,
         BZIP2,
         DEFLATE,
@@ -95,4 +357,10 @@ public abstract class AbstractTask extends Task {
         Z,
         ZSTD
     }
+
+    public enum Lz4Backend {
+        COMMONS,
+        NATIVE,
+        JAVA
+    }
 }
@@ -2,17 +2,16 @@ package io.kestra.plugin.compress;
 
 import java.io.*;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
-import org.apache.commons.compress.archivers.ArchiveEntry;
 import org.apache.commons.compress.archivers.ArchiveOutputStream;
 import org.apache.commons.compress.compressors.CompressorOutputStream;
-import org.apache.commons.io.IOUtils;
 
 import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Data;
 import io.kestra.core.models.property.URIFetcher;
 import io.kestra.core.models.tasks.RunnableTask;
@@ -22,11 +21,11 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
-import reactor.core.scheduler.Schedulers;
 
-import static io.kestra.core.utils.Rethrow.throwConsumer;
 import io.kestra.core.models.annotations.PluginProperty;
 
+import static io.kestra.core.utils.Rethrow.throwConsumer;
+
 @SuperBuilder
 @ToString
 @EqualsAndHashCode
@@ -34,9 +33,14 @@ import io.kestra.core.models.annotations.PluginProperty;
 @NoArgsConstructor
 @Schema(
     title = "Create an archive from multiple files",
-    description = "Builds an archive from rendered file map inputs stored in internal storage, optionally wrapping it with a stream compressor (for example TAR + GZIP). Fails for algorithms that are extract-only."
+    description = "Builds an archive from rendered file map inputs stored in internal storage, optionally wrapping it with a stream compressor (for example TAR + GZIP). Fails for algorithms that are extract-only. With AUTO compression, files that are already compressed, like images or Parquet files, are stored as is: entry by entry in ZIP and JAR archives, others get ZSTD unless their files mostly are."
 )
 @Plugin(
+    metrics = {
+        @Metric(name = "cache.hit", type = Counter.TYPE, description = "1 when the archive of a previous run was reused, with `resultCache`"),
+        @Metric(name = "cache.miss", type = Counter.TYPE, description = "1 when the archive was built, with `resultCache`"),
+        @Metric(name = "stored", type = Counter.TYPE, description = "Number of ZIP or JAR entries stored without compression, with AUTO compression")
+    },
     examples = {
         @Example(
             full = true,
@@ -94,6 +98,11 @@ import io.kestra.core.models.annotations.PluginProperty;
     }
 )
 public class ArchiveCompress extends AbstractArchive implements RunnableTask<ArchiveCompress.Output>, Data.From {
+    /**
+     * Bytes probed over all the files with AUTO, when the archive is compressed as a whole.
+     */
+    private static final int PROBE_SIZE = 4 * CompressibilityProbe.SIZE;
+
     @Schema(
         title = Data.From.TITLE,
         description = Data.From.DESCRIPTION
@@ -102,69 +111,126 @@ public class ArchiveCompress extends AbstractArchive implements RunnableTask<Arc
     @PluginProperty(group = "main")
     private Object from;
 
+    @Schema(
+        title = "Reuse the archive of a previous run",
+        description = "When the same files, by entry name and content, were already archived with the same settings in this namespace, the archive is returned instead of being built again. Every file is read once more on a miss to compute the key. The index is kept in the memory of the worker."
+    )
+    @PluginProperty(group = "advanced")
+    private ResultCacheOptions resultCache;
+
     public Output run(RunContext runContext) throws Exception {
-        File tempFile = runContext.workingDir().createTempFile().toFile();
+        Digests outputDigests = this.digests(runContext);
+        Map<String, Map<String, String>> entryDigests = new LinkedHashMap<>();
 
-        try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+        ResultCache.Key cacheKey = ResultCache.key(runContext, this.resultCache, ArchiveCompress.class);
+        if (cacheKey != null) {
+            cacheKey
+                .parameter(runContext.render(this.algorithm).as(ArchiveAlgorithm.class).orElseThrow())
+                .parameter(outputDigests.algorithms());
             if (this.compression != null) {
+                cacheKey
+                    .parameter(runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow())
+                    .codec(this.codecOptions(runContext));
+            }
+
+            Data.from(this.from)
+                .read(runContext)
+                .doOnNext(throwConsumer(map -> {
+                    for (Map.Entry<String, Object> current : map.entrySet()) {
+                        cacheKey
+                            .parameter(runContext.render(current.getKey()))
+                            .content(URIFetcher.of(URI.create(runContext.render(current.getValue().toString()))).fetch(runContext));
+                    }
+                }))
+                .blockLast();
+
+            Output cached = cacheKey.get(Output.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        CompressionAlgorithm rCompression = this.compression == null ? null : runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+        CodecOptions options = rCompression == null ? null : this.codecOptions(runContext);
+
+        // ZIP and JAR compress each entry on their own: AUTO chooses per entry, other archives get one codec for all
+        boolean storeIncompressible = false;
+        if (rCompression == CompressionAlgorithm.AUTO) {
+            ArchiveAlgorithm rAlgorithm = runContext.render(this.algorithm).as(ArchiveAlgorithm.class).orElseThrow();
+            if (rAlgorithm == ArchiveAlgorithm.ZIP || rAlgorithm == ArchiveAlgorithm.JAR) {
+                storeIncompressible = true;
+                rCompression = null;
+            } else {
+                double ratio = this.probe(runContext);
+                rCompression = ratio < CompressibilityProbe.MIN_RATIO ? null : CompressionAlgorithm.ZSTD;
+                options = CompressibilityProbe.options(ratio, options);
+                runContext.logger().debug("Estimated compression ratio {}, writing with {}", ratio, rCompression == null ? "no compression" : rCompression);
+            }
+        }
+
+        File tempFile = runContext.workingDir().createTempFile().toFile();
+
+        int stored;
+        try (BufferedOutputStream outputStream = new BufferedOutputStream(outputDigests.outputStream(new FileOutputStream(tempFile)))) {
+            if (rCompression != null) {
                 try (
                     CompressorOutputStream compressorOutputStream = this.compressorOutputStream(
-                        runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
-                        outputStream
+                        rCompression,
+                        outputStream,
+                        options
                     );
                     ArchiveOutputStream archiveInputStream = this.archiveOutputStream(compressorOutputStream, runContext)
                 ) {
-                    this.writeArchive(runContext, archiveInputStream);
+                    stored = writeArchive(runContext, this.from, archiveInputStream, outputDigests, entryDigests, false);
                 }
             } else {
                 try (ArchiveOutputStream archiveOutputStream = this.archiveOutputStream(outputStream, runContext)) {
-                    this.writeArchive(runContext, archiveOutputStream);
+                    stored = writeArchive(runContext, this.from, archiveOutputStream, outputDigests, entryDigests, storeIncompressible);
                 }
             }
         }
 
-        return Output.builder()
+        if (storeIncompressible) {
+            runContext.metric(Counter.of("stored", stored));
+        }
+
+        Output output = Output.builder()
             .uri(runContext.storage().putFile(tempFile))
+            .compression(rCompression)
+            .outputDigests(outputDigests.values())
+            .entryDigests(outputDigests.isEmpty() ? null : entryDigests)
             .build();
+
+        if (cacheKey != null) {
+            cacheKey.put(output, output.getUri());
+        }
+
+        return output;
     }
 
-    @SuppressWarnings("unchecked")
-    private void writeArchive(RunContext runContext, ArchiveOutputStream archiveInputStream) throws Exception {
+    /**
+     * The compression ratio estimated on the first bytes of the files, a few KiB of each up to a few hundred KiB in all,
+     * so that an archive of many small files is not judged on the first ones only.
+     */
+    private double probe(RunContext runContext) throws Exception {
+        ByteArrayOutputStream head = new ByteArrayOutputStream();
         Data.from(this.from)
             .read(runContext)
-            .publishOn(Schedulers.boundedElastic())
-            .doOnNext(throwConsumer(map ->
-            {
+            .doOnNext(throwConsumer(map -> {
                 for (Map.Entry<String, Object> current : map.entrySet()) {
+                    int remaining = PROBE_SIZE - head.size();
+                    if (remaining <= 0) {
+                        return;
+                    }
 
-                    // temp file and path
-                    String finalPath = runContext.render(current.getKey());
-                    File tempFile = runContext.workingDir().resolve(Path.of(finalPath)).toFile();
-                    new File(tempFile.getParent()).mkdirs();
-
-                    // write to temp file
-                    String render = runContext.render(current.getValue().toString());
-                    OutputStream fileOutputStream = new BufferedOutputStream(new FileOutputStream(tempFile));
-                    InputStream inputStream = URIFetcher.of(URI.create(render)).fetch(runContext);
-
-                    IOUtils.copy(inputStream, fileOutputStream);
-                    fileOutputStream.flush();
-                    fileOutputStream.close();
-
-                    // create archive entry
-                    ArchiveEntry entry = archiveInputStream.createArchiveEntry(tempFile, finalPath);
-                    archiveInputStream.putArchiveEntry(entry);
-
-                    // write archive entry
-                    try (InputStream i = Files.newInputStream(tempFile.toPath())) {
-                        IOUtils.copy(i, archiveInputStream);
+                    try (InputStream inputStream = URIFetcher.of(URI.create(runContext.render(current.getValue().toString()))).fetch(runContext)) {
+                        head.write(inputStream.readNBytes(Math.min(remaining, CompressibilityProbe.SIZE / 8)));
                     }
-                    archiveInputStream.closeArchiveEntry();
                 }
             }))
             .blockLast();
 
-        archiveInputStream.finish();
+        return CompressibilityProbe.ratio(head.toByteArray(), head.size());
     }
 
     @Builder
@@ -174,5 +240,24 @@ public class ArchiveCompress extends AbstractArchive implements RunnableTask<Arc
             title = "URI of the compressed archive file on Kestra's internal storage"
         )
         private final URI uri;
+
+        @Schema(
+            title = "Compression algorithm applied to the archive",
+            description = "The one chosen with AUTO, null when the archive is not compressed as a whole: without `compression`, when AUTO found its files already compressed, or with AUTO on ZIP and JAR archives, whose entries are stored or deflated one by one."
+        )
+        private final CompressionAlgorithm compression;
+
+        @Schema(
+            title = "Digests of the archive file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
+
+        @Schema(
+            title = "Digests of each archived file, by entry name",
+            description = "Only set with `digests`."
+        )
+        @PluginProperty(additionalProperties = Map.class)
+        private final Map<String, Map<String, String>> entryDigests;
     }
 }
@@ -3,18 +3,23 @@ package io.kestra.plugin.compress;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
 import java.net.URI;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveException;
 import org.apache.commons.compress.archivers.ArchiveInputStream;
 import org.apache.commons.compress.compressors.CompressorInputStream;
-import org.apache.commons.io.IOUtils;
 
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
 import io.kestra.core.models.annotations.Example;
 import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
@@ -41,7 +46,9 @@ import lombok.experimental.SuperBuilder;
 @Plugin(
     metrics = {
         @Metric(name = "size", type = Counter.TYPE, description = "Total size of decompressed files in bytes"),
-        @Metric(name = "count", type = Counter.TYPE, description = "Number of files decompressed")
+        @Metric(name = "count", type = Counter.TYPE, description = "Number of files decompressed"),
+        @Metric(name = "cache.hit", type = Counter.TYPE, description = "1 when the files of a previous run were reused, with `resultCache`"),
+        @Metric(name = "cache.miss", type = Counter.TYPE, description = "1 when the archive was extracted, with `resultCache`")
     },
     examples = {
         @Example(
@@ -73,62 +80,141 @@ public class ArchiveDecompress extends AbstractArchive implements RunnableTask<A
     @PluginProperty(internalStorageURI = true, group = "main")
     private Property<String> from;
 
+    @Schema(
+        title = "Names of the entries to extract",
+        description = "Extracts only these entries instead of the whole archive."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<List<String>> entries;
+
+    @Schema(
+        title = "Internal storage URI of a GZIP checkpoint index",
+        description = "Index built by the `GzipIndex` task for this TAR archive compressed with GZIP. With `entries`, each entry is read from the closest checkpoint before it instead of decompressing the archive from the beginning."
+    )
+    @PluginProperty(internalStorageURI = true, group = "advanced")
+    private Property<String> index;
+
+    @Schema(
+        title = "Reuse the files extracted by a previous run",
+        description = "The archive is fingerprinted by its content, along with `algorithm`, `compression` and `entries`. When the same archive was already extracted in this namespace, the `files` of that run are returned without decoding anything, as long as they are all still in internal storage. The archive is read once to compute the fingerprint. The index is kept in the memory of the worker, bounded by the number of files it references."
+    )
+    @PluginProperty(group = "advanced")
+    private ResultCacheOptions resultCache;
+
     public Output run(RunContext runContext) throws Exception {
         Map<String, URI> files;
+        Digests inputDigests = this.digests(runContext);
+        Map<String, Map<String, String>> entryDigests = new LinkedHashMap<>();
 
         URI from = new URI(runContext.render(this.from).as(String.class).orElseThrow());
-        try (
-            InputStream fromInputStream = runContext.storage().getFile(from);
-            InputStream fromInputStreamBuffered = new BufferedInputStream(fromInputStream);
-        ) {
-            if (this.compression != null) {
+        Set<String> rEntries = this.entries == null ? Set.of() : new HashSet<>(runContext.render(this.entries).asList(String.class));
+
+        ResultCache.Key cacheKey = ResultCache.key(runContext, this.resultCache, ArchiveDecompress.class);
+        if (cacheKey != null) {
+            Output cached = cacheKey
+                .parameter(runContext.render(this.algorithm).as(ArchiveAlgorithm.class).orElseThrow())
+                .parameter(this.compression == null ? null : runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow())
+                .parameter(new TreeSet<>(rEntries))
+                .parameter(runContext.render(this.index).as(String.class).isPresent())
+                .parameter(inputDigests.algorithms())
+                .content(runContext.storage().getFile(from))
+                .get(Output.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        if (this.compression != null) {
+            CompressionAlgorithm rCompression = runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+            CodecOptions options = this.codecOptions(runContext);
+
+            var rIndex = runContext.render(this.index).as(String.class);
+            if (rIndex.isPresent()) {
+                if (rCompression != CompressionAlgorithm.GZIP || runContext.render(this.algorithm).as(ArchiveAlgorithm.class).orElseThrow() != ArchiveAlgorithm.TAR) {
+                    throw new IllegalArgumentException("index is only supported for TAR archives with GZIP compression");
+                }
+                options = options.toBuilder()
+                    .gzipIndex(GzipCheckpointIndex.load(runContext, URI.create(rIndex.get())))
+                    .build();
+            }
+
+            if (options.getGzipIndex() != null && !rEntries.isEmpty()) {
+                // only parts of the file are read, there are no input digests
+                files = this.readIndexedEntries(runContext, from, options, rEntries, inputDigests, entryDigests);
+                inputDigests = Digests.of(null);
+            } else {
                 try (
                     CompressorInputStream compressorInputStream = this.compressorInputStream(
-                        runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
-                        fromInputStreamBuffered
+                        runContext,
+                        from,
+                        rCompression,
+                        options,
+                        0,
+                        Long.MAX_VALUE,
+                        inputDigests
                     );
                     ArchiveInputStream archiveInputStream = this.archiveInputStream(compressorInputStream, runContext);
                 ) {
-                    files = this.readArchive(runContext, archiveInputStream);
-                }
-            } else {
-                try (ArchiveInputStream archiveInputStream = this.archiveInputStream(fromInputStreamBuffered, runContext)) {
-                    files = this.readArchive(runContext, archiveInputStream);
+                    files = readArchive(runContext, archiveInputStream, rEntries, inputDigests, entryDigests);
                 }
             }
+        } else {
+            try (
+                InputStream fromInputStream = inputDigests.inputStream(runContext.storage().getFile(from), true);
+                InputStream fromInputStreamBuffered = new BufferedInputStream(fromInputStream);
+                ArchiveInputStream archiveInputStream = this.archiveInputStream(fromInputStreamBuffered, runContext)
+            ) {
+                files = readArchive(runContext, archiveInputStream, rEntries, inputDigests, entryDigests);
+            }
         }
 
-        return Output.builder()
+        Output output = Output.builder()
             .files(files)
+            .inputDigests(inputDigests.values())
+            .entryDigests(entryDigests.isEmpty() ? null : entryDigests)
             .build();
-    }
 
-    private Map<String, URI> readArchive(RunContext runContext, ArchiveInputStream archiveInputStream) throws IOException {
-        HashMap<String, URI> files = new HashMap<>();
+        if (cacheKey != null) {
+            cacheKey.put(output, files.values());
+        }
 
-        long size = 0;
-        ArchiveEntry entry;
-        while ((entry = archiveInputStream.getNextEntry()) != null) {
-            if (!archiveInputStream.canReadEntryData(entry)) {
-                throw new IOException("Unable to read entry '" + entry.getName() + "'");
-            }
+        return output;
+    }
 
-            if (!entry.isDirectory()) {
-                String sanitizedName = entry.getName().replaceAll(" ", "_");
-                // CWE-22: Prevent path traversal by verifying the resolved path stays within the working directory
-                Path workingDirPath = runContext.workingDir().path();
-                Path resolved = workingDirPath.resolve(sanitizedName).normalize();
-                if (!resolved.startsWith(workingDirPath)) {
-                    throw new IOException("Path traversal attempt detected in archive entry: " + entry.getName());
-                }
-                Path path = runContext.workingDir().createFile(sanitizedName);
+    /**
+     * Read each entry from the index checkpoint closest to its header, in archive order.
+     */
+    private Map<String, URI> readIndexedEntries(RunContext runContext, URI from, CodecOptions options, Set<String> entries, Digests digests, Map<String, Map<String, String>> entryDigests) throws IOException, ArchiveException, IllegalVariableEvaluationException {
+        List<GzipCheckpointIndex.Entry> indexed = new ArrayList<>();
+        for (String name : entries) {
+            GzipCheckpointIndex.Entry entry = options.getGzipIndex().entry(name);
+            if (entry == null) {
+                throw new IllegalArgumentException("Entry '" + name + "' is not in the archive index");
+            }
+            indexed.add(entry);
+        }
+        indexed.sort(Comparator.comparingLong(GzipCheckpointIndex.Entry::headerOffset));
 
-                try (OutputStream o = Files.newOutputStream(path)) {
-                    IOUtils.copy(archiveInputStream, o);
+        HashMap<String, URI> files = new HashMap<>();
+        long size = 0;
+        for (GzipCheckpointIndex.Entry indexedEntry : indexed) {
+            try (
+                CompressorInputStream compressorInputStream = this.compressorInputStream(
+                    runContext,
+                    from,
+                    CompressionAlgorithm.GZIP,
+                    options,
+                    indexedEntry.headerOffset(),
+                    Long.MAX_VALUE
+                );
+                ArchiveInputStream archiveInputStream = this.archiveInputStream(compressorInputStream, runContext);
+            ) {
+                ArchiveEntry entry = archiveInputStream.getNextEntry();
+                if (entry == null || !entry.getName().equals(indexedEntry.name())) {
+                    throw new IOException("The index does not match the archive, expected entry '" + indexedEntry.name() + "' at offset " + indexedEntry.headerOffset());
                 }
 
-                size = size + entry.getSize();
-                files.put(entry.getName(), runContext.storage().putFile(path.toFile(), String.valueOf(path.getFileName())));
+                size += extract(runContext, archiveInputStream, entry, files, digests, entryDigests);
             }
         }
 
@@ -146,5 +232,18 @@ public class ArchiveDecompress extends AbstractArchive implements RunnableTask<A
         )
         @PluginProperty(additionalProperties = URI.class)
         private final Map<String, URI> files;
+
+        @Schema(
+            title = "Digests of the archive file",
+            description = "Only set with `digests`, and not when entries are read from an `index`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of each extracted file, by entry name",
+            description = "Only set with `digests`."
+        )
+        @PluginProperty(additionalProperties = Map.class)
+        private final Map<String, Map<String, String>> entryDigests;
     }
 }
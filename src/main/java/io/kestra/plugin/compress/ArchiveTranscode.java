@@ -0,0 +1,488 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.archivers.ar.ArArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioArchiveEntry;
+import org.apache.commons.compress.archivers.cpio.CpioConstants;
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ParallelScatterZipCreator;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
+import org.apache.commons.compress.parallel.FileBasedScatterGatherBackingStore;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.io.input.ReadAheadInputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Convert an archive to another archive or compression format",
+    description = "Reads the entries of an archive (`algorithm`, optionally compressed with `compression`) and writes them to a new archive (`targetAlgorithm`, optionally compressed with `targetCompression`) in a single streaming pass, without extracting them to internal storage. Entry names, modification times, permissions and, between TAR archives, owners and links are kept. When the source is compressed, it is decoded on a separate thread. With `threads` greater than 1 and a ZIP or JAR target, entries are deflated in parallel; other targets use `threads` for `targetCompression`."
+)
+@Plugin(
+    metrics = {
+        @Metric(name = "size", type = Counter.TYPE, description = "Total size of the transcoded entries in bytes"),
+        @Metric(name = "count", type = Counter.TYPE, description = "Number of transcoded entries")
+    },
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: archive_transcode
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: tar.gz delivery
+                    type: FILE
+
+                tasks:
+                  - id: transcode
+                    type: io.kestra.plugin.compress.ArchiveTranscode
+                    from: "{{ inputs.file }}"
+                    algorithm: TAR
+                    compression: GZIP
+                    targetAlgorithm: ZIP
+                    threads: 4
+                """
+        )
+    }
+)
+public class ArchiveTranscode extends AbstractArchive implements RunnableTask<ArchiveTranscode.Output> {
+    private static final int MAX_BUFFERED_ENTRY = 8 * 1024 * 1024;
+    private static final long MAX_BUFFERED_BATCH = 64L * 1024 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    @Schema(
+        title = "Internal storage URI of the archive"
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Archive format of the output",
+        description = "AR, CPIO, JAR, TAR or ZIP. AR has no directories: directory entries are dropped."
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<ArchiveAlgorithm> targetAlgorithm;
+
+    @Schema(
+        title = "Compressor applied to the output archive",
+        description = "Leave null to store the output archive uncompressed. Deflate64 is decode-only and cannot be used here."
+    )
+    @PluginProperty(group = "main")
+    private Property<CompressionAlgorithm> targetCompression;
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        ArchiveAlgorithm rTargetAlgorithm = runContext.render(this.targetAlgorithm).as(ArchiveAlgorithm.class).orElseThrow();
+        var rTargetCompression = runContext.render(this.targetCompression).as(CompressionAlgorithm.class);
+        CodecOptions options = this.codecOptions(runContext);
+
+        File tempFile = runContext.workingDir().createTempFile().toFile();
+        Digests inputDigests = this.digests(runContext);
+        Digests outputDigests = inputDigests.copy();
+        Map<String, Map<String, String>> entryDigests = new LinkedHashMap<>();
+        Counts counts;
+
+        try (
+            InputStream inputStream = this.sourceInputStream(runContext, rFrom, options, inputDigests);
+            ArchiveInputStream<?> archiveInputStream = this.archiveInputStream(inputStream, runContext);
+            BufferedOutputStream outputStream = new BufferedOutputStream(outputDigests.outputStream(new FileOutputStream(tempFile)))
+        ) {
+            if (rTargetCompression.isPresent()) {
+                try (
+                    OutputStream compressorOutputStream = this.compressorOutputStream(rTargetCompression.get(), outputStream, options);
+                    ArchiveOutputStream<?> archiveOutputStream = archiveOutputStream(compressorOutputStream, rTargetAlgorithm)
+                ) {
+                    counts = this.transcode(runContext, archiveInputStream, archiveOutputStream, rTargetAlgorithm, options, inputDigests, entryDigests);
+                }
+            } else {
+                try (ArchiveOutputStream<?> archiveOutputStream = archiveOutputStream(outputStream, rTargetAlgorithm)) {
+                    counts = this.transcode(runContext, archiveInputStream, archiveOutputStream, rTargetAlgorithm, options, inputDigests, entryDigests);
+                }
+            }
+        }
+
+        runContext.metric(Counter.of("size", counts.size));
+        runContext.metric(Counter.of("count", counts.count));
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile))
+            .count(counts.count)
+            .size(counts.size)
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
+            .entryDigests(inputDigests.isEmpty() ? null : entryDigests)
+            .build();
+    }
+
+    private InputStream sourceInputStream(RunContext runContext, URI from, CodecOptions options, Digests digests) throws Exception {
+        if (this.compression == null) {
+            return new BufferedInputStream(digests.inputStream(runContext.storage().getFile(from), true));
+        }
+
+        // entries are read one after the other: decode the source as a stream, on its own thread
+        InputStream compressorInputStream = this.compressorInputStream(
+            runContext,
+            from,
+            runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
+            options.toBuilder().threads(1).build(),
+            0,
+            Long.MAX_VALUE,
+            digests
+        );
+
+        return ReadAheadInputStream.builder()
+            .setInputStream(compressorInputStream)
+            .setBufferSize(1024 * 1024)
+            .get();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Counts transcode(RunContext runContext, ArchiveInputStream<?> in, ArchiveOutputStream out, ArchiveAlgorithm target, CodecOptions options, Digests digests, Map<String, Map<String, String>> entryDigests) throws Exception {
+        boolean zip = target == ArchiveAlgorithm.ZIP || target == ArchiveAlgorithm.JAR;
+        ScatterBatch batch = zip && options.parallel() ? new ScatterBatch(runContext, (ZipArchiveOutputStream) out, options) : null;
+        Counts counts = new Counts();
+
+        try {
+            ArchiveEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                if (!in.canReadEntryData(entry)) {
+                    throw new IOException("Unable to read entry '" + entry.getName() + "'");
+                }
+                if (target == ArchiveAlgorithm.AR && entry.isDirectory()) {
+                    continue;
+                }
+
+                Digests contentDigests = digests.copy();
+                InputStream content = contentDigests.inputStream(in, false);
+
+                long size = entry.isDirectory() ? 0 : entry.getSize();
+                if (batch != null) {
+                    counts.add(batch.add(this.convert(entry, target, ArchiveEntry.SIZE_UNKNOWN, options), content));
+                } else if (size == ArchiveEntry.SIZE_UNKNOWN && !zip) {
+                    // TAR, AR and CPIO headers hold the entry size: spill entries without one to the working directory first
+                    Path spill = runContext.workingDir().createTempFile();
+                    try {
+                        size = Files.copy(content, spill, StandardCopyOption.REPLACE_EXISTING);
+                        try (InputStream spilled = new BufferedInputStream(Files.newInputStream(spill))) {
+                            counts.add(this.write(out, this.convert(entry, target, size, options), spilled));
+                        }
+                    } finally {
+                        Files.deleteIfExists(spill);
+                    }
+                } else {
+                    counts.add(this.write(out, this.convert(entry, target, size, options), content));
+                }
+
+                if (!entry.isDirectory() && !contentDigests.isEmpty()) {
+                    entryDigests.put(entry.getName(), contentDigests.values());
+                }
+            }
+
+            if (batch != null) {
+                batch.flush();
+            }
+        } finally {
+            if (batch != null) {
+                batch.clear();
+            }
+        }
+
+        out.finish();
+
+        return counts;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private long write(ArchiveOutputStream out, ArchiveEntry entry, InputStream content) throws IOException {
+        out.putArchiveEntry(entry);
+        long size = entry.isDirectory() ? 0 : IOUtils.copyLarge(content, out);
+        out.closeArchiveEntry();
+
+        return size;
+    }
+
+    /**
+     * Create the target entry, keeping the name, modification time, permissions and, when both archives have them,
+     * owners and links.
+     *
+     * @param size the content size, {@link ArchiveEntry#SIZE_UNKNOWN} for ZIP targets that do not need it upfront
+     */
+    private ArchiveEntry convert(ArchiveEntry source, ArchiveAlgorithm target, long size, CodecOptions options) {
+        String name = source.isDirectory() && !source.getName().endsWith("/") ? source.getName() + "/" : source.getName();
+        Date modified = source.getLastModifiedDate() == null ? new Date() : source.getLastModifiedDate();
+        int mode = mode(source);
+
+        return switch (target) {
+            case TAR -> {
+                if (source instanceof TarArchiveEntry tarEntry) {
+                    // the source header already has everything TAR can hold, including PAX headers
+                    yield tarEntry;
+                }
+
+                TarArchiveEntry entry = new TarArchiveEntry(name);
+                entry.setSize(source.isDirectory() ? 0 : size);
+                entry.setModTime(modified);
+                if (mode != 0) {
+                    entry.setMode((source.isDirectory() ? TarArchiveEntry.DEFAULT_DIR_MODE : TarArchiveEntry.DEFAULT_FILE_MODE) & ~07777 | mode);
+                }
+                yield entry;
+            }
+            case ZIP, JAR -> {
+                ZipArchiveEntry entry = new ZipArchiveEntry(name);
+                entry.setTime(modified.getTime());
+                entry.setMethod(ZipEntry.DEFLATED);
+                if (source.getSize() >= 0 && !source.isDirectory()) {
+                    entry.setSize(source.getSize());
+                }
+                if (mode != 0) {
+                    entry.setUnixMode((source.isDirectory() ? 040000 : 0100000) | mode);
+                }
+                if (source instanceof ZipArchiveEntry zipEntry && zipEntry.getComment() != null) {
+                    entry.setComment(zipEntry.getComment());
+                }
+                yield entry;
+            }
+            case AR -> {
+                int userId = source instanceof TarArchiveEntry tarEntry ? (int) tarEntry.getLongUserId() : 0;
+                int groupId = source instanceof TarArchiveEntry tarEntry ? (int) tarEntry.getLongGroupId() : 0;
+                yield new ArArchiveEntry(name, size, userId, groupId, mode == 0 ? 0100644 : 0100000 | mode, modified.getTime() / 1000);
+            }
+            case CPIO -> {
+                CpioArchiveEntry entry = new CpioArchiveEntry(name, source.isDirectory() ? 0 : size);
+                entry.setMode((source.isDirectory() ? CpioConstants.C_ISDIR : CpioConstants.C_ISREG) | (mode == 0 ? (source.isDirectory() ? 0755 : 0644) : mode));
+                entry.setTime(modified.getTime() / 1000);
+                if (source instanceof TarArchiveEntry tarEntry) {
+                    entry.setUID(tarEntry.getLongUserId());
+                    entry.setGID(tarEntry.getLongGroupId());
+                }
+                yield entry;
+            }
+            default -> throw new IllegalArgumentException("Unknown algorithm '" + target + "'");
+        };
+    }
+
+    /**
+     * The permission bits of an entry, {@code 0} when the source archive has none.
+     */
+    private static int mode(ArchiveEntry entry) {
+        long mode = switch (entry) {
+            case TarArchiveEntry tarEntry -> tarEntry.getMode();
+            case ZipArchiveEntry zipEntry -> zipEntry.getUnixMode();
+            case CpioArchiveEntry cpioEntry -> cpioEntry.getMode();
+            case ArArchiveEntry arEntry -> arEntry.getMode();
+            default -> 0;
+        };
+
+        return (int) (mode & 07777);
+    }
+
+    private static class Counts {
+        private int count;
+        private long size;
+
+        private void add(long entrySize) {
+            this.count++;
+            this.size += entrySize;
+        }
+    }
+
+    /**
+     * Entries deflated in parallel by a {@link ParallelScatterZipCreator}, up to {@link #MAX_BUFFERED_BATCH} bytes at a
+     * time. Entries up to {@link #MAX_BUFFERED_ENTRY} bytes are held in memory, larger ones are spilled to the working
+     * directory: the archive is read as a stream, so its entries cannot be handed to the deflating threads directly.
+     */
+    private static class ScatterBatch {
+        private final RunContext runContext;
+        private final ZipArchiveOutputStream out;
+        private final CodecOptions options;
+        private final List<Path> spills = new ArrayList<>();
+
+        private ExecutorService executor;
+        private ParallelScatterZipCreator creator;
+        private long buffered;
+
+        private ScatterBatch(RunContext runContext, ZipArchiveOutputStream out, CodecOptions options) {
+            this.runContext = runContext;
+            this.out = out;
+            this.options = options;
+        }
+
+        private long add(ArchiveEntry archiveEntry, InputStream in) throws IOException, InterruptedException, ExecutionException {
+            ZipArchiveEntry entry = (ZipArchiveEntry) archiveEntry;
+            if (entry.isDirectory()) {
+                this.creator().addArchiveEntry(entry, () -> InputStream.nullInputStream());
+                return 0;
+            }
+
+            ByteArrayOutputStream head = new ByteArrayOutputStream();
+            long size = IOUtils.copyLarge(BoundedInputStream.builder().setInputStream(in).setMaxCount(MAX_BUFFERED_ENTRY + 1L).setPropagateClose(false).get(), head);
+
+            if (size <= MAX_BUFFERED_ENTRY) {
+                byte[] content = head.toByteArray();
+                this.creator().addArchiveEntry(entry, () -> new ByteArrayInputStream(content));
+                buffered += content.length;
+            } else {
+                Path spill = runContext.workingDir().createTempFile();
+                spills.add(spill);
+                try (OutputStream spillOutputStream = new BufferedOutputStream(Files.newOutputStream(spill))) {
+                    head.writeTo(spillOutputStream);
+                    size += IOUtils.copyLarge(in, spillOutputStream);
+                }
+                this.creator().addArchiveEntry(entry, () -> {
+                    try {
+                        return new BufferedInputStream(Files.newInputStream(spill));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                buffered += MAX_BUFFERED_ENTRY;
+            }
+
+            if (buffered >= MAX_BUFFERED_BATCH) {
+                this.flush();
+            }
+
+            return size;
+        }
+
+        private ParallelScatterZipCreator creator() {
+            if (creator == null) {
+                executor = Executors.newFixedThreadPool(options.getThreads(), runnable -> {
+                    Thread thread = new Thread(runnable, "transcode-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                creator = new ParallelScatterZipCreator(
+                    executor,
+                    () -> new FileBasedScatterGatherBackingStore(runContext.workingDir().createTempFile()),
+                    options.deflateLevel()
+                );
+            }
+
+            return creator;
+        }
+
+        /**
+         * Write the entries added so far, in order. {@link ParallelScatterZipCreator#writeTo} shuts its executor down,
+         * so the next entries go to a new creator.
+         */
+        private void flush() throws IOException, InterruptedException, ExecutionException {
+            if (creator == null) {
+                return;
+            }
+
+            try {
+                creator.writeTo(out);
+            } finally {
+                creator = null;
+                buffered = 0;
+                this.clear();
+            }
+        }
+
+        /**
+         * Release the batch, written or not: when reading the archive fails, {@link ParallelScatterZipCreator#writeTo} is
+         * never called to shut the executor down, and after a failed entry the others would still be deflated.
+         */
+        private void clear() throws IOException {
+            if (executor != null) {
+                executor.shutdownNow();
+                executor = null;
+            }
+            creator = null;
+
+            for (Path spill : spills) {
+                Files.deleteIfExists(spill);
+            }
+            spills.clear();
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the transcoded archive on Kestra's internal storage"
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Number of entries written"
+        )
+        private final Integer count;
+
+        @Schema(
+            title = "Total size of the entries in bytes"
+        )
+        private final Long size;
+
+        @Schema(
+            title = "Digests of the source archive",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the transcoded archive",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
+
+        @Schema(
+            title = "Digests of each file, by entry name",
+            description = "Only set with `digests`. The content of the entries is the same in both archives."
+        )
+        @PluginProperty(additionalProperties = Map.class)
+        private final Map<String, Map<String, String>> entryDigests;
+    }
+}
@@ -0,0 +1,117 @@
+package io.kestra.plugin.compress;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.tukaani.xz.ArrayCache;
+
+/**
+ * xz {@link ArrayCache} keeping released arrays up to a total size in bytes. Arrays are grouped by type and length,
+ * the group used least recently is evicted first when the cache is full. Small arrays are cheap to allocate and are
+ * not cached.
+ */
+final class BoundedArrayCache extends ArrayCache {
+    private static final int MIN_CACHED_SIZE = 32 * 1024;
+
+    private final long maxBytes;
+    private final LinkedHashMap<Long, ArrayDeque<Object>> arrays = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    BoundedArrayCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public byte[] getByteArray(int size, boolean fillWithZeros) {
+        byte[] array = (byte[]) this.poll(key(size, false), size);
+        if (array == null) {
+            return new byte[size];
+        }
+
+        if (fillWithZeros) {
+            Arrays.fill(array, (byte) 0);
+        }
+
+        return array;
+    }
+
+    @Override
+    public void putArray(byte[] array) {
+        this.offer(key(array.length, false), array, array.length);
+    }
+
+    @Override
+    public int[] getIntArray(int size, boolean fillWithZeros) {
+        int[] array = (int[]) this.poll(key(size, true), size * 4L);
+        if (array == null) {
+            return new int[size];
+        }
+
+        if (fillWithZeros) {
+            Arrays.fill(array, 0);
+        }
+
+        return array;
+    }
+
+    @Override
+    public void putArray(int[] array) {
+        this.offer(key(array.length, true), array, array.length * 4L);
+    }
+
+    long size() {
+        synchronized (arrays) {
+            return bytes;
+        }
+    }
+
+    private static long key(int length, boolean ints) {
+        return ((long) length << 1) | (ints ? 1 : 0);
+    }
+
+    private static long sizeOf(long key) {
+        return (key & 1) == 1 ? (key >>> 1) * 4 : key >>> 1;
+    }
+
+    private Object poll(long key, long size) {
+        if (size < MIN_CACHED_SIZE) {
+            return null;
+        }
+
+        synchronized (arrays) {
+            ArrayDeque<Object> group = arrays.get(key);
+            if (group == null) {
+                return null;
+            }
+
+            Object array = group.poll();
+            if (group.isEmpty()) {
+                arrays.remove(key);
+            }
+            bytes -= size;
+
+            return array;
+        }
+    }
+
+    private void offer(long key, Object array, long size) {
+        if (size < MIN_CACHED_SIZE || size > maxBytes) {
+            return;
+        }
+
+        synchronized (arrays) {
+            Iterator<Map.Entry<Long, ArrayDeque<Object>>> eldest = arrays.entrySet().iterator();
+            while (bytes + size > maxBytes && eldest.hasNext()) {
+                Map.Entry<Long, ArrayDeque<Object>> entry = eldest.next();
+                bytes -= sizeOf(entry.getKey()) * entry.getValue().size();
+                eldest.remove();
+            }
+
+            arrays.computeIfAbsent(key, k -> new ArrayDeque<>()).push(array);
+            bytes += size;
+        }
+    }
+}
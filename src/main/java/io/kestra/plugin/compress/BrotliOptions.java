@@ -0,0 +1,41 @@
+package io.kestra.plugin.compress;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Getter
+@Jacksonized
+public class BrotliOptions {
+    @Schema(
+        title = "Compression quality",
+        description = "From 0 (fastest) to 11 (smallest output, much slower). Defaults to 11."
+    )
+    @PluginProperty
+    private Property<Integer> quality;
+
+    @Schema(
+        title = "Base 2 logarithm of the sliding window size",
+        description = "From 10 to 24. Larger windows find more distant matches but need more memory to compress and decompress. Defaults to 22."
+    )
+    @PluginProperty
+    private Property<Integer> lgwin;
+
+    @Schema(
+        title = "Content hint",
+        description = "TEXT for UTF-8 text, FONT for WOFF 2.0 fonts, GENERIC for anything else. Defaults to GENERIC."
+    )
+    @PluginProperty
+    private Property<Mode> mode;
+
+    public enum Mode {
+        GENERIC,
+        TEXT,
+        FONT
+    }
+}
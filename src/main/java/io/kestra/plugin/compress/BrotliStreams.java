@@ -0,0 +1,52 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.brotli.BrotliCompressorInputStream;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.decoder.BrotliInputStream;
+import com.aayushatharva.brotli4j.encoder.BrotliOutputStream;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+
+/**
+ * Brotli streams backed by the reference C library through brotli4j. The library only ships as native code, so
+ * compression needs it to load on this platform; decompression falls back to the pure Java decoder otherwise.
+ */
+final class BrotliStreams {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private BrotliStreams() {
+    }
+
+    static CompressorOutputStream<OutputStream> outputStream(OutputStream outputStream, CodecOptions options) throws IOException {
+        if (!Brotli4jLoader.isAvailable()) {
+            throw new IOException("BROTLI compression needs the native Brotli library, which failed to load on this platform", Brotli4jLoader.getUnavailabilityCause());
+        }
+
+        Encoder.Parameters parameters = new Encoder.Parameters()
+            .setQuality(options.brotliQuality())
+            .setMode(switch (options.getBrotliMode()) {
+                case GENERIC -> Encoder.Mode.GENERIC;
+                case TEXT -> Encoder.Mode.TEXT;
+                case FONT -> Encoder.Mode.FONT;
+            });
+        if (options.getBrotliWindow() > 0) {
+            parameters.setWindow(options.getBrotliWindow());
+        }
+
+        return new WrappedCompressorOutputStream(new BrotliOutputStream(outputStream, parameters, BUFFER_SIZE));
+    }
+
+    static CompressorInputStream inputStream(InputStream inputStream) throws IOException {
+        if (!Brotli4jLoader.isAvailable()) {
+            return new BrotliCompressorInputStream(inputStream);
+        }
+
+        return new WrappedCompressorInputStream(new BrotliInputStream(inputStream, BUFFER_SIZE));
+    }
+}
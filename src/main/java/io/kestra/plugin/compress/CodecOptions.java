@@ -0,0 +1,202 @@
+package io.kestra.plugin.compress;
+
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.UnsupportedOptionsException;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Rendered codec settings handed to {@link AbstractTask#compressorOutputStream} and
+ * {@link AbstractTask#compressorInputStream}. A value of {@code 0} or {@code null} means "use the codec default";
+ * the resolving methods apply the {@link CompressionTuning} precedence: explicit setting, then profile, then library default.
+ */
+@Value
+@Builder(toBuilder = true)
+class CodecOptions {
+    static final CodecOptions DEFAULT = CodecOptions.builder().build();
+
+    private static final int BZIP2_BLOCK_UNIT = 100_000;
+
+    @Builder.Default
+    int threads = 1;
+
+    int chunkSize;
+
+    CompressionTuning.Profile profile;
+
+    Integer level;
+
+    int blockSize;
+
+    int dictionarySize;
+
+    Boolean lz4HighCompression;
+
+    @Builder.Default
+    AbstractTask.Lz4Backend lz4Backend = AbstractTask.Lz4Backend.COMMONS;
+
+    int zstdLevel;
+
+    int zstdWorkers;
+
+    int zstdJobSize;
+
+    int zstdWindowLog;
+
+    boolean zstdLongDistanceMatching;
+
+    int zstdWindowLogMax;
+
+    boolean zstdSeekable;
+
+    ZstdDictionary zstdDictionary;
+
+    Integer brotliQuality;
+
+    int brotliWindow;
+
+    @Builder.Default
+    BrotliOptions.Mode brotliMode = BrotliOptions.Mode.GENERIC;
+
+    GzipCheckpointIndex gzipIndex;
+
+    boolean parallel() {
+        return threads > 1;
+    }
+
+    int deflateLevel() {
+        if (level != null) {
+            return level;
+        }
+
+        return profile == null ? Deflater.DEFAULT_COMPRESSION : switch (profile) {
+            case FAST -> Deflater.BEST_SPEED;
+            case BALANCED -> 6;
+            case MAX -> Deflater.BEST_COMPRESSION;
+        };
+    }
+
+    /**
+     * BZIP2 block size, in units of 100 KB.
+     */
+    int bzip2BlockSize() {
+        if (blockSize > 0) {
+            return Math.min(9, (blockSize + BZIP2_BLOCK_UNIT - 1) / BZIP2_BLOCK_UNIT);
+        }
+
+        if (level != null) {
+            return level;
+        }
+
+        return profile == CompressionTuning.Profile.FAST ? 1 : 9;
+    }
+
+    LZMA2Options lzma2Options() throws UnsupportedOptionsException {
+        int preset = level != null ? level : profile == null ? LZMA2Options.PRESET_DEFAULT : switch (profile) {
+            case FAST -> 1;
+            case BALANCED -> LZMA2Options.PRESET_DEFAULT;
+            case MAX -> LZMA2Options.PRESET_MAX;
+        };
+
+        LZMA2Options options = new LZMA2Options(preset);
+        if (dictionarySize > 0) {
+            options.setDictSize(dictionarySize);
+        }
+
+        return options;
+    }
+
+    boolean lz4HighCompression() {
+        return lz4HighCompression != null ? lz4HighCompression : profile == CompressionTuning.Profile.MAX;
+    }
+
+    Parameters lz4Parameters() {
+        if (lz4HighCompression()) {
+            return BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForCompressionRatio().build();
+        }
+
+        if (profile == CompressionTuning.Profile.FAST) {
+            return BlockLZ4CompressorOutputStream.createParameterBuilder().tunedForSpeed().build();
+        }
+
+        return BlockLZ4CompressorOutputStream.createParameterBuilder().build();
+    }
+
+    Lz4Codec lz4Codec() {
+        return Lz4Codec.of(lz4Backend, lz4Parameters(), lz4HighCompression());
+    }
+
+    FramedLZ4CompressorOutputStream.BlockSize lz4BlockSize() {
+        if (blockSize > 0) {
+            if (blockSize <= 64 * 1024) {
+                return FramedLZ4CompressorOutputStream.BlockSize.K64;
+            } else if (blockSize <= 256 * 1024) {
+                return FramedLZ4CompressorOutputStream.BlockSize.K256;
+            } else if (blockSize <= 1024 * 1024) {
+                return FramedLZ4CompressorOutputStream.BlockSize.M1;
+            } else if (blockSize <= 4 * 1024 * 1024) {
+                return FramedLZ4CompressorOutputStream.BlockSize.M4;
+            }
+
+            throw new IllegalArgumentException("LZ4 frame block size must be at most 4 MiB, got " + blockSize);
+        }
+
+        return profile == CompressionTuning.Profile.FAST ? FramedLZ4CompressorOutputStream.BlockSize.K64 : FramedLZ4CompressorOutputStream.BlockSize.M4;
+    }
+
+    int zstdLevel() {
+        if (zstdLevel != 0) {
+            return zstdLevel;
+        }
+
+        if (level != null) {
+            return level;
+        }
+
+        return profile == null ? 0 : switch (profile) {
+            case FAST -> 1;
+            case BALANCED -> 3;
+            case MAX -> 19;
+        };
+    }
+
+    /**
+     * Native zstd workers, falling back to the task thread count. zstd-jni runs single-threaded with 0 workers.
+     */
+    int zstdWorkers() {
+        if (zstdWorkers > 0) {
+            return zstdWorkers;
+        }
+
+        return parallel() ? threads : 0;
+    }
+
+    /**
+     * Largest window the zstd decoder accepts, {@code 0} keeps the library limit of 2^27 bytes.
+     */
+    int zstdWindowLogMax() {
+        return zstdWindowLogMax > 0 ? zstdWindowLogMax : zstdWindowLog;
+    }
+
+    int brotliQuality() {
+        if (brotliQuality != null) {
+            return brotliQuality;
+        }
+
+        if (level != null) {
+            return level;
+        }
+
+        return profile == null ? 11 : switch (profile) {
+            case FAST -> 1;
+            case BALANCED -> 5;
+            case MAX -> 11;
+        };
+    }
+}
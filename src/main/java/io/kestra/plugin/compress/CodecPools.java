@@ -0,0 +1,115 @@
+package io.kestra.plugin.compress;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.tukaani.xz.ArrayCache;
+
+import com.github.luben.zstd.BufferPool;
+
+/**
+ * Codec state shared by every task running on the worker, so that many short tasks reuse buffers and native
+ * contexts instead of allocating and collecting them each time. All pools are bounded: objects released to a full
+ * pool are dropped (and their native memory freed) rather than kept.
+ */
+final class CodecPools {
+    /**
+     * Idle objects kept per pool, enough for every core to have a compression and a decompression running.
+     */
+    static final int MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * Dictionaries, hash tables and buffers of the XZ and LZMA codecs, up to an eighth of the heap or 256 MiB.
+     */
+    static final ArrayCache ARRAY_CACHE = new BoundedArrayCache(Math.min(256L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 8));
+
+    /**
+     * Memory one parallel XZ stream may hold at once in chunks and codec state, a quarter of the heap and at most 1 GiB.
+     * Streams that would need more run on fewer threads, or with smaller default chunks.
+     */
+    static final long PARALLEL_MEMORY_BUDGET = Math.min(1024L * 1024 * 1024, Runtime.getRuntime().maxMemory() / 4);
+
+    /**
+     * Heap buffers of the zstd-jni streams.
+     */
+    static final BufferPool ZSTD_BUFFERS = new ZstdBufferPool();
+
+    private static final Map<Integer, Pool<Deflater>> DEFLATERS = new ConcurrentHashMap<>();
+    private static final Map<Boolean, Pool<Inflater>> INFLATERS = new ConcurrentHashMap<>();
+
+    private CodecPools() {
+    }
+
+    /**
+     * @param level the compression level, from {@link Deflater#DEFAULT_COMPRESSION} to {@link Deflater#BEST_COMPRESSION}
+     * @param nowrap {@code true} for raw deflate data, {@code false} for the zlib format
+     */
+    static Pool<Deflater> deflaters(int level, boolean nowrap) {
+        return DEFLATERS.computeIfAbsent(
+            (level + 1) * 2 + (nowrap ? 1 : 0),
+            key -> new Pool<>(() -> new Deflater(level, nowrap), Deflater::reset, Deflater::end)
+        );
+    }
+
+    /**
+     * @param nowrap {@code true} for raw deflate data, {@code false} for the zlib format
+     */
+    static Pool<Inflater> inflaters(boolean nowrap) {
+        return INFLATERS.computeIfAbsent(nowrap, key -> new Pool<>(() -> new Inflater(nowrap), Inflater::reset, Inflater::end));
+    }
+
+    static final class Pool<T> {
+        private final BlockingQueue<T> idle = new ArrayBlockingQueue<>(MAX_IDLE);
+        private final Supplier<T> factory;
+        private final Consumer<T> reset;
+        private final Consumer<T> dispose;
+
+        private Pool(Supplier<T> factory, Consumer<T> reset, Consumer<T> dispose) {
+            this.factory = factory;
+            this.reset = reset;
+            this.dispose = dispose;
+        }
+
+        T acquire() {
+            T object = idle.poll();
+            return object != null ? object : factory.get();
+        }
+
+        void release(T object) {
+            reset.accept(object);
+            if (!idle.offer(object)) {
+                dispose.accept(object);
+            }
+        }
+    }
+
+    /**
+     * zstd-jni asks for a handful of fixed buffer sizes, so buffers are pooled by exact capacity.
+     */
+    private static final class ZstdBufferPool implements BufferPool {
+        private final Map<Integer, BlockingQueue<ByteBuffer>> buffers = new ConcurrentHashMap<>();
+
+        @Override
+        public ByteBuffer get(int capacity) {
+            ByteBuffer buffer = queue(capacity).poll();
+            return buffer != null ? buffer : ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public void release(ByteBuffer buffer) {
+            buffer.clear();
+            queue(buffer.capacity()).offer(buffer);
+        }
+
+        private BlockingQueue<ByteBuffer> queue(int capacity) {
+            return buffers.computeIfAbsent(capacity, key -> new ArrayBlockingQueue<>(MAX_IDLE));
+        }
+    }
+}
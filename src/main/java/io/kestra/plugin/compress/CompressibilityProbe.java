@@ -0,0 +1,102 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.Deflater;
+
+/**
+ * Estimate of what compressing some data would save, from its first bytes, so that data already compressed (images,
+ * Parquet, archives) is stored as is instead of going through a codec for nothing. The byte entropy rules out random
+ * looking data at the cost of a histogram, the rest is deflated at level 1 to account for repetitions.
+ */
+final class CompressibilityProbe {
+    /**
+     * Bytes probed at the start of each file.
+     */
+    static final int SIZE = 64 * 1024;
+
+    /**
+     * Below this ratio on the probe, less than a tenth is saved: data is stored.
+     */
+    static final double MIN_RATIO = 1.1;
+
+    /**
+     * Below this ratio, compressing harder saves little more: the fastest settings of the codec are used.
+     */
+    static final double FAST_RATIO = 2;
+
+    /**
+     * Bits per byte above which no codec gains anything worth its time, the deflate trial is skipped.
+     */
+    private static final double MAX_ENTROPY = 7.9;
+
+    private CompressibilityProbe() {
+    }
+
+    /**
+     * The compression ratio estimated on {@code length} bytes of {@code data}, 1 when nothing would be saved.
+     */
+    static double ratio(byte[] data, int length) {
+        if (length == 0 || entropy(data, length) > MAX_ENTROPY) {
+            return 1;
+        }
+
+        CodecPools.Pool<Deflater> deflaters = CodecPools.deflaters(Deflater.BEST_SPEED, true);
+        Deflater deflater = deflaters.acquire();
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+
+            byte[] buffer = new byte[8192];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(buffer);
+            }
+
+            return (double) length / Math.max(1, compressed);
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+
+    /**
+     * Same as {@link #ratio(byte[], int)} on the first bytes of a local file.
+     */
+    static double ratio(Path file) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            byte[] head = inputStream.readNBytes(SIZE);
+            return ratio(head, head.length);
+        }
+    }
+
+    /**
+     * Settings of the codec chosen for data with this {@code ratio}: the fastest ones when little is saved, unless a
+     * profile or a level was set.
+     */
+    static CodecOptions options(double ratio, CodecOptions options) {
+        if (ratio >= FAST_RATIO || options.getProfile() != null || options.getLevel() != null || options.getZstdLevel() != 0) {
+            return options;
+        }
+
+        return options.toBuilder().profile(CompressionTuning.Profile.FAST).build();
+    }
+
+    private static double entropy(byte[] data, int length) {
+        int[] counts = new int[256];
+        for (int i = 0; i < length; i++) {
+            counts[data[i] & 0xff]++;
+        }
+
+        double entropy = 0;
+        for (int count : counts) {
+            if (count > 0) {
+                double p = (double) count / length;
+                entropy -= p * Math.log(p);
+            }
+        }
+
+        return entropy / Math.log(2);
+    }
+}
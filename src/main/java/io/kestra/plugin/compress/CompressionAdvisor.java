@@ -0,0 +1,418 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.NullOutputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Rank compression algorithms on a sample of a file",
+    description = "Reads a few chunks spread over an internal storage file, compresses and decompresses them with every encodable algorithm at each tuning profile, and returns the candidates ranked with their compression ratio, their compression and decompression throughput, and the size and times projected to the whole file. Use it once per data set to choose the `compression` and `tuning.profile` of `FileCompress` or `ArchiveCompress` from measurements."
+)
+@Plugin(
+    metrics = {
+        @Metric(name = "samples", type = Counter.TYPE, description = "Number of chunks read from the file"),
+        @Metric(name = "candidates", type = Counter.TYPE, description = "Number of algorithm and profile pairs measured")
+    },
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: compression_advisor
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: Representative file of the data set
+                    type: FILE
+
+                tasks:
+                  - id: advise
+                    type: io.kestra.plugin.compress.CompressionAdvisor
+                    from: "{{ inputs.file }}"
+                    rankBy: COMPRESSION_SPEED
+
+                  - id: compress
+                    type: io.kestra.plugin.compress.FileCompress
+                    from: "{{ inputs.file }}"
+                    compression: "{{ outputs.advise.best.compression }}"
+                """
+        )
+    }
+)
+public class CompressionAdvisor extends AbstractTask implements RunnableTask<CompressionAdvisor.Output> {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private static final EnumSet<CompressionAlgorithm> NOT_MEASURABLE = EnumSet.of(CompressionAlgorithm.AUTO, CompressionAlgorithm.DEFLATE64, CompressionAlgorithm.Z);
+
+    /**
+     * Algorithms without levels, measured once whatever the profiles.
+     */
+    private static final EnumSet<CompressionAlgorithm> UNTUNED = EnumSet.of(CompressionAlgorithm.SNAPPY, CompressionAlgorithm.SNAPPYFRAME);
+
+    @Schema(
+        title = "Internal storage URI of the file to sample"
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Algorithms to measure",
+        description = "Defaults to every algorithm that can compress, that is all of them but AUTO, DEFLATE64 and Z."
+    )
+    @PluginProperty(group = "main")
+    private Property<List<CompressionAlgorithm>> algorithms;
+
+    @Schema(
+        title = "Tuning profiles to measure each algorithm with",
+        description = "Defaults to FAST, BALANCED and MAX, see `tuning.profile` for the level each one maps to. SNAPPY and SNAPPYFRAME have no levels and are measured once. The other `tuning`, `zstd` and `brotli` settings apply to every candidate, except the levels they set."
+    )
+    @PluginProperty(group = "main")
+    private Property<List<CompressionTuning.Profile>> profiles;
+
+    @Schema(
+        title = "Order of the candidates",
+        description = """
+            RATIO: smallest output first.
+            COMPRESSION_SPEED: fastest compression first.
+            DECOMPRESSION_SPEED: fastest decompression first."""
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<RankBy> rankBy = Property.ofValue(RankBy.RATIO);
+
+    @Schema(
+        title = "Number of chunks read from the file",
+        description = "Chunks are spread evenly from the start to the end of the file, so that a file whose content changes along the way is measured on all of it. Files smaller than `samples` times `sampleSize` are measured whole."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> samples = Property.ofValue(8);
+
+    @Schema(
+        title = "Size in bytes of each chunk",
+        description = "Each chunk is compressed on its own: keep it at least as large as the window of the algorithms measured, or their ratio is underestimated."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> sampleSize = Property.ofValue(256 * 1024);
+
+    @Schema(
+        title = "Number of candidates measured at the same time",
+        description = "Candidates sharing the CPU measure lower throughputs than they would alone, set to 1 for the most accurate figures. Use 0 to use all available processors."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> concurrency = Property.ofValue(0);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        RankBy rRankBy = runContext.render(this.rankBy).as(RankBy.class).orElseThrow();
+
+        int rSamples = runContext.render(this.samples).as(Integer.class).orElseThrow();
+        if (rSamples <= 0) {
+            throw new IllegalArgumentException("samples must be > 0, got " + rSamples);
+        }
+
+        int rSampleSize = runContext.render(this.sampleSize).as(Integer.class).orElseThrow();
+        if (rSampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be > 0, got " + rSampleSize);
+        }
+
+        int rConcurrency = runContext.render(this.concurrency).as(Integer.class).orElseThrow();
+        if (rConcurrency < 0) {
+            throw new IllegalArgumentException("concurrency must be >= 0, got " + rConcurrency);
+        }
+
+        // only samples are read, they say nothing of the whole file
+        if (!this.digests(runContext).isEmpty()) {
+            throw new IllegalArgumentException("digests are not supported, the file is only sampled");
+        }
+
+        List<CompressionAlgorithm> rAlgorithms = this.algorithms == null
+            ? EnumSet.complementOf(NOT_MEASURABLE).stream().toList()
+            : runContext.render(this.algorithms).asList(CompressionAlgorithm.class);
+        for (CompressionAlgorithm algorithm : rAlgorithms) {
+            if (NOT_MEASURABLE.contains(algorithm)) {
+                throw new IllegalArgumentException("Cannot measure '" + algorithm + "', it does not compress on its own");
+            }
+        }
+
+        List<CompressionTuning.Profile> rProfiles = this.profiles == null
+            ? List.of(CompressionTuning.Profile.values())
+            : runContext.render(this.profiles).asList(CompressionTuning.Profile.class);
+        if (rAlgorithms.isEmpty() || rProfiles.isEmpty()) {
+            throw new IllegalArgumentException("At least one algorithm and one profile are required");
+        }
+
+        long size = runContext.storage().getAttributes(rFrom).getSize();
+        List<byte[]> chunks = sample(runContext, rFrom, size, rSamples, rSampleSize);
+        if (chunks.isEmpty()) {
+            throw new IllegalArgumentException("Cannot measure compression on an empty file");
+        }
+
+        // each candidate sets its own level through its profile, and runs on a single thread of the advisor's pool so
+        // that parallel encoders do not skew the speeds
+        CodecOptions options = this.codecOptions(runContext).toBuilder()
+            .threads(1)
+            .level(null)
+            .zstdLevel(0)
+            .brotliQuality(null)
+            .build();
+
+        ExecutorService executor = Executors.newFixedThreadPool(rConcurrency == 0 ? Runtime.getRuntime().availableProcessors() : rConcurrency, runnable -> {
+            Thread thread = new Thread(runnable, "advisor-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        List<Candidate> candidates = new ArrayList<>();
+        try {
+            List<Future<Candidate>> futures = new ArrayList<>();
+            for (CompressionAlgorithm algorithm : rAlgorithms) {
+                for (CompressionTuning.Profile profile : UNTUNED.contains(algorithm) ? List.of((CompressionTuning.Profile) null) : rProfiles) {
+                    CodecOptions candidateOptions = options.toBuilder().profile(profile).build();
+                    futures.add(executor.submit(() -> this.measure(algorithm, profile, candidateOptions, chunks, size)));
+                }
+            }
+
+            for (Future<Candidate> future : futures) {
+                try {
+                    candidates.add(future.get());
+                } catch (ExecutionException e) {
+                    // a codec unavailable on this platform, like BROTLI without its native library, does not fail the others
+                    if (!(e.getCause() instanceof IOException)) {
+                        throw e;
+                    }
+                    runContext.logger().warn("Skipping a candidate: {}", e.getCause().getMessage());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        candidates.sort(rRankBy.comparator);
+
+        runContext.metric(Counter.of("samples", chunks.size()));
+        runContext.metric(Counter.of("candidates", candidates.size()));
+
+        return Output.builder()
+            .size(size)
+            .sampledSize(chunks.stream().mapToLong(chunk -> chunk.length).sum())
+            .samples(chunks.size())
+            .candidates(candidates)
+            .best(candidates.isEmpty() ? null : candidates.getFirst())
+            .build();
+    }
+
+    /**
+     * Read {@code count} chunks of {@code chunkSize} bytes at evenly spaced offsets, the last one ending the file, or
+     * the whole file in chunks when it is not larger than all of them together.
+     */
+    private static List<byte[]> sample(RunContext runContext, URI from, long size, int count, int chunkSize) throws IOException {
+        List<byte[]> chunks = new ArrayList<>();
+        boolean whole = size <= (long) count * chunkSize;
+
+        try (InputStream inputStream = runContext.storage().getFile(from)) {
+            long position = 0;
+            for (long i = 0; whole || i < count; i++) {
+                long offset = whole ? i * chunkSize : count == 1 ? 0 : i * (size - chunkSize) / (count - 1);
+                IOUtils.skipFully(inputStream, offset - position);
+                byte[] chunk = inputStream.readNBytes(chunkSize);
+                if (chunk.length > 0) {
+                    chunks.add(chunk);
+                }
+
+                position = offset + chunk.length;
+                if (chunk.length < chunkSize) {
+                    break;
+                }
+            }
+        }
+
+        return chunks;
+    }
+
+    private Candidate measure(CompressionAlgorithm algorithm, CompressionTuning.Profile profile, CodecOptions options, List<byte[]> chunks, long size) throws IOException {
+        // a first pass loads the classes and gets the hot loops compiled, so that it is not charged to the measurement
+        for (byte[] chunk : chunks) {
+            this.decompress(algorithm, options, this.compress(algorithm, options, chunk));
+        }
+
+        long sampled = 0;
+        long compressed = 0;
+        long compressionNanos = 0;
+        long decompressionNanos = 0;
+        for (byte[] chunk : chunks) {
+            long start = System.nanoTime();
+            byte[] encoded = this.compress(algorithm, options, chunk);
+            long middle = System.nanoTime();
+            long decoded = this.decompress(algorithm, options, encoded);
+            long end = System.nanoTime();
+
+            if (decoded != chunk.length) {
+                throw new IllegalStateException(algorithm + " decoded " + decoded + " bytes out of a " + chunk.length + " bytes sample");
+            }
+
+            sampled += chunk.length;
+            compressed += encoded.length;
+            compressionNanos += middle - start;
+            decompressionNanos += end - middle;
+        }
+
+        double scale = (double) size / sampled;
+        return Candidate.builder()
+            .compression(algorithm)
+            .profile(profile)
+            .ratio(round((double) sampled / compressed, 100))
+            .compressionSpeed(round(sampled * 1000.0 / Math.max(1, compressionNanos), 10))
+            .decompressionSpeed(round(sampled * 1000.0 / Math.max(1, decompressionNanos), 10))
+            .estimatedSize(Math.round(compressed * scale))
+            .estimatedCompressionTime(Duration.ofNanos(Math.round(compressionNanos * scale)))
+            .estimatedDecompressionTime(Duration.ofNanos(Math.round(decompressionNanos * scale)))
+            .build();
+    }
+
+    private byte[] compress(CompressionAlgorithm algorithm, CodecOptions options, byte[] chunk) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(chunk.length / 2);
+        try (CompressorOutputStream<?> compressorOutputStream = this.compressorOutputStream(algorithm, outputStream, options)) {
+            compressorOutputStream.write(chunk);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    private long decompress(CompressionAlgorithm algorithm, CodecOptions options, byte[] encoded) throws IOException {
+        try (CompressorInputStream compressorInputStream = this.compressorInputStream(algorithm, new ByteArrayInputStream(encoded), options)) {
+            return compressorInputStream.transferTo(NullOutputStream.INSTANCE);
+        }
+    }
+
+    private static double round(double value, int scale) {
+        return Math.round(value * scale) / (double) scale;
+    }
+
+    public enum RankBy {
+        RATIO(Comparator.comparing(Candidate::getRatio).reversed()),
+        COMPRESSION_SPEED(Comparator.comparing(Candidate::getCompressionSpeed).reversed()),
+        DECOMPRESSION_SPEED(Comparator.comparing(Candidate::getDecompressionSpeed).reversed());
+
+        private final Comparator<Candidate> comparator;
+
+        RankBy(Comparator<Candidate> comparator) {
+            this.comparator = comparator;
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Candidate {
+        @Schema(
+            title = "Compression algorithm"
+        )
+        private final CompressionAlgorithm compression;
+
+        @Schema(
+            title = "Tuning profile",
+            description = "Null for the algorithms without levels."
+        )
+        private final CompressionTuning.Profile profile;
+
+        @Schema(
+            title = "Uncompressed size divided by compressed size on the samples"
+        )
+        private final Double ratio;
+
+        @Schema(
+            title = "Compression throughput in MB/s of uncompressed data"
+        )
+        private final Double compressionSpeed;
+
+        @Schema(
+            title = "Decompression throughput in MB/s of uncompressed data"
+        )
+        private final Double decompressionSpeed;
+
+        @Schema(
+            title = "Projected size in bytes of the whole file compressed"
+        )
+        private final Long estimatedSize;
+
+        @Schema(
+            title = "Projected time to compress the whole file"
+        )
+        private final Duration estimatedCompressionTime;
+
+        @Schema(
+            title = "Projected time to decompress the whole file"
+        )
+        private final Duration estimatedDecompressionTime;
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Size in bytes of the file"
+        )
+        private final Long size;
+
+        @Schema(
+            title = "Number of bytes measured"
+        )
+        private final Long sampledSize;
+
+        @Schema(
+            title = "Number of chunks measured"
+        )
+        private final Integer samples;
+
+        @Schema(
+            title = "Measured candidates, best first according to `rankBy`"
+        )
+        private final List<Candidate> candidates;
+
+        @Schema(
+            title = "First of the candidates",
+            description = "Null when no candidate could be measured."
+        )
+        private final Candidate best;
+    }
+}
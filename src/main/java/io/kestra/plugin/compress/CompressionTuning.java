@@ -0,0 +1,60 @@
+package io.kestra.plugin.compress;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Getter
+@Jacksonized
+public class CompressionTuning {
+    @Schema(
+        title = "Named tuning profile",
+        description = """
+            Maps to settings suited to each codec, explicit properties below take precedence.
+            FAST: GZIP/DEFLATE level 1, BZIP2 100 KB blocks, XZ/LZMA preset 1, LZ4 tuned for speed with 64 KiB frame blocks, ZSTD level 1, BROTLI quality 1.
+            BALANCED: GZIP/DEFLATE level 6, BZIP2 900 KB blocks, XZ/LZMA preset 6, default LZ4, ZSTD level 3, BROTLI quality 5.
+            MAX: GZIP/DEFLATE level 9, BZIP2 900 KB blocks, XZ/LZMA preset 9, LZ4 high compression, ZSTD level 19, BROTLI quality 11.
+            Leave empty to use the library defaults."""
+    )
+    @PluginProperty
+    private Property<Profile> profile;
+
+    @Schema(
+        title = "Compression level",
+        description = "GZIP and DEFLATE: 0 to 9. XZ and LZMA: preset 0 to 9. BZIP2: block size 1 to 9 (x 100 KB). ZSTD: 1 to 22, overridden by `zstd.level`. BROTLI: quality 0 to 11, overridden by `brotli.quality`."
+    )
+    @PluginProperty
+    private Property<Integer> level;
+
+    @Schema(
+        title = "Block size in bytes",
+        description = "BZIP2: rounded up to the next 100 KB, from 100000 to 900000. LZ4FRAME: rounded up to the next supported frame block size (64 KiB, 256 KiB, 1 MiB or 4 MiB)."
+    )
+    @PluginProperty
+    private Property<Integer> blockSize;
+
+    @Schema(
+        title = "Dictionary size in bytes",
+        description = "XZ and LZMA only. Overrides the dictionary size of the preset, from 4 KiB to 1.5 GiB; decompression needs roughly this much memory."
+    )
+    @PluginProperty
+    private Property<Integer> dictionarySize;
+
+    @Schema(
+        title = "Use LZ4 high compression matching",
+        description = "LZ4BLOCK and LZ4FRAME only. Spends more time looking for matches to produce smaller output, decompression speed is unchanged."
+    )
+    @PluginProperty
+    private Property<Boolean> lz4HighCompression;
+
+    public enum Profile {
+        FAST,
+        BALANCED,
+        MAX
+    }
+}
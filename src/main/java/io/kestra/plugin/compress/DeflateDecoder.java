@@ -0,0 +1,462 @@
+package io.kestra.plugin.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
+
+/**
+ * Raw deflate decoder exposing what {@link java.util.zip.Inflater} hides: the bit position of block boundaries, and
+ * resuming at one of them with the previous 32 KiB of output as window. It is slower than the native inflater and
+ * only used to build and to read checkpoint indexes, zran-style.
+ * <p>
+ * {@link #read} never crosses a block boundary: a call returning at the end of a block leaves the decoder
+ * {@linkplain #atBlockBoundary() at the next block}, where {@link #bitPosition()} and {@link #window()} describe a
+ * checkpoint to resume from. Bytes read ahead past the final block are pushed back to the input.
+ */
+final class DeflateDecoder {
+    static final int WINDOW_SIZE = 32 * 1024;
+    static final int PUSHBACK_SIZE = 8 * 1024 + 8;
+
+    private static final int RING_MASK = 2 * WINDOW_SIZE - 1;
+    private static final int FAST_BITS = 10;
+    private static final int MAX_BITS = 15;
+
+    private static final int[] LENGTH_BASE = {
+        3, 4, 5, 6, 7, 8, 9, 10, 11, 13, 15, 17, 19, 23, 27, 31, 35, 43, 51, 59, 67, 83, 99, 115, 131, 163, 195, 227, 258
+    };
+    private static final int[] LENGTH_EXTRA = {
+        0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 1, 1, 2, 2, 2, 2, 3, 3, 3, 3, 4, 4, 4, 4, 5, 5, 5, 5, 0
+    };
+    private static final int[] DISTANCE_BASE = {
+        1, 2, 3, 4, 5, 7, 9, 13, 17, 25, 33, 49, 65, 97, 129, 193, 257, 385, 513, 769, 1025, 1537, 2049, 3073, 4097,
+        6145, 8193, 12289, 16385, 24577
+    };
+    private static final int[] DISTANCE_EXTRA = {
+        0, 0, 0, 0, 1, 1, 2, 2, 3, 3, 4, 4, 5, 5, 6, 6, 7, 7, 8, 8, 9, 9, 10, 10, 11, 11, 12, 12, 13, 13
+    };
+    private static final int[] CODE_LENGTH_ORDER = {16, 17, 18, 0, 8, 7, 9, 6, 10, 5, 11, 4, 12, 3, 13, 2, 14, 1, 15};
+
+    private static final Huffman FIXED_LITERALS;
+    private static final Huffman FIXED_DISTANCES;
+
+    static {
+        byte[] lengths = new byte[288];
+        for (int i = 0; i < lengths.length; i++) {
+            lengths[i] = (byte) (i < 144 ? 8 : i < 256 ? 9 : i < 280 ? 7 : 8);
+        }
+        byte[] distances = new byte[30];
+        Arrays.fill(distances, (byte) 5);
+
+        try {
+            FIXED_LITERALS = new Huffman(lengths, 0, lengths.length);
+            FIXED_DISTANCES = new Huffman(distances, 0, distances.length);
+        } catch (IOException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private enum State {
+        HEADER,
+        STORED,
+        HUFFMAN,
+        DONE
+    }
+
+    private final PushbackInputStream in;
+    private final byte[] input = new byte[PUSHBACK_SIZE - 8];
+    private int inputPosition;
+    private int inputLimit;
+    private boolean eof;
+
+    private long bits;
+    private int bitCount;
+    private long bytePosition;
+
+    private final byte[] ring = new byte[2 * WINDOW_SIZE];
+    private long total;
+
+    private State state = State.HEADER;
+    private boolean lastBlock;
+    private int storedRemaining;
+    private Huffman literals;
+    private Huffman distances;
+    private int copyLength;
+    private int copyDistance;
+
+    /**
+     * @param in the compressed input, positioned at the byte holding {@code bitPosition}; it must accept
+     *     {@link #PUSHBACK_SIZE} bytes of pushback
+     * @param bitPosition position of the first block in the compressed file, in bits
+     * @param window the output preceding the first block, at most {@link #WINDOW_SIZE} bytes
+     */
+    DeflateDecoder(PushbackInputStream in, long bitPosition, byte[] window) throws IOException {
+        this.in = in;
+        this.bytePosition = bitPosition >>> 3;
+
+        if (window != null) {
+            if (window.length > WINDOW_SIZE) {
+                throw new IllegalArgumentException("Deflate window is larger than " + WINDOW_SIZE + " bytes");
+            }
+            System.arraycopy(window, 0, ring, 0, window.length);
+            total = window.length;
+        }
+
+        bits((int) (bitPosition & 7));
+    }
+
+    /**
+     * Decompress up to {@code len} bytes from the current block.
+     *
+     * @return the number of bytes decompressed, {@code 0} at the end of a block, or {@code -1} after the final block
+     */
+    int read(byte[] b, int off, int len) throws IOException {
+        if (state == State.HEADER) {
+            if (lastBlock) {
+                finish();
+            } else {
+                readBlockHeader();
+            }
+        }
+
+        if (state == State.DONE) {
+            return -1;
+        } else if (state == State.HEADER) {
+            // empty stored block
+            return 0;
+        }
+
+        long start = total;
+        long end = total + Math.min(len, WINDOW_SIZE);
+        if (state == State.STORED) {
+            copyStored(end);
+            if (storedRemaining == 0) {
+                state = State.HEADER;
+            }
+        } else {
+            inflate(end);
+        }
+
+        int n = (int) (total - start);
+        int from = (int) start & RING_MASK;
+        int first = Math.min(n, ring.length - from);
+        System.arraycopy(ring, from, b, off, first);
+        System.arraycopy(ring, 0, b, off + first, n - first);
+
+        return n;
+    }
+
+    /**
+     * Whether the decoder stands between two blocks of the stream, the final block excepted.
+     */
+    boolean atBlockBoundary() {
+        return state == State.HEADER && !lastBlock;
+    }
+
+    /**
+     * Position of the next unread bit in the compressed file.
+     */
+    long bitPosition() {
+        return bytePosition * 8 - bitCount;
+    }
+
+    /**
+     * The last {@link #WINDOW_SIZE} bytes of output, or all of it if shorter.
+     */
+    byte[] window() {
+        int n = (int) Math.min(total, WINDOW_SIZE);
+        byte[] window = new byte[n];
+        int from = (int) (total - n) & RING_MASK;
+        int first = Math.min(n, ring.length - from);
+        System.arraycopy(ring, from, window, 0, first);
+        System.arraycopy(ring, 0, window, first, n - first);
+
+        return window;
+    }
+
+    private void readBlockHeader() throws IOException {
+        lastBlock = bits(1) == 1;
+        switch (bits(2)) {
+            case 0 -> {
+                bits(bitCount & 7);
+                int length = bits(16);
+                if ((length ^ 0xffff) != bits(16)) {
+                    throw new IOException("Invalid deflate stored block lengths");
+                }
+                storedRemaining = length;
+                state = length == 0 ? State.HEADER : State.STORED;
+            }
+            case 1 -> {
+                literals = FIXED_LITERALS;
+                distances = FIXED_DISTANCES;
+                state = State.HUFFMAN;
+            }
+            case 2 -> {
+                readDynamicTables();
+                state = State.HUFFMAN;
+            }
+            default -> throw new IOException("Invalid deflate block type");
+        }
+    }
+
+    private void readDynamicTables() throws IOException {
+        int literalCount = bits(5) + 257;
+        int distanceCount = bits(5) + 1;
+        int codeLengthCount = bits(4) + 4;
+        if (literalCount > 286 || distanceCount > 30) {
+            throw new IOException("Invalid deflate dynamic block code counts");
+        }
+
+        byte[] codeLengths = new byte[19];
+        for (int i = 0; i < codeLengthCount; i++) {
+            codeLengths[CODE_LENGTH_ORDER[i]] = (byte) bits(3);
+        }
+        Huffman codeLengthCode = new Huffman(codeLengths, 0, codeLengths.length);
+
+        byte[] lengths = new byte[literalCount + distanceCount];
+        int i = 0;
+        while (i < lengths.length) {
+            int symbol = decode(codeLengthCode);
+            if (symbol < 16) {
+                lengths[i++] = (byte) symbol;
+                continue;
+            }
+
+            byte length = 0;
+            int repeat;
+            if (symbol == 16) {
+                if (i == 0) {
+                    throw new IOException("Invalid deflate code lengths: repeat with no previous length");
+                }
+                length = lengths[i - 1];
+                repeat = 3 + bits(2);
+            } else if (symbol == 17) {
+                repeat = 3 + bits(3);
+            } else {
+                repeat = 11 + bits(7);
+            }
+
+            if (i + repeat > lengths.length) {
+                throw new IOException("Invalid deflate code lengths: too many lengths");
+            }
+            while (repeat-- > 0) {
+                lengths[i++] = length;
+            }
+        }
+
+        if (lengths[256] == 0) {
+            throw new IOException("Invalid deflate code lengths: missing end-of-block code");
+        }
+
+        literals = new Huffman(lengths, 0, literalCount);
+        distances = new Huffman(lengths, literalCount, distanceCount);
+    }
+
+    private void inflate(long end) throws IOException {
+        while (total < end) {
+            if (copyLength > 0) {
+                int n = (int) Math.min(copyLength, end - total);
+                for (int i = 0; i < n; i++, total++) {
+                    ring[(int) total & RING_MASK] = ring[(int) (total - copyDistance) & RING_MASK];
+                }
+                copyLength -= n;
+                continue;
+            }
+
+            int symbol = decode(literals);
+            if (symbol < 256) {
+                ring[(int) total++ & RING_MASK] = (byte) symbol;
+            } else if (symbol == 256) {
+                state = State.HEADER;
+                return;
+            } else {
+                symbol -= 257;
+                if (symbol >= LENGTH_BASE.length) {
+                    throw new IOException("Invalid deflate length code");
+                }
+                int length = LENGTH_BASE[symbol] + bits(LENGTH_EXTRA[symbol]);
+
+                symbol = decode(distances);
+                if (symbol >= DISTANCE_BASE.length) {
+                    throw new IOException("Invalid deflate distance code");
+                }
+                int distance = DISTANCE_BASE[symbol] + bits(DISTANCE_EXTRA[symbol]);
+                if (distance > total) {
+                    throw new IOException("Invalid deflate distance: too far back");
+                }
+
+                copyLength = length;
+                copyDistance = distance;
+            }
+        }
+    }
+
+    private void copyStored(long end) throws IOException {
+        while (total < end && storedRemaining > 0) {
+            if (bitCount >= 8 || inputPosition == inputLimit) {
+                ring[(int) total++ & RING_MASK] = (byte) bits(8);
+                storedRemaining--;
+                continue;
+            }
+
+            // the bit buffer is drained, copy straight from the input buffer
+            int to = (int) total & RING_MASK;
+            int n = (int) Math.min(Math.min(storedRemaining, end - total), Math.min(inputLimit - inputPosition, ring.length - to));
+            System.arraycopy(input, inputPosition, ring, to, n);
+            inputPosition += n;
+            bytePosition += n;
+            total += n;
+            storedRemaining -= n;
+        }
+    }
+
+    /**
+     * Skip to the next byte boundary after the final block and push back the bytes read ahead.
+     */
+    private void finish() throws IOException {
+        bits(bitCount & 7);
+
+        in.unread(input, inputPosition, inputLimit - inputPosition);
+        inputPosition = inputLimit;
+
+        byte[] buffered = new byte[bitCount / 8];
+        for (int i = 0; i < buffered.length; i++) {
+            buffered[i] = (byte) (bits >>> (i * 8));
+        }
+        in.unread(buffered);
+        bytePosition -= buffered.length;
+        bits = 0;
+        bitCount = 0;
+
+        state = State.DONE;
+    }
+
+    private int decode(Huffman huffman) throws IOException {
+        if (bitCount < MAX_BITS) {
+            refill();
+        }
+
+        int entry = huffman.fast[(int) bits & ((1 << FAST_BITS) - 1)];
+        if (entry != 0) {
+            int length = entry & 0xf;
+            if (length > bitCount) {
+                throw new EOFException("Unexpected end of deflate data");
+            }
+            bits >>>= length;
+            bitCount -= length;
+
+            return entry >>> 4;
+        }
+
+        // canonical decoding, bit by bit, for codes longer than the lookup table
+        int code = 0;
+        int first = 0;
+        int index = 0;
+        for (int length = 1; length <= MAX_BITS; length++) {
+            code |= (int) (bits >>> (length - 1)) & 1;
+            int count = huffman.count[length];
+            if (code - count < first) {
+                if (length > bitCount) {
+                    throw new EOFException("Unexpected end of deflate data");
+                }
+                bits >>>= length;
+                bitCount -= length;
+
+                return huffman.symbols[index + code - first];
+            }
+            index += count;
+            first = (first + count) << 1;
+            code <<= 1;
+        }
+
+        throw new IOException("Invalid deflate Huffman code");
+    }
+
+    private int bits(int n) throws IOException {
+        if (n == 0) {
+            return 0;
+        }
+
+        if (bitCount < n) {
+            refill();
+            if (bitCount < n) {
+                throw new EOFException("Unexpected end of deflate data");
+            }
+        }
+
+        int value = (int) (bits & ((1L << n) - 1));
+        bits >>>= n;
+        bitCount -= n;
+
+        return value;
+    }
+
+    private void refill() throws IOException {
+        while (bitCount <= 56) {
+            if (inputPosition == inputLimit) {
+                if (eof) {
+                    return;
+                }
+
+                int n = in.read(input, 0, input.length);
+                if (n < 0) {
+                    eof = true;
+                    return;
+                }
+                inputPosition = 0;
+                inputLimit = n;
+            }
+
+            bits |= (long) (input[inputPosition++] & 0xff) << bitCount;
+            bitCount += 8;
+            bytePosition++;
+        }
+    }
+
+    /**
+     * Canonical Huffman code, with a lookup table for the codes of up to {@link #FAST_BITS} bits.
+     */
+    private static final class Huffman {
+        private final int[] count = new int[MAX_BITS + 1];
+        private final int[] symbols;
+        private final int[] fast = new int[1 << FAST_BITS];
+
+        private Huffman(byte[] lengths, int offset, int n) throws IOException {
+            for (int i = 0; i < n; i++) {
+                count[lengths[offset + i]]++;
+            }
+
+            int left = 1;
+            for (int length = 1; length <= MAX_BITS; length++) {
+                left = (left << 1) - count[length];
+                if (left < 0) {
+                    throw new IOException("Invalid deflate Huffman code: over-subscribed");
+                }
+            }
+
+            int[] offsets = new int[MAX_BITS + 2];
+            for (int length = 1; length <= MAX_BITS; length++) {
+                offsets[length + 1] = offsets[length] + count[length];
+            }
+            symbols = new int[offsets[MAX_BITS + 1]];
+            for (int i = 0; i < n; i++) {
+                if (lengths[offset + i] != 0) {
+                    symbols[offsets[lengths[offset + i]]++] = i;
+                }
+            }
+
+            int code = 0;
+            int index = 0;
+            for (int length = 1; length <= FAST_BITS; length++) {
+                for (int i = 0; i < count[length]; i++, code++) {
+                    int reversed = Integer.reverse(code) >>> (32 - length);
+                    int entry = symbols[index++] << 4 | length;
+                    for (int j = reversed; j < fast.length; j += 1 << length) {
+                        fast[j] = entry;
+                    }
+                }
+                code <<= 1;
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package io.kestra.plugin.compress;
+
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import org.apache.commons.io.IOUtils;
+import org.bouncycastle.crypto.digests.Blake3Digest;
+
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Digests of a stream computed while it is read or written, so that tasks return the checksums of their input and
+ * output without reading them again. Results are lowercase hexadecimal, big-endian for CRC32C and xxHash64 like
+ * {@code crc32c} and {@code xxh64sum}.
+ */
+final class Digests {
+    private final List<Algorithm> algorithms;
+    private final Hash[] hashes;
+
+    public enum Algorithm {
+        CRC32C,
+        XXHASH64,
+        SHA256,
+        BLAKE3
+    }
+
+    private Digests(List<Algorithm> algorithms) {
+        this.algorithms = algorithms;
+        this.hashes = algorithms.stream()
+            .map(Digests::hash)
+            .toArray(Hash[]::new);
+    }
+
+    /**
+     * Without algorithm, streams are returned as is and there are no values.
+     */
+    static Digests of(List<Algorithm> algorithms) {
+        return new Digests(algorithms == null ? List.of() : List.copyOf(algorithms));
+    }
+
+    /**
+     * New digests of the same algorithms, for another stream.
+     */
+    Digests copy() {
+        return new Digests(algorithms);
+    }
+
+    List<Algorithm> algorithms() {
+        return algorithms;
+    }
+
+    boolean isEmpty() {
+        return hashes.length == 0;
+    }
+
+    void update(byte[] b, int off, int len) {
+        for (Hash hash : hashes) {
+            hash.update(b, off, len);
+        }
+    }
+
+    /**
+     * The digests of everything seen so far, by algorithm name, {@code null} without algorithm.
+     */
+    Map<String, String> values() {
+        if (hashes.length == 0) {
+            return null;
+        }
+
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < hashes.length; i++) {
+            values.put(algorithms.get(i).name(), HexFormat.of().formatHex(hashes[i].value()));
+        }
+
+        return values;
+    }
+
+    /**
+     * Digest what is read from {@code in}.
+     *
+     * @param drainOnClose read the rest of {@code in} when closing, so that the digests cover all of it even when the
+     *                     reader stops early, at the end of a compressed stream or of a range
+     */
+    InputStream inputStream(InputStream in, boolean drainOnClose) {
+        if (hashes.length == 0) {
+            return in;
+        }
+
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = super.read();
+                if (b != -1) {
+                    update(new byte[]{(byte) b}, 0, 1);
+                }
+                return b;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = super.read(b, off, len);
+                if (n > 0) {
+                    update(b, off, n);
+                }
+                return n;
+            }
+
+            @Override
+            public long skip(long n) throws IOException {
+                // skipped bytes must be digested too
+                return IOUtils.skip(this, n);
+            }
+
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+
+            @Override
+            public void close() throws IOException {
+                try {
+                    if (drainOnClose) {
+                        IOUtils.consume(this);
+                    }
+                } finally {
+                    super.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * Digest what is written to {@code out}.
+     */
+    OutputStream outputStream(OutputStream out) {
+        if (hashes.length == 0) {
+            return out;
+        }
+
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                out.write(b);
+                update(new byte[]{(byte) b}, 0, 1);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                out.write(b, off, len);
+                update(b, off, len);
+            }
+        };
+    }
+
+    private interface Hash {
+        void update(byte[] b, int off, int len);
+
+        byte[] value();
+    }
+
+    private static Hash hash(Algorithm algorithm) {
+        return switch (algorithm) {
+            case CRC32C -> checksum(new CRC32C(), Integer.BYTES);
+            case XXHASH64 -> checksum(XXHashFactory.fastestInstance().newStreamingHash64(0).asChecksum(), Long.BYTES);
+            case SHA256 -> {
+                MessageDigest digest;
+                try {
+                    digest = MessageDigest.getInstance("SHA-256");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+
+                yield new Hash() {
+                    @Override
+                    public void update(byte[] b, int off, int len) {
+                        digest.update(b, off, len);
+                    }
+
+                    @Override
+                    public byte[] value() {
+                        try {
+                            return ((MessageDigest) digest.clone()).digest();
+                        } catch (CloneNotSupportedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    }
+                };
+            }
+            case BLAKE3 -> {
+                Blake3Digest digest = new Blake3Digest(256);
+
+                yield new Hash() {
+                    @Override
+                    public void update(byte[] b, int off, int len) {
+                        digest.update(b, off, len);
+                    }
+
+                    @Override
+                    public byte[] value() {
+                        byte[] value = new byte[digest.getDigestSize()];
+                        new Blake3Digest(digest).doFinal(value, 0);
+                        return value;
+                    }
+                };
+            }
+        };
+    }
+
+    private static Hash checksum(Checksum checksum, int size) {
+        return new Hash() {
+            @Override
+            public void update(byte[] b, int off, int len) {
+                checksum.update(b, off, len);
+            }
+
+            @Override
+            public byte[] value() {
+                byte[] value = ByteBuffer.allocate(Long.BYTES).putLong(checksum.getValue()).array();
+                return Arrays.copyOfRange(value, Long.BYTES - size, Long.BYTES);
+            }
+        };
+    }
+}
@@ -0,0 +1,58 @@
+package io.kestra.plugin.compress;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Getter
+@ToString
+@Jacksonized
+public class EncryptionOptions {
+    @Schema(title = "Password")
+    @NotNull
+    @ToString.Exclude
+    @PluginProperty(secret = true)
+    private Property<String> password;
+
+    @Schema(
+        title = "Key derivation function",
+        description = "Like `FileEncrypt`: PBKDF2_SHA256 (default) is OpenSSL-compatible, PBKDF2_SHA512, ARGON2ID and SCRYPT are authenticated (AES-GCM). Only used to encrypt, decryption reads it from the file header."
+    )
+    @PluginProperty
+    private Property<AbstractFileCrypt.KeyDerivation> keyDerivation;
+
+    @Schema(
+        title = "PBKDF2 iteration count",
+        description = "Min 100000, defaults to 600000. Used by PBKDF2_SHA256 and PBKDF2_SHA512 to encrypt, and to decrypt OpenSSL-compatible files."
+    )
+    @PluginProperty
+    private Property<Integer> iterations;
+
+    @Schema(
+        title = "Memory cost",
+        description = "Argon2id: memory in KB. Scrypt: N (power of 2). Defaults to 65536."
+    )
+    @PluginProperty
+    private Property<Integer> memory;
+
+    @Schema(
+        title = "Parallelism",
+        description = "Argon2id threads or Scrypt p. Defaults to 1."
+    )
+    @PluginProperty
+    private Property<Integer> parallelism;
+
+    @Schema(
+        title = "Argon2id time cost",
+        description = "Number of passes over the memory buffer for Argon2id. Defaults to 3."
+    )
+    @PluginProperty
+    private Property<Integer> argon2TimeCost;
+}
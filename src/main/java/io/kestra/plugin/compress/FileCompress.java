@@ -5,12 +5,15 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.Map;
 
 import org.apache.commons.compress.compressors.CompressorOutputStream;
 
 import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
@@ -27,9 +30,13 @@ import lombok.experimental.SuperBuilder;
 @NoArgsConstructor
 @Schema(
     title = "Compress a single file",
-    description = "Reads one internal storage file and writes it back with the chosen compression algorithm. Fails for algorithms that are decode-only (Brotli, Deflate64, Snappy variants)."
+    description = "Reads one internal storage file and writes it back with the chosen compression algorithm. Fails for algorithms that are decode-only (Deflate64). With AUTO, the first 64 KiB are probed: data that is already compressed, like images or Parquet files, is stored as is, anything else is compressed with ZSTD; the `compression` output tells which."
 )
 @Plugin(
+    metrics = {
+        @Metric(name = "cache.hit", type = Counter.TYPE, description = "1 when the output of a previous run was reused, with `resultCache`"),
+        @Metric(name = "cache.miss", type = Counter.TYPE, description = "1 when the file was compressed, with `resultCache`")
+    },
     examples = {
         @Example(
             full = true,
@@ -59,29 +66,82 @@ public class FileCompress extends AbstractFile implements RunnableTask<FileCompr
     @PluginProperty(internalStorageURI = true, group = "main")
     private Property<String> from;
 
+    @Schema(
+        title = "Reuse the compressed file of a previous run",
+        description = "When a file with the same content was already compressed with the same settings in this namespace, its compressed file is returned instead of compressing it again. Costs one more read of the input on a miss. The index is kept in the memory of the worker."
+    )
+    @PluginProperty(group = "advanced")
+    private ResultCacheOptions resultCache;
+
     public Output run(RunContext runContext) throws Exception {
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        CompressionAlgorithm rCompression = runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+        CodecOptions options = this.codecOptions(runContext);
+        Digests inputDigests = this.digests(runContext);
+        Digests outputDigests = inputDigests.copy();
+
+        ResultCache.Key cacheKey = ResultCache.key(runContext, this.resultCache, FileCompress.class);
+        if (cacheKey != null) {
+            Output cached = cacheKey
+                .parameter(rCompression)
+                .codec(options)
+                .parameter(inputDigests.algorithms())
+                .content(runContext.storage().getFile(rFrom))
+                .get(Output.class);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
         File tempFile = runContext.workingDir().createTempFile().toFile();
+        CompressionAlgorithm written = rCompression;
+        try (
+            BufferedOutputStream outputStream = new BufferedOutputStream(outputDigests.outputStream(new FileOutputStream(tempFile)));
+            InputStream inputStream = inputDigests.inputStream(runContext.storage().getFile(rFrom), false)
+        ) {
+            // AUTO is resolved from the first bytes, written like the rest afterwards
+            byte[] head = inputStream.readNBytes(rCompression == CompressionAlgorithm.AUTO ? CompressibilityProbe.SIZE : 0);
+            if (rCompression == CompressionAlgorithm.AUTO) {
+                double ratio = CompressibilityProbe.ratio(head, head.length);
+                written = ratio < CompressibilityProbe.MIN_RATIO ? null : CompressionAlgorithm.ZSTD;
+                options = CompressibilityProbe.options(ratio, options);
+                runContext.logger().debug("Estimated compression ratio {}, writing with {}", ratio, written == null ? "no compression" : written);
+            }
+
+            if (written == null) {
+                outputStream.write(head);
+                inputStream.transferTo(outputStream);
+            } else {
+                try (
+                    CompressorOutputStream compressorOutputStream = this.compressorOutputStream(
+                        written,
+                        outputStream,
+                        options
+                    )
+                ) {
+                    compressorOutputStream.write(head);
 
-        try (BufferedOutputStream outputStream = new BufferedOutputStream(new FileOutputStream(tempFile))) {
-            try (
-                CompressorOutputStream compressorOutputStream = this.compressorOutputStream(
-                    runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
-                    outputStream
-                );
-                InputStream inputStream = runContext.storage().getFile(URI.create(runContext.render(this.from).as(String.class).orElseThrow()))
-            ) {
-                final byte[] buffer = new byte[8192];
-                int n = 0;
-                while (-1 != (n = inputStream.read(buffer))) {
-                    compressorOutputStream.write(buffer, 0, n);
+                    final byte[] buffer = new byte[8192];
+                    int n = 0;
+                    while (-1 != (n = inputStream.read(buffer))) {
+                        compressorOutputStream.write(buffer, 0, n);
+                    }
                 }
             }
-
         }
 
-        return Output.builder()
+        Output output = Output.builder()
             .uri(runContext.storage().putFile(tempFile))
+            .compression(written)
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
             .build();
+
+        if (cacheKey != null) {
+            cacheKey.put(output, output.getUri());
+        }
+
+        return output;
     }
 
     @Builder
@@ -91,5 +151,23 @@ public class FileCompress extends AbstractFile implements RunnableTask<FileCompr
             title = "URI of the compressed file on Kestra's internal storage"
         )
         private final URI uri;
+
+        @Schema(
+            title = "Compression algorithm of the file",
+            description = "The one chosen with AUTO, null when the file was stored as is because compressing it would save next to nothing."
+        )
+        private final CompressionAlgorithm compression;
+
+        @Schema(
+            title = "Digests of the original file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the compressed file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
     }
 }
@@ -1,11 +1,10 @@
 package io.kestra.plugin.compress;
 
-import java.io.BufferedInputStream;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Map;
 
 import org.apache.commons.compress.compressors.CompressorInputStream;
 
@@ -60,27 +59,82 @@ public class FileDecompress extends AbstractFile implements RunnableTask<FileDec
     @PluginProperty(internalStorageURI = true, group = "main")
     private Property<String> from;
 
+    @Schema(
+        title = "Offset in the decompressed content where to start",
+        description = "Multi-block XZ files, as written with `threads` or `chunkSize`, and seekable ZSTD files seek straight to the block or frame holding the offset, GZIP files with an `index` start at the closest checkpoint; other formats are decompressed from the start and the leading bytes discarded."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Long> offset;
+
+    @Schema(
+        title = "Maximum number of decompressed bytes to write",
+        description = "Combined with `offset`, extracts a range of the decompressed content. Defaults to everything up to the end."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<Long> length;
+
+    @Schema(
+        title = "Internal storage URI of a GZIP checkpoint index",
+        description = "Index built by the `GzipIndex` task for this file. With `offset`, decompression starts at the closest checkpoint before it instead of at the beginning of the file."
+    )
+    @PluginProperty(internalStorageURI = true, group = "advanced")
+    private Property<String> index;
+
     public Output run(RunContext runContext) throws Exception {
         Path tempFile = runContext.workingDir().createTempFile();
 
+        long rOffset = runContext.render(this.offset).as(Long.class).orElse(0L);
+        if (rOffset < 0) {
+            throw new IllegalArgumentException("offset must be >= 0, got " + rOffset);
+        }
+
+        long rLength = runContext.render(this.length).as(Long.class).orElse(Long.MAX_VALUE);
+        if (rLength < 0) {
+            throw new IllegalArgumentException("length must be >= 0, got " + rLength);
+        }
+
+        CompressionAlgorithm rCompression = runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+        CodecOptions options = this.codecOptions(runContext);
+
+        var rIndex = runContext.render(this.index).as(String.class);
+        if (rIndex.isPresent()) {
+            if (rCompression != CompressionAlgorithm.GZIP) {
+                throw new IllegalArgumentException("index is only supported with GZIP compression, got " + rCompression);
+            }
+            options = options.toBuilder()
+                .gzipIndex(GzipCheckpointIndex.load(runContext, URI.create(rIndex.get())))
+                .build();
+        }
+
+        Digests outputDigests = this.digests(runContext);
+        // reading from an index checkpoint skips the beginning of the compressed file
+        Digests inputDigests = options.getGzipIndex() != null && rOffset > 0 ? Digests.of(null) : outputDigests.copy();
+
         try (
-            OutputStream outputStream = Files.newOutputStream(tempFile);
-            InputStream inputStream = runContext.storage().getFile(URI.create(runContext.render(this.from).as(String.class).orElseThrow()));
-            InputStream inputStreamBuffer = new BufferedInputStream(inputStream);
+            OutputStream outputStream = outputDigests.outputStream(Files.newOutputStream(tempFile));
             CompressorInputStream compressorInputStream = this.compressorInputStream(
-                runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
-                inputStreamBuffer
+                runContext,
+                URI.create(runContext.render(this.from).as(String.class).orElseThrow()),
+                rCompression,
+                options,
+                rOffset,
+                rLength,
+                inputDigests
             );
         ) {
             final byte[] buffer = new byte[8192];
+            long remaining = rLength;
             int n = 0;
-            while (-1 != (n = compressorInputStream.read(buffer))) {
+            while (remaining > 0 && -1 != (n = compressorInputStream.read(buffer, 0, (int) Math.min(buffer.length, remaining)))) {
                 outputStream.write(buffer, 0, n);
+                remaining -= n;
             }
         }
 
         return Output.builder()
             .uri(runContext.storage().putFile(tempFile.toFile()))
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
             .build();
     }
 
@@ -91,5 +145,17 @@ public class FileDecompress extends AbstractFile implements RunnableTask<FileDec
             title = "URI of the decompressed file on Kestra's internal storage"
         )
         private final URI uri;
+
+        @Schema(
+            title = "Digests of the compressed file",
+            description = "Only set with `digests`, and not when reading with `index` from an `offset`. The whole compressed file is read to compute them, even when decompressing a range."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the decompressed file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
     }
 }
@@ -24,8 +24,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Map;
 
 @SuperBuilder
 @ToString
@@ -69,26 +69,48 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
         runContext.logger().info("Decrypting {}", rFrom);
 
         final char[] passChars = runContext.render(this.password).as(String.class).orElseThrow().toCharArray();
-        try (var raw = runContext.storage().getFile(URI.create(rFrom))) {
-            final var tempFile = runContext.workingDir().createTempFile();
-            final var header = raw.readNBytes(SALTED_MAGIC.length);
-
-            if (Arrays.equals(header, SALTED_MAGIC)) {
-                decryptOpensslFormat(raw, rIterations, passChars, tempFile);
-            } else if (isKestraEncHeader(header, raw)) {
-                decryptKestraFormat(raw, passChars, tempFile);
-            } else {
-                throw new IllegalArgumentException(
-                    "Unknown file format: expected 'Salted__' (OpenSSL) or 'KESTRAENC' header. " +
-                    "Ensure the file was encrypted with FileEncrypt."
-                );
+        final var tempFile = runContext.workingDir().createTempFile();
+        final var inputDigests = this.digests(runContext);
+        final var outputDigests = inputDigests.copy();
+        try (var raw = inputDigests.inputStream(runContext.storage().getFile(URI.create(rFrom)), true)) {
+            final InputStream cipherIn;
+            try {
+                cipherIn = decryptingInputStream(raw, passChars, rIterations);
+            } finally {
+                Arrays.fill(passChars, '\0');
             }
 
-            return Output.builder()
-                .uri(runContext.storage().putFile(tempFile.toFile()))
-                .build();
-        } finally {
-            Arrays.fill(passChars, '\0');
+            try (
+                var out = outputDigests.outputStream(Files.newOutputStream(tempFile));
+                cipherIn
+            ) {
+                cipherIn.transferTo(out);
+            }
+        }
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile.toFile()))
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
+            .build();
+    }
+
+    /**
+     * Read the file header from {@code raw}, OpenSSL or KESTRAENC, and return the stream decrypting the rest of it.
+     * Reading it throws an {@link IllegalStateException} for a wrong password or a corrupted file.
+     */
+    static InputStream decryptingInputStream(InputStream raw, char[] passChars, int iterations) throws Exception {
+        final var header = raw.readNBytes(SALTED_MAGIC.length);
+
+        if (Arrays.equals(header, SALTED_MAGIC)) {
+            return decryptOpensslFormat(raw, iterations, passChars);
+        } else if (isKestraEncHeader(header, raw)) {
+            return decryptKestraFormat(raw, passChars);
+        } else {
+            throw new IllegalArgumentException(
+                "Unknown file format: expected 'Salted__' (OpenSSL) or 'KESTRAENC' header. " +
+                "Ensure the file was encrypted with FileEncrypt."
+            );
         }
     }
 
@@ -100,14 +122,14 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
         return raw.read() == (KESTRAENC_MAGIC[KESTRAENC_MAGIC.length - 1] & 0xFF);
     }
 
-    private static void decryptOpensslFormat(InputStream raw, int iterations, char[] passChars, Path tempFile) throws Exception {
+    private static InputStream decryptOpensslFormat(InputStream raw, int iterations, char[] passChars) throws Exception {
         var salt = raw.readNBytes(OPENSSL_SALT_LEN);
         if (salt.length != OPENSSL_SALT_LEN)
             throw new IllegalArgumentException("Input file is truncated: expected " + OPENSSL_SALT_LEN + "-byte salt after 'Salted__' header.");
-        decrypt(new CipherInit(deriveKeyAndIvOpenssl(passChars, salt, iterations), null), raw, tempFile, null);
+        return decrypt(new CipherInit(deriveKeyAndIvOpenssl(passChars, salt, iterations), null), raw, null);
     }
 
-    private static void decryptKestraFormat(InputStream raw, char[] passChars, Path tempFile) throws Exception {
+    private static InputStream decryptKestraFormat(InputStream raw, char[] passChars) throws Exception {
         var capturing = new CapturingInputStream(raw);
         var dis = new DataInputStream(capturing);
         var version = dis.read();
@@ -159,7 +181,7 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
         };
 
         var aad = capturing.captured(KESTRAENC_MAGIC);
-        decrypt(new CipherInit(deriveKey(passChars, salt, params), nonce), dis, tempFile, aad);
+        return decrypt(new CipherInit(deriveKey(passChars, salt, params), nonce), dis, aad);
     }
 
     private static final class CapturingInputStream extends FilterInputStream {
@@ -187,7 +209,7 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
         }
     }
 
-    private static void decrypt(CipherInit init, InputStream raw, Path tempFile, byte[] aad) throws Exception {
+    private static InputStream decrypt(CipherInit init, InputStream raw, byte[] aad) throws Exception {
         final var keyMaterial = init.keyMaterial();
         final Cipher cipher;
         try {
@@ -198,16 +220,41 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
         if (aad != null) {
             cipher.updateAAD(aad);
         }
-        try (
-            var out = Files.newOutputStream(tempFile);
-            var cipherIn = new CipherInputStream(raw, cipher)
-        ) {
-            cipherIn.transferTo(out);
-        } catch (IOException e) {
+        return new DecryptingInputStream(new CipherInputStream(raw, cipher));
+    }
+
+    private static final class DecryptingInputStream extends FilterInputStream {
+        DecryptingInputStream(InputStream in) { super(in); }
+
+        @Override public int read() throws IOException {
+            try {
+                return super.read();
+            } catch (IOException e) {
+                throw failure(e);
+            }
+        }
+
+        @Override public int read(byte[] bytes, int off, int len) throws IOException {
+            try {
+                return super.read(bytes, off, len);
+            } catch (IOException e) {
+                throw failure(e);
+            }
+        }
+
+        @Override public void close() throws IOException {
+            try {
+                super.close();
+            } catch (IOException e) {
+                throw failure(e);
+            }
+        }
+
+        private static IOException failure(IOException e) {
             if (e.getCause() instanceof BadPaddingException || e.getCause() instanceof IllegalBlockSizeException) {
                 throw new IllegalStateException("Decryption failed: incorrect password or corrupted file", e.getCause());
             }
-            throw e;
+            return e;
         }
     }
 
@@ -216,5 +263,11 @@ public class FileDecrypt extends AbstractFileCrypt implements RunnableTask<FileD
     public static class Output implements io.kestra.core.models.tasks.Output {
         @Schema(title = "Decrypted file URI")
         private final URI uri;
+
+        @Schema(title = "Digests of the encrypted file, only set with `digests`")
+        private final Map<String, String> inputDigests;
+
+        @Schema(title = "Digests of the decrypted file, only set with `digests`")
+        private final Map<String, String> outputDigests;
     }
 }
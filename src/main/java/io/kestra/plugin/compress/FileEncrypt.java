@@ -1,8 +1,10 @@
 package io.kestra.plugin.compress;
 
 import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
 import io.kestra.core.models.annotations.Plugin;
 import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
 import io.kestra.core.models.property.Property;
 import io.kestra.core.models.tasks.RunnableTask;
 import io.kestra.core.runners.RunContext;
@@ -20,10 +22,14 @@ import javax.crypto.CipherOutputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.util.Arrays;
+import java.util.Map;
 
 @SuperBuilder
 @ToString
@@ -37,6 +43,10 @@ import java.util.Arrays;
         Other KDFs use authenticated AES-GCM with a KESTRAENC file format."""
 )
 @Plugin(
+    metrics = {
+        @Metric(name = "cache.hit", type = Counter.TYPE, description = "1 when the encrypted file of a previous run was reused, with `resultCache`"),
+        @Metric(name = "cache.miss", type = Counter.TYPE, description = "1 when the file was encrypted, with `resultCache`")
+    },
     examples = {
         @Example(
             full = true,
@@ -112,7 +122,7 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
-    protected Property<KeyDerivation> keyDerivation = Property.ofValue(KeyDerivation.PBKDF2_SHA256);
+    protected Property<KeyDerivation> keyDerivation = Property.ofValue(DEFAULT_KEY_DERIVATION);
 
     @Schema(
         title = "Memory cost",
@@ -120,7 +130,7 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
-    protected Property<Integer> memory = Property.ofValue(65536);
+    protected Property<Integer> memory = Property.ofValue(DEFAULT_MEMORY);
 
     @Schema(
         title = "Parallelism",
@@ -128,7 +138,7 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
-    protected Property<Integer> parallelism = Property.ofValue(1);
+    protected Property<Integer> parallelism = Property.ofValue(DEFAULT_PARALLELISM);
 
     @Schema(
         title = "Argon2id time cost",
@@ -139,7 +149,14 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
     )
     @Builder.Default
     @PluginProperty(group = "advanced")
-    protected Property<Integer> argon2TimeCost = Property.ofValue(3);
+    protected Property<Integer> argon2TimeCost = Property.ofValue(DEFAULT_ARGON2_TIME_COST);
+
+    @Schema(
+        title = "Reuse the encrypted file of a previous run",
+        description = "When a file with the same content was already encrypted with the same password and settings in this namespace, the encrypted file is returned instead of encrypting it again. Identical files then share their salt and IV, which reveals that they are identical. The index is kept in the memory of the worker."
+    )
+    @PluginProperty(group = "advanced")
+    private ResultCacheOptions resultCache;
 
     @Override
     public Output run(RunContext runContext) throws Exception {
@@ -153,30 +170,74 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
         final int kdfIterations = rKeyDerivation == KeyDerivation.ARGON2ID ? rArgon2TimeCost : rIterations;
         final var kdfParams = new KdfParams(rKeyDerivation, kdfIterations, rMemory, rParallelism);
         final boolean opensslFormat = rKeyDerivation == KeyDerivation.PBKDF2_SHA256;
-        validateKdfParams(kdfParams);
         runContext.logger().info("Encrypting with {} ({})", rKeyDerivation, opensslFormat ? "AES-CBC" : "AES-GCM");
 
-        final var salt = randomBytes(opensslFormat ? OPENSSL_SALT_LEN : KESTRAENC_SALT_LEN);
-        final byte[] gcmNonce = opensslFormat ? null : randomBytes(GCM_NONCE_LEN);
-
         final char[] passChars = runContext.render(this.password).as(String.class).orElseThrow().toCharArray();
-        final byte[] keyMaterial;
+        final var inputDigests = this.digests(runContext);
+        final var outputDigests = inputDigests.copy();
+        final var cacheKey = ResultCache.key(runContext, this.resultCache, FileEncrypt.class);
+
+        final Path tempFile;
+        final OutputStream cipherOut;
         try {
-            keyMaterial = deriveKey(passChars, salt, kdfParams);
+            if (cacheKey != null) {
+                var cached = cacheKey
+                    .parameter(kdfParams)
+                    .parameter(inputDigests.algorithms())
+                    .secret(passChars)
+                    .content(runContext.storage().getFile(URI.create(rFrom)))
+                    .get(Output.class);
+                if (cached != null) {
+                    return cached;
+                }
+            }
+
+            tempFile = runContext.workingDir().createTempFile();
+            cipherOut = encryptingOutputStream(outputDigests.outputStream(Files.newOutputStream(tempFile)), passChars, kdfParams);
         } finally {
             Arrays.fill(passChars, '\0');
         }
 
-        final Cipher cipher;
-        try {
-            cipher = newCipher(Cipher.ENCRYPT_MODE, keyMaterial, gcmNonce);
-        } finally {
-            Arrays.fill(keyMaterial, (byte) 0);
+        try (
+            var in = inputDigests.inputStream(runContext.storage().getFile(URI.create(rFrom)), false);
+            cipherOut
+        ) {
+            in.transferTo(cipherOut);
+        }
+
+        var output = Output.builder()
+            .uri(runContext.storage().putFile(tempFile.toFile()))
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
+            .build();
+
+        if (cacheKey != null) {
+            cacheKey.put(output, output.getUri());
         }
 
-        final var tempFile = runContext.workingDir().createTempFile();
+        return output;
+    }
+
+    /**
+     * Write the file header to {@code out} and return the stream encrypting to it, in the OpenSSL format for
+     * PBKDF2_SHA256, in the KESTRAENC format otherwise. Closing the returned stream closes {@code out}.
+     */
+    static OutputStream encryptingOutputStream(OutputStream out, char[] password, KdfParams kdfParams) throws IOException, GeneralSecurityException {
+        try {
+            validateKdfParams(kdfParams);
+            final boolean opensslFormat = kdfParams.algorithm() == KeyDerivation.PBKDF2_SHA256;
+
+            final var salt = randomBytes(opensslFormat ? OPENSSL_SALT_LEN : KESTRAENC_SALT_LEN);
+            final byte[] gcmNonce = opensslFormat ? null : randomBytes(GCM_NONCE_LEN);
+
+            final byte[] keyMaterial = deriveKey(password, salt, kdfParams);
+            final Cipher cipher;
+            try {
+                cipher = newCipher(Cipher.ENCRYPT_MODE, keyMaterial, gcmNonce);
+            } finally {
+                Arrays.fill(keyMaterial, (byte) 0);
+            }
 
-        try (var out = new DataOutputStream(Files.newOutputStream(tempFile))) {
             if (opensslFormat) {
                 out.write(SALTED_MAGIC);
                 out.write(salt);
@@ -186,17 +247,12 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
                 // Bind the header to the GCM tag so any header tamper invalidates decryption.
                 cipher.updateAAD(headerBytes);
             }
-            try (
-                var in = runContext.storage().getFile(URI.create(rFrom));
-                var cipherOut = new CipherOutputStream(out, cipher)
-            ) {
-                in.transferTo(cipherOut);
-            }
-        }
 
-        return Output.builder()
-            .uri(runContext.storage().putFile(tempFile.toFile()))
-            .build();
+            return new CipherOutputStream(out, cipher);
+        } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
     }
 
     private static byte[] randomBytes(int length) {
@@ -264,5 +320,11 @@ public class FileEncrypt extends AbstractFileCrypt implements RunnableTask<FileE
     public static class Output implements io.kestra.core.models.tasks.Output {
         @Schema(title = "Encrypted file URI")
         private final URI uri;
+
+        @Schema(title = "Digests of the original file, only set with `digests`")
+        private final Map<String, String> inputDigests;
+
+        @Schema(title = "Digests of the encrypted file, only set with `digests`")
+        private final Map<String, String> outputDigests;
     }
 }
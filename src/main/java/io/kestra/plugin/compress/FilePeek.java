@@ -0,0 +1,202 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Preview the beginning of a compressed file",
+    description = "Decompresses only the first bytes or lines of a compressed file from internal storage, then stops reading it. Use it to sniff a schema or show a sample of a large file without decompressing it whole. The preview is returned inline, or written to internal storage with `store`."
+)
+@Plugin(
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: file_peek
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: Large compressed CSV
+                    type: FILE
+
+                tasks:
+                  - id: peek
+                    type: io.kestra.plugin.compress.FilePeek
+                    from: "{{ inputs.file }}"
+                    compression: GZIP
+                    maxLines: 100
+
+                  - id: log
+                    type: io.kestra.plugin.core.log.Log
+                    message: "{{ outputs.peek.content }}"
+                """
+        )
+    }
+)
+public class FilePeek extends AbstractFile implements RunnableTask<FilePeek.Output> {
+    @Schema(
+        title = "Internal storage URI of the compressed file"
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Maximum number of decompressed bytes to read"
+    )
+    @Builder.Default
+    @PluginProperty(group = "main")
+    private Property<Integer> maxBytes = Property.ofValue(64 * 1024);
+
+    @Schema(
+        title = "Maximum number of lines to read",
+        description = "Reading stops after this many line feeds, or at `maxBytes`, whichever comes first."
+    )
+    @PluginProperty(group = "main")
+    private Property<Integer> maxLines;
+
+    @Schema(
+        title = "Write the preview to internal storage",
+        description = "By default, the preview is returned in the `content` output as UTF-8 text; set to true for binary content or large previews, returned as `uri`."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Boolean> store = Property.ofValue(false);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        int rMaxBytes = runContext.render(this.maxBytes).as(Integer.class).orElseThrow();
+        if (rMaxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be > 0, got " + rMaxBytes);
+        }
+
+        int rMaxLines = runContext.render(this.maxLines).as(Integer.class).orElse(Integer.MAX_VALUE);
+        if (rMaxLines <= 0) {
+            throw new IllegalArgumentException("maxLines must be > 0, got " + rMaxLines);
+        }
+
+        // a preview only reads the start of the file: decode it as a stream, the parallel decoders copy the whole file first
+        CodecOptions options = this.codecOptions(runContext).toBuilder()
+            .threads(1)
+            .build();
+
+        ByteArrayOutputStream preview = new ByteArrayOutputStream(Math.min(rMaxBytes, 64 * 1024));
+        int lines = 0;
+        boolean truncated;
+        try (
+            CompressorInputStream compressorInputStream = this.compressorInputStream(
+                runContext,
+                URI.create(runContext.render(this.from).as(String.class).orElseThrow()),
+                runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
+                options,
+                0,
+                Long.MAX_VALUE
+            )
+        ) {
+            byte[] buffer = new byte[8192];
+            truncated = false;
+            while (preview.size() < rMaxBytes && lines < rMaxLines) {
+                int n = compressorInputStream.read(buffer, 0, Math.min(buffer.length, rMaxBytes - preview.size()));
+                if (n < 0) {
+                    break;
+                }
+
+                int length = n;
+                for (int i = 0; i < n; i++) {
+                    if (buffer[i] == '\n' && ++lines == rMaxLines) {
+                        length = i + 1;
+                        truncated = length < n;
+                        break;
+                    }
+                }
+                preview.write(buffer, 0, length);
+            }
+
+            if (!truncated && (preview.size() == rMaxBytes || lines == rMaxLines)) {
+                truncated = compressorInputStream.read() != -1;
+            }
+        }
+
+        byte[] content = preview.toByteArray();
+        if (content.length > 0 && content[content.length - 1] != '\n') {
+            lines++;
+        }
+
+        Output.OutputBuilder output = Output.builder()
+            .size((long) content.length)
+            .lines(lines)
+            .truncated(truncated);
+
+        // the input is only read up to the preview: digest the preview itself
+        Digests outputDigests = this.digests(runContext);
+        outputDigests.update(content, 0, content.length);
+        output.outputDigests(outputDigests.values());
+
+        if (runContext.render(this.store).as(Boolean.class).orElseThrow()) {
+            output.uri(runContext.storage().putFile(runContext.workingDir().createTempFile(content, ".preview").toFile()));
+        } else {
+            output.content(new String(content, StandardCharsets.UTF_8));
+        }
+
+        return output.build();
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "Decompressed preview as UTF-8 text",
+            description = "Only set when `store` is false."
+        )
+        private final String content;
+
+        @Schema(
+            title = "URI of the decompressed preview on Kestra's internal storage",
+            description = "Only set when `store` is true."
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Preview size in bytes"
+        )
+        private final Long size;
+
+        @Schema(
+            title = "Number of lines in the preview, counting a last line without line feed"
+        )
+        private final Integer lines;
+
+        @Schema(
+            title = "Whether the decompressed file continues past the preview"
+        )
+        private final Boolean truncated;
+
+        @Schema(
+            title = "Digests of the preview",
+            description = "Only set with `digests`. The rest of the file is not read, so there are no digests of the whole file."
+        )
+        private final Map<String, String> outputDigests;
+    }
+}
@@ -0,0 +1,135 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.net.URI;
+import java.util.Map;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Convert a compressed file to another compression format",
+    description = "Decompresses a file from `compression` and recompresses it to `targetCompression` in a single streaming pass, without writing the decompressed content anywhere. Decoding and encoding run on separate threads. The codec settings (`threads`, `tuning`, `zstd`, `brotli`...) apply to the target; `zstd.dictionary` and `zstd.windowLogMax` are also used to read a ZSTD source."
+)
+@Plugin(
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: file_transcode
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: Legacy bzip2 file
+                    type: FILE
+
+                tasks:
+                  - id: transcode
+                    type: io.kestra.plugin.compress.FileTranscode
+                    from: "{{ inputs.file }}"
+                    compression: BZIP2
+                    targetCompression: ZSTD
+                    threads: 4
+                """
+        )
+    }
+)
+public class FileTranscode extends AbstractFile implements RunnableTask<FileTranscode.Output> {
+    @Schema(
+        title = "Internal storage URI of the compressed file"
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Compression algorithm of the output file",
+        description = "Deflate64 is decode-only and cannot be used here."
+    )
+    @NotNull
+    @PluginProperty(group = "main")
+    private Property<CompressionAlgorithm> targetCompression;
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        CodecOptions options = this.codecOptions(runContext);
+        File tempFile = runContext.workingDir().createTempFile().toFile();
+        Digests inputDigests = this.digests(runContext);
+        Digests outputDigests = inputDigests.copy();
+        long size;
+
+        try (BufferedOutputStream outputStream = new BufferedOutputStream(outputDigests.outputStream(new FileOutputStream(tempFile)))) {
+            try (
+                // the source is decoded as a stream: the parallel decoders would first copy it to the working directory
+                CompressorInputStream compressorInputStream = this.compressorInputStream(
+                    runContext,
+                    URI.create(runContext.render(this.from).as(String.class).orElseThrow()),
+                    runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow(),
+                    options.toBuilder().threads(1).build(),
+                    0,
+                    Long.MAX_VALUE,
+                    inputDigests
+                );
+                CompressorOutputStream compressorOutputStream = this.compressorOutputStream(
+                    runContext.render(this.targetCompression).as(CompressionAlgorithm.class).orElseThrow(),
+                    outputStream,
+                    options
+                )
+            ) {
+                size = PipelinedCopy.copy(compressorInputStream, compressorOutputStream);
+            }
+        }
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile))
+            .size(size)
+            .inputDigests(inputDigests.values())
+            .outputDigests(outputDigests.values())
+            .build();
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the transcoded file on Kestra's internal storage"
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Decompressed size in bytes"
+        )
+        private final Long size;
+        @Schema(
+            title = "Digests of the source file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the transcoded file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
+    }
+}
@@ -0,0 +1,389 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.commons.compress.archivers.tar.TarArchiveEntry;
+import org.apache.commons.compress.archivers.tar.TarArchiveInputStream;
+import org.apache.commons.compress.archivers.tar.TarConstants;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Random access index of a GZIP file, in the spirit of zlib's zran: checkpoints hold the compressed bit position of a
+ * deflate block boundary every {@code spacing} uncompressed bytes with the 32 KiB of output preceding it, so reading
+ * can start at the closest checkpoint before an offset instead of at the beginning of the file. For a compressed TAR,
+ * the index also lists the uncompressed offset of every entry.
+ * <p>
+ * The header records the size of the compressed file and the trailer of its last member, checked before seeking so
+ * that an index is not used against another file: checkpoints would then point anywhere in the deflate stream.
+ * <p>
+ * Checkpoint windows are kept deflated, in memory as in the index file.
+ */
+final class GzipCheckpointIndex {
+    private static final int MAGIC = 0x4b475a49;
+    private static final int VERSION = 2;
+
+    private final long spacing;
+    private final long size;
+    private final long compressedSize;
+    private final Trailer trailer;
+    private final List<Checkpoint> checkpoints;
+    private final List<Entry> entries;
+
+    /**
+     * @param offset the uncompressed offset
+     * @param bitPosition the position in the compressed file, in bits
+     * @param window the deflated window preceding the checkpoint
+     */
+    record Checkpoint(long offset, long bitPosition, byte[] window) {
+    }
+
+    /**
+     * The trailer of the last member.
+     *
+     * @param offset position of the trailer in the compressed file
+     * @param crc the CRC32 of the member data
+     * @param size the member size modulo 2^32
+     */
+    record Trailer(long offset, long crc, long size) {
+    }
+
+    /**
+     * A TAR entry.
+     *
+     * @param headerOffset uncompressed offset of its first header block, including any PAX or GNU long name header
+     * @param dataOffset uncompressed offset of its content
+     */
+    record Entry(String name, long headerOffset, long dataOffset, long size) {
+    }
+
+    private GzipCheckpointIndex(long spacing, long size, long compressedSize, Trailer trailer, List<Checkpoint> checkpoints, List<Entry> entries) {
+        this.spacing = spacing;
+        this.size = size;
+        this.compressedSize = compressedSize;
+        this.trailer = trailer;
+        this.checkpoints = checkpoints;
+        this.entries = entries;
+    }
+
+    /**
+     * Decompress a whole GZIP file, checking every member, and index it.
+     */
+    static GzipCheckpointIndex build(InputStream gzip, long spacing) throws IOException {
+        BoundedInputStream compressed = BoundedInputStream.builder().setInputStream(gzip).get();
+        Indexer indexer = new Indexer(compressed, spacing);
+        List<Entry> entries = new ArrayList<>();
+
+        BufferedInputStream uncompressed = new BufferedInputStream(indexer, TarConstants.DEFAULT_RCDSIZE);
+        uncompressed.mark(TarConstants.DEFAULT_RCDSIZE);
+        byte[] signature = uncompressed.readNBytes(TarConstants.DEFAULT_RCDSIZE);
+        uncompressed.reset();
+
+        if (TarArchiveInputStream.matches(signature, signature.length)) {
+            BoundedInputStream counting = BoundedInputStream.builder().setInputStream(uncompressed).get();
+            TarArchiveInputStream tar = new TarArchiveInputStream(counting);
+            long headerOffset = 0;
+            TarArchiveEntry entry;
+            while ((entry = tar.getNextEntry()) != null) {
+                long dataOffset = counting.getCount();
+                entries.add(new Entry(entry.getName(), headerOffset, dataOffset, entry.getSize()));
+                headerOffset = dataOffset + (entry.getSize() + TarConstants.DEFAULT_RCDSIZE - 1) / TarConstants.DEFAULT_RCDSIZE * TarConstants.DEFAULT_RCDSIZE;
+            }
+        }
+
+        IOUtils.consume(uncompressed);
+        // data following the last member counts in the file size
+        IOUtils.consume(compressed);
+
+        return new GzipCheckpointIndex(spacing, indexer.size, compressed.getCount(), indexer.trailer, indexer.checkpoints, entries);
+    }
+
+    static GzipCheckpointIndex load(RunContext runContext, URI uri) throws IOException {
+        try (InputStream inputStream = runContext.storage().getFile(uri)) {
+            return read(new BufferedInputStream(inputStream));
+        }
+    }
+
+    static GzipCheckpointIndex read(InputStream inputStream) throws IOException {
+        DataInputStream in = new DataInputStream(inputStream);
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a GZIP checkpoint index");
+        }
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported GZIP checkpoint index version " + version);
+        }
+
+        long spacing = in.readLong();
+        long size = in.readLong();
+        long compressedSize = in.readLong();
+        Trailer trailer = new Trailer(in.readLong(), in.readInt() & 0xffffffffL, in.readInt() & 0xffffffffL);
+
+        int checkpointCount = in.readInt();
+        List<Checkpoint> checkpoints = new ArrayList<>(checkpointCount);
+        for (int i = 0; i < checkpointCount; i++) {
+            long offset = in.readLong();
+            long bitPosition = in.readLong();
+            byte[] window = new byte[in.readInt()];
+            in.readFully(window);
+            checkpoints.add(new Checkpoint(offset, bitPosition, window));
+        }
+
+        int entryCount = in.readInt();
+        List<Entry> entries = new ArrayList<>(entryCount);
+        for (int i = 0; i < entryCount; i++) {
+            entries.add(new Entry(in.readUTF(), in.readLong(), in.readLong(), in.readLong()));
+        }
+
+        return new GzipCheckpointIndex(spacing, size, compressedSize, trailer, checkpoints, entries);
+    }
+
+    void write(OutputStream outputStream) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeLong(spacing);
+        out.writeLong(size);
+        out.writeLong(compressedSize);
+        out.writeLong(trailer.offset());
+        out.writeInt((int) trailer.crc());
+        out.writeInt((int) trailer.size());
+
+        out.writeInt(checkpoints.size());
+        for (Checkpoint checkpoint : checkpoints) {
+            out.writeLong(checkpoint.offset());
+            out.writeLong(checkpoint.bitPosition());
+            out.writeInt(checkpoint.window().length);
+            out.write(checkpoint.window());
+        }
+
+        out.writeInt(entries.size());
+        for (Entry entry : entries) {
+            out.writeUTF(entry.name());
+            out.writeLong(entry.headerOffset());
+            out.writeLong(entry.dataOffset());
+            out.writeLong(entry.size());
+        }
+
+        out.flush();
+    }
+
+    long size() {
+        return size;
+    }
+
+    long compressedSize() {
+        return compressedSize;
+    }
+
+    /**
+     * Check that {@code gzip}, a file of {@code compressedSize} bytes read from its first byte, is the one this index
+     * was built from, by its size and the trailer of its last member.
+     */
+    void verify(InputStream gzip, long compressedSize) throws IOException {
+        if (compressedSize != this.compressedSize) {
+            throw new IllegalArgumentException("The GZIP index does not match the file: it was built for " + this.compressedSize + " compressed bytes, the file has " + compressedSize);
+        }
+
+        // storage streams seek rather than read when skipping
+        gzip.skipNBytes(trailer.offset());
+        ByteBuffer actual = ByteBuffer.wrap(gzip.readNBytes(8)).order(ByteOrder.LITTLE_ENDIAN);
+        if (actual.remaining() != 8 || (actual.getInt() & 0xffffffffL) != trailer.crc() || (actual.getInt() & 0xffffffffL) != trailer.size()) {
+            throw new IllegalArgumentException("The GZIP index does not match the file: the trailer of its last member differs");
+        }
+    }
+
+    List<Checkpoint> checkpoints() {
+        return Collections.unmodifiableList(checkpoints);
+    }
+
+    List<Entry> entries() {
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * The last checkpoint at or before the uncompressed {@code offset}.
+     */
+    Checkpoint checkpoint(long offset) {
+        int low = 0;
+        int high = checkpoints.size() - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (checkpoints.get(middle).offset() <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return checkpoints.get(low);
+    }
+
+    Entry entry(String name) {
+        return entries.stream()
+            .filter(entry -> entry.name().equals(name))
+            .findFirst()
+            .orElse(null);
+    }
+
+    static byte[] inflateWindow(byte[] window) throws IOException {
+        if (window.length == 0) {
+            return window;
+        }
+
+        CodecPools.Pool<Inflater> inflaters = CodecPools.inflaters(true);
+        Inflater inflater = inflaters.acquire();
+        try {
+            inflater.setInput(window);
+            byte[] inflated = new byte[DeflateDecoder.WINDOW_SIZE];
+            int n = 0;
+            while (!inflater.finished() && n < inflated.length) {
+                int read = inflater.inflate(inflated, n, inflated.length - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Corrupt GZIP checkpoint index window");
+                }
+                n += read;
+            }
+
+            return n == inflated.length ? inflated : Arrays.copyOf(inflated, n);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt GZIP checkpoint index window", e);
+        } finally {
+            inflaters.release(inflater);
+        }
+    }
+
+    private static byte[] deflateWindow(byte[] window) {
+        CodecPools.Pool<Deflater> deflaters = CodecPools.deflaters(Deflater.DEFAULT_COMPRESSION, true);
+        Deflater deflater = deflaters.acquire();
+        try {
+            deflater.setInput(window);
+            deflater.finish();
+
+            ByteArrayOutputStream deflated = new ByteArrayOutputStream(window.length / 2 + 64);
+            byte[] buffer = new byte[8 * 1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                deflated.write(buffer, 0, n);
+            }
+
+            return deflated.toByteArray();
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+
+    /**
+     * Decompresses every member with a {@link DeflateDecoder}, checking their trailers, and records a checkpoint at the
+     * first member or block boundary past each {@code spacing} bytes of output.
+     */
+    private static final class Indexer extends InputStream {
+        private final PushbackInputStream in;
+        private final long spacing;
+        private final List<Checkpoint> checkpoints = new ArrayList<>();
+        private final CRC32 crc = new CRC32();
+
+        private DeflateDecoder decoder;
+        private long memberSize;
+        private long size;
+        private Trailer trailer;
+
+        private Indexer(InputStream gzip, long spacing) throws IOException {
+            this.in = new PushbackInputStream(gzip, DeflateDecoder.PUSHBACK_SIZE);
+            this.spacing = spacing;
+
+            GzipInputStream.Header header = GzipInputStream.readHeader(in);
+            if (header == null) {
+                throw new IOException("Input is not in the .gz format");
+            }
+            this.startMember((long) header.length() * 8);
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+
+            while (decoder != null) {
+                if (decoder.atBlockBoundary() && size - lastCheckpoint() >= spacing) {
+                    checkpoints.add(new Checkpoint(size, decoder.bitPosition(), deflateWindow(decoder.window())));
+                }
+
+                int n = decoder.read(b, off, len);
+                if (n > 0) {
+                    crc.update(b, off, n);
+                    memberSize += n;
+                    size += n;
+
+                    return n;
+                }
+
+                if (n < 0) {
+                    this.nextMember();
+                }
+            }
+
+            return -1;
+        }
+
+        private void nextMember() throws IOException {
+            long end = decoder.bitPosition() / 8;
+            decoder = null;
+
+            GzipInputStream.checkTrailer(in, crc, memberSize);
+            trailer = new Trailer(end, crc.getValue(), memberSize & 0xffffffffL);
+            crc.reset();
+            memberSize = 0;
+
+            // like gunzip, data following the last member that is not a GZIP header is ignored
+            int next = in.read();
+            if (next == -1) {
+                return;
+            }
+            in.unread(next);
+
+            GzipInputStream.Header header = GzipInputStream.readHeader(in);
+            if (header != null) {
+                this.startMember((end + 8 + header.length()) * 8);
+            }
+        }
+
+        private void startMember(long bitPosition) throws IOException {
+            decoder = new DeflateDecoder(in, bitPosition, null);
+            if (checkpoints.isEmpty() || size - lastCheckpoint() >= spacing) {
+                checkpoints.add(new Checkpoint(size, bitPosition, new byte[0]));
+            }
+        }
+
+        private long lastCheckpoint() {
+            return checkpoints.getLast().offset();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Build a random access index of a GZIP file",
+    description = "Decompresses a GZIP file once, checking every member, and writes a checkpoint index to internal storage: every `spacing` bytes of output, the position of a deflate block along with the 32 KiB of data preceding it, like zlib's zran. For a compressed TAR, the index also records where each entry starts. Pass the index URI to `index` on `FileDecompress` to read a range with `offset`, or on `ArchiveDecompress` to extract `entries`: decompression then starts at the closest checkpoint instead of at the beginning of the file. The GZIP file itself is left untouched; an index is checked against the size and last trailer of the file it is used with."
+)
+@Plugin(
+    metrics = {
+        @Metric(name = "checkpoints", type = Counter.TYPE, description = "Number of checkpoints in the index"),
+        @Metric(name = "size", type = Counter.TYPE, description = "Decompressed size of the indexed file in bytes")
+    },
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: gzip_index
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: Large tar.gz delivery
+                    type: FILE
+
+                tasks:
+                  - id: index
+                    type: io.kestra.plugin.compress.GzipIndex
+                    from: "{{ inputs.file }}"
+
+                  - id: extract
+                    type: io.kestra.plugin.compress.ArchiveDecompress
+                    from: "{{ inputs.file }}"
+                    algorithm: TAR
+                    compression: GZIP
+                    index: "{{ outputs.index.uri }}"
+                    entries:
+                      - data/2024/report.csv
+                """
+        )
+    }
+)
+public class GzipIndex extends Task implements RunnableTask<GzipIndex.Output> {
+    @Schema(
+        title = "Internal storage URI of the GZIP file",
+        description = "A `.gz` or `.tar.gz` file, single or multi-member."
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Decompressed bytes between two checkpoints",
+        description = "Reading from an offset decompresses up to this much data before reaching it. Each checkpoint stores up to 32 KiB of compressed window, so smaller values make faster random access and larger indexes."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Long> spacing = Property.ofValue(4L * 1024 * 1024);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        long rSpacing = runContext.render(this.spacing).as(Long.class).orElseThrow();
+        if (rSpacing <= 0) {
+            throw new IllegalArgumentException("spacing must be > 0, got " + rSpacing);
+        }
+
+        GzipCheckpointIndex index;
+        try (InputStream inputStream = new BufferedInputStream(runContext.storage().getFile(rFrom))) {
+            index = GzipCheckpointIndex.build(inputStream, rSpacing);
+        }
+
+        Path tempFile = runContext.workingDir().createTempFile(".gzi");
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+            index.write(outputStream);
+        }
+
+        runContext.metric(Counter.of("checkpoints", index.checkpoints().size()));
+        runContext.metric(Counter.of("size", index.size()));
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile.toFile()))
+            .size(index.size())
+            .checkpoints(index.checkpoints().size())
+            .entries(index.entries().size())
+            .build();
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the index on Kestra's internal storage"
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Decompressed size of the GZIP file in bytes"
+        )
+        private final Long size;
+
+        @Schema(
+            title = "Number of checkpoints in the index"
+        )
+        private final Integer checkpoints;
+
+        @Schema(
+            title = "Number of TAR entries in the index",
+            description = "0 when the decompressed content is not a TAR archive."
+        )
+        private final Integer entries;
+    }
+}
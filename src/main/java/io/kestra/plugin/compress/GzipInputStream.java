@@ -0,0 +1,153 @@
+package io.kestra.plugin.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * GZIP reader on a pooled {@link Inflater}. Concatenated members, as written by pigz, bgzip or appending log
+ * shippers, are decoded one after the other like {@code gunzip} does, each one checked against its CRC32 and size.
+ * Data following the last member that is not a GZIP header is ignored.
+ */
+final class GzipInputStream extends PooledInflaterInputStream {
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    private final CRC32 crc = new CRC32();
+
+    GzipInputStream(InputStream in) throws IOException {
+        super(in, true);
+        if (readHeader(this.in) == null) {
+            throw new IOException("Input is not in the .gz format");
+        }
+    }
+
+    /**
+     * Member header, from the magic number to the start of the deflate data.
+     *
+     * @param length the header length in bytes
+     * @param memberSize the whole member size from a BGZF extra field, or {@code -1} if there is none
+     */
+    record Header(int length, int memberSize) {
+    }
+
+    /**
+     * Read a member header.
+     *
+     * @return the header, or {@code null} if the input does not start with a GZIP header
+     * @throws EOFException if the header is truncated
+     */
+    static Header readHeader(InputStream in) throws IOException {
+        if (in.read() != 0x1f || in.read() != 0x8b || in.read() != Deflater.DEFLATED) {
+            return null;
+        }
+
+        int flags = readByte(in);
+        if ((flags & 0xe0) != 0) {
+            return null;
+        }
+
+        // modification time, extra flags and operating system
+        in.skipNBytes(6);
+        int length = 10;
+        int memberSize = -1;
+
+        if ((flags & FEXTRA) != 0) {
+            int extraLength = readShortLe(in);
+            length += 2 + extraLength;
+
+            // BGZF stores the member size minus one in a "BC" subfield
+            while (extraLength >= 4) {
+                int id1 = readByte(in);
+                int id2 = readByte(in);
+                int subfieldLength = readShortLe(in);
+                extraLength -= 4;
+                if (subfieldLength > extraLength) {
+                    break;
+                }
+
+                if (id1 == 'B' && id2 == 'C' && subfieldLength == 2) {
+                    memberSize = readShortLe(in) + 1;
+                } else {
+                    in.skipNBytes(subfieldLength);
+                }
+                extraLength -= subfieldLength;
+            }
+            in.skipNBytes(extraLength);
+        }
+        if ((flags & FNAME) != 0) {
+            length += skipZeroTerminated(in);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            length += skipZeroTerminated(in);
+        }
+        if ((flags & FHCRC) != 0) {
+            in.skipNBytes(2);
+            length += 2;
+        }
+
+        return new Header(length, memberSize);
+    }
+
+    /**
+     * Check a member trailer against the data decompressed from it.
+     */
+    static void checkTrailer(InputStream in, CRC32 crc, long size) throws IOException {
+        if (readIntLe(in) != crc.getValue()) {
+            throw new IOException("Gzip-compressed data is corrupt (CRC32 error)");
+        }
+        if (readIntLe(in) != (size & 0xffffffffL)) {
+            throw new IOException("Gzip-compressed data is corrupt (uncompressed size mismatch)");
+        }
+    }
+
+    @Override
+    protected void inflated(byte[] b, int off, int len) {
+        crc.update(b, off, len);
+    }
+
+    @Override
+    protected boolean endOfStream(Inflater inflater) throws IOException {
+        checkTrailer(in, crc, inflater.getBytesWritten());
+        crc.reset();
+
+        int b = in.read();
+        if (b == -1) {
+            return false;
+        }
+        in.unread(b);
+
+        return readHeader(in) != null;
+    }
+
+    private static int skipZeroTerminated(InputStream in) throws IOException {
+        int length = 1;
+        while (readByte(in) != 0) {
+            length++;
+        }
+
+        return length;
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b == -1) {
+            throw new EOFException("Unexpected end of .gz data");
+        }
+
+        return b;
+    }
+
+    private static int readShortLe(InputStream in) throws IOException {
+        return readByte(in) | readByte(in) << 8;
+    }
+
+    private static long readIntLe(InputStream in) throws IOException {
+        return (readByte(in) | readByte(in) << 8 | readByte(in) << 16 | (long) readByte(in) << 24) & 0xffffffffL;
+    }
+}
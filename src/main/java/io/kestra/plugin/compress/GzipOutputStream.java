@@ -0,0 +1,55 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Single threaded GZIP writer on a pooled {@link Deflater}, producing the same member as commons-compress.
+ */
+final class GzipOutputStream extends PooledDeflaterOutputStream {
+    private static final int OS_UNKNOWN = 255;
+
+    private final CRC32 crc = new CRC32();
+
+    GzipOutputStream(OutputStream out, int level) throws IOException {
+        super(out, level, true);
+        out.write(header(level));
+    }
+
+    static byte[] header(int level) {
+        int extraFlags = switch (level) {
+            case Deflater.BEST_COMPRESSION -> 2;
+            case Deflater.BEST_SPEED -> 4;
+            default -> 0;
+        };
+
+        return new byte[]{
+            0x1f, (byte) 0x8b, // magic
+            Deflater.DEFLATED, // compression method
+            0, // flags
+            0, 0, 0, 0, // modification time
+            (byte) extraFlags,
+            (byte) OS_UNKNOWN
+        };
+    }
+
+    static byte[] trailer(long crc, long size) {
+        return new byte[]{
+            (byte) crc, (byte) (crc >>> 8), (byte) (crc >>> 16), (byte) (crc >>> 24),
+            (byte) size, (byte) (size >>> 8), (byte) (size >>> 16), (byte) (size >>> 24)
+        };
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        super.write(b, off, len);
+        crc.update(b, off, len);
+    }
+
+    @Override
+    protected void writeTrailer(Deflater deflater) throws IOException {
+        out().write(trailer(crc.getValue(), deflater.getBytesRead()));
+    }
+}
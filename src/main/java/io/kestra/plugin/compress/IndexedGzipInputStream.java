@@ -0,0 +1,94 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Reads a GZIP file from an uncompressed offset using a {@link GzipCheckpointIndex}: the compressed input is skipped up
+ * to the closest checkpoint before the offset and decoding resumes there, so only the data between the checkpoint and
+ * the offset is decompressed and discarded. Members started before the checkpoint cannot be checked against their
+ * CRC32, the following ones are decoded like {@link GzipInputStream} does but without checks either.
+ */
+final class IndexedGzipInputStream extends CompressorInputStream {
+    private final PushbackInputStream in;
+    private DeflateDecoder decoder;
+
+    private IndexedGzipInputStream(PushbackInputStream in, GzipCheckpointIndex.Checkpoint checkpoint) throws IOException {
+        this.in = in;
+        this.decoder = new DeflateDecoder(in, checkpoint.bitPosition(), GzipCheckpointIndex.inflateWindow(checkpoint.window()));
+    }
+
+    /**
+     * @param compressed the whole GZIP file, from its first byte
+     */
+    static CompressorInputStream open(InputStream compressed, GzipCheckpointIndex index, long offset) throws IOException {
+        GzipCheckpointIndex.Checkpoint checkpoint = index.checkpoint(offset);
+
+        // storage streams seek rather than read when skipping
+        compressed.skipNBytes(checkpoint.bitPosition() / 8);
+
+        CompressorInputStream stream = new IndexedGzipInputStream(new PushbackInputStream(compressed, DeflateDecoder.PUSHBACK_SIZE), checkpoint);
+        try {
+            IOUtils.skipFully(stream, offset - checkpoint.offset());
+        } catch (IOException e) {
+            stream.close();
+            throw e;
+        }
+
+        return stream;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (decoder != null) {
+            int n = decoder.read(b, off, len);
+            if (n > 0) {
+                count(n);
+                return n;
+            }
+
+            if (n < 0) {
+                this.nextMember();
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void nextMember() throws IOException {
+        long end = decoder.bitPosition() / 8;
+        decoder = null;
+
+        in.skipNBytes(8);
+
+        int next = in.read();
+        if (next == -1) {
+            return;
+        }
+        in.unread(next);
+
+        GzipInputStream.Header header = GzipInputStream.readHeader(in);
+        if (header != null) {
+            decoder = new DeflateDecoder(in, (end + 8 + header.length()) * 8, null);
+        }
+    }
+}
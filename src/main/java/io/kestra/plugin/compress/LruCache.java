@@ -0,0 +1,59 @@
+package io.kestra.plugin.compress;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Worker-wide cache keeping at most {@code maxEntries}, or a maximum total weight, evicting the least recently used
+ * ones.
+ */
+final class LruCache<K, V> {
+    private final Map<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private long weight;
+
+    LruCache(int maxEntries) {
+        this(maxEntries, value -> 1);
+    }
+
+    /**
+     * Keep entries up to a total {@code maxWeight}, as given by {@code weigher}. Values heavier than {@code maxWeight}
+     * on their own are not kept at all.
+     */
+    LruCache(long maxWeight, ToLongFunction<V> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    synchronized V get(K key) {
+        return entries.get(key);
+    }
+
+    synchronized void put(K key, V value) {
+        long valueWeight = weigher.applyAsLong(value);
+        if (valueWeight > maxWeight) {
+            this.remove(key);
+            return;
+        }
+
+        V previous = entries.put(key, value);
+        weight += valueWeight - (previous == null ? 0 : weigher.applyAsLong(previous));
+
+        // the new value is the most recently used, it is the last one evicted
+        Iterator<V> eldest = entries.values().iterator();
+        while (weight > maxWeight) {
+            weight -= weigher.applyAsLong(eldest.next());
+            eldest.remove();
+        }
+    }
+
+    synchronized void remove(K key) {
+        V previous = entries.remove(key);
+        if (previous != null) {
+            weight -= weigher.applyAsLong(previous);
+        }
+    }
+}
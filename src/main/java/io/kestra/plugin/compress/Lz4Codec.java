@@ -0,0 +1,188 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.zip.Checksum;
+
+import org.apache.commons.codec.digest.XXHash32;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+import org.apache.commons.compress.compressors.lz77support.Parameters;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FrameOutputStream;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.StreamingXXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * LZ4 block codec used by the LZ4 frame streams, either commons-compress pure Java implementation or lz4-java, which
+ * runs the reference C implementation through JNI or a safe Java port. Both produce the same wire format.
+ */
+abstract class Lz4Codec {
+    static Lz4Codec of(AbstractTask.Lz4Backend backend, Parameters parameters, boolean highCompression) {
+        return switch (backend) {
+            case COMMONS -> new Commons(parameters);
+            case NATIVE -> new Lz4Java(Lz4Java.NATIVE_FACTORY, Lz4Java.NATIVE_HASH_FACTORY, highCompression);
+            case JAVA -> new Lz4Java(LZ4Factory.safeInstance(), XXHashFactory.safeInstance(), highCompression);
+        };
+    }
+
+    /**
+     * Compress {@code length} bytes of {@code data} into a raw LZ4 block.
+     */
+    abstract byte[] compress(byte[] data, int length) throws IOException;
+
+    /**
+     * Decompress a raw LZ4 block expected to hold at most {@code maxLength} bytes.
+     */
+    abstract byte[] decompress(byte[] block, int maxLength) throws IOException;
+
+    /**
+     * Streaming xxHash32 with seed 0, as used for the frame content checksum.
+     */
+    abstract Checksum contentHash();
+
+    /**
+     * Sequential LZ4 frame writer with independent blocks and a content checksum.
+     */
+    abstract CompressorOutputStream<OutputStream> frameOutputStream(OutputStream outputStream, FramedLZ4CompressorOutputStream.BlockSize blockSize) throws IOException;
+
+    private static final class Commons extends Lz4Codec {
+        private final Parameters parameters;
+
+        private Commons(Parameters parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        byte[] compress(byte[] data, int length) throws IOException {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 2 + 16);
+            try (BlockLZ4CompressorOutputStream lz4 = new BlockLZ4CompressorOutputStream(compressed, parameters)) {
+                lz4.write(data, 0, length);
+            }
+
+            return compressed.toByteArray();
+        }
+
+        @Override
+        byte[] decompress(byte[] block, int maxLength) throws IOException {
+            try (InputStream lz4 = new BlockLZ4CompressorInputStream(new ByteArrayInputStream(block))) {
+                byte[] data = lz4.readNBytes(maxLength + 1);
+                if (data.length > maxLength) {
+                    throw new IOException("LZ4 block decompresses to more than " + maxLength + " bytes");
+                }
+
+                return data;
+            }
+        }
+
+        @Override
+        Checksum contentHash() {
+            return new XXHash32();
+        }
+
+        @Override
+        CompressorOutputStream<OutputStream> frameOutputStream(OutputStream outputStream, FramedLZ4CompressorOutputStream.BlockSize blockSize) throws IOException {
+            return new FramedLZ4CompressorOutputStream(outputStream, new FramedLZ4CompressorOutputStream.Parameters(blockSize, parameters));
+        }
+    }
+
+    private static final class Lz4Java extends Lz4Codec {
+        private static final LZ4Factory NATIVE_FACTORY = nativeOrSafe();
+        private static final XXHashFactory NATIVE_HASH_FACTORY = NATIVE_FACTORY == LZ4Factory.safeInstance() ? XXHashFactory.safeInstance() : XXHashFactory.fastestInstance();
+
+        private final LZ4Compressor compressor;
+        private final LZ4SafeDecompressor decompressor;
+        private final XXHashFactory hashFactory;
+
+        private Lz4Java(LZ4Factory factory, XXHashFactory hashFactory, boolean highCompression) {
+            this.compressor = highCompression ? factory.highCompressor() : factory.fastCompressor();
+            this.decompressor = factory.safeDecompressor();
+            this.hashFactory = hashFactory;
+        }
+
+        private static LZ4Factory nativeOrSafe() {
+            try {
+                return LZ4Factory.nativeInstance();
+            } catch (Throwable e) {
+                // no native library for this platform
+                return LZ4Factory.safeInstance();
+            }
+        }
+
+        @Override
+        byte[] compress(byte[] data, int length) {
+            byte[] compressed = new byte[compressor.maxCompressedLength(length)];
+            int n = compressor.compress(data, 0, length, compressed, 0, compressed.length);
+
+            return Arrays.copyOf(compressed, n);
+        }
+
+        @Override
+        byte[] decompress(byte[] block, int maxLength) throws IOException {
+            byte[] data = new byte[maxLength];
+            try {
+                int n = decompressor.decompress(block, 0, block.length, data, 0, maxLength);
+                return n == maxLength ? data : Arrays.copyOf(data, n);
+            } catch (LZ4Exception e) {
+                throw new IOException("Invalid LZ4 block", e);
+            }
+        }
+
+        @Override
+        Checksum contentHash() {
+            // StreamingXXHash32.asChecksum() truncates the value to 28 bits
+            StreamingXXHash32 hash = hashFactory.newStreamingHash32(0);
+            return new Checksum() {
+                @Override
+                public void update(int b) {
+                    hash.update(new byte[]{(byte) b}, 0, 1);
+                }
+
+                @Override
+                public void update(byte[] b, int off, int len) {
+                    hash.update(b, off, len);
+                }
+
+                @Override
+                public long getValue() {
+                    return hash.getValue() & 0xFFFFFFFFL;
+                }
+
+                @Override
+                public void reset() {
+                    hash.reset();
+                }
+            };
+        }
+
+        @Override
+        CompressorOutputStream<OutputStream> frameOutputStream(OutputStream outputStream, FramedLZ4CompressorOutputStream.BlockSize blockSize) throws IOException {
+            LZ4FrameOutputStream.BLOCKSIZE size = switch (blockSize) {
+                case K64 -> LZ4FrameOutputStream.BLOCKSIZE.SIZE_64KB;
+                case K256 -> LZ4FrameOutputStream.BLOCKSIZE.SIZE_256KB;
+                case M1 -> LZ4FrameOutputStream.BLOCKSIZE.SIZE_1MB;
+                case M4 -> LZ4FrameOutputStream.BLOCKSIZE.SIZE_4MB;
+            };
+
+            return new WrappedCompressorOutputStream(new LZ4FrameOutputStream(
+                outputStream,
+                size,
+                -1L,
+                compressor,
+                hashFactory.hash32(),
+                LZ4FrameOutputStream.FLG.Bits.BLOCK_INDEPENDENCE,
+                LZ4FrameOutputStream.FLG.Bits.CONTENT_CHECKSUM
+            ));
+        }
+    }
+}
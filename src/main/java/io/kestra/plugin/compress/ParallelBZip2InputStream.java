@@ -0,0 +1,313 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorInputStream;
+
+/**
+ * lbzip2-style BZIP2 reader for local files: the file is scanned for the bit aligned block and end of stream magic
+ * numbers, and every block is decoded concurrently as a standalone single-block stream, then returned in order.
+ * <p>
+ * The 48-bit magic numbers may also appear by chance inside compressed data. A block cut at such a false boundary
+ * fails its CRC check, it is then merged with the following block and decoded again.
+ */
+final class ParallelBZip2InputStream extends CompressorInputStream {
+    private static final long BLOCK_MAGIC = 0x314159265359L;
+    private static final long EOS_MAGIC = 0x177245385090L;
+    private static final long MAGIC_MASK = (1L << 48) - 1;
+    private static final int MAX_MERGES = 4;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FileChannel channel;
+    private final InputStream scanner;
+    private final long fileBits;
+    private final ExecutorService executor;
+    private final Deque<Segment> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    private final Deque<Boundary> boundaries = new ArrayDeque<>();
+    private long window;
+    private long scannedBits;
+    private long blockStart = -1;
+    private boolean scanned;
+
+    private byte[] current;
+    private int position;
+
+    ParallelBZip2InputStream(Path file, int threads) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.scanner = new BufferedInputStream(Files.newInputStream(file), 64 * 1024);
+        this.fileBits = channel.size() * 8;
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (current == null || position == current.length) {
+            fill();
+            if (pending.isEmpty()) {
+                return -1;
+            }
+
+            current = take();
+            position = 0;
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        count(n);
+
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            scanner.close();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void fill() throws IOException {
+        while (pending.size() < maxPending) {
+            Segment segment = nextSegment();
+            if (segment == null) {
+                return;
+            }
+
+            segment.result = executor.submit(() -> decode(segment.start, segment.end));
+            pending.add(segment);
+        }
+    }
+
+    private byte[] take() throws IOException {
+        Segment segment = pending.removeFirst();
+        try {
+            return get(segment.result);
+        } catch (IOException e) {
+            // probably cut at a magic number found inside compressed data, retry with the following blocks
+            long end = segment.end;
+            for (int i = 0; i < MAX_MERGES; i++) {
+                Segment next = pending.isEmpty() ? nextSegment() : pending.removeFirst();
+                if (next == null) {
+                    break;
+                }
+                if (next.result != null) {
+                    next.result.cancel(true);
+                }
+
+                end = next.end;
+                try {
+                    return decode(segment.start, end);
+                } catch (IOException ignored) {
+                    // keep merging
+                }
+            }
+
+            throw e;
+        }
+    }
+
+    private static byte[] get(Future<byte[]> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to decompress block", e.getCause());
+        }
+    }
+
+    /**
+     * Decode the bits {@code [start, end)} of the file, a block starting with its magic number, by wrapping it in a
+     * single-block stream.
+     */
+    private byte[] decode(long start, long end) throws IOException {
+        long firstByte = start >>> 3;
+        int length = (int) (((end + 7) >>> 3) - firstByte);
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, firstByte + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of BZIP2 file");
+            }
+        }
+        byte[] bytes = buffer.array();
+        int offset = (int) (start & 7);
+        long bits = end - start;
+        if (bits < 80) {
+            throw new IOException("Truncated BZIP2 block");
+        }
+
+        BitWriter stream = new BitWriter((int) (bits / 8) + 16);
+        // level 9 makes the decoder accept any block size
+        stream.write(32, 0x425a6839);
+        long copied = 0;
+        for (; copied + 8 <= bits; copied += 8) {
+            int i = (int) ((offset + copied) >>> 3);
+            stream.write(8, offset == 0 ? bytes[i] : (bytes[i] & 0xff) << offset | (bytes[i + 1] & 0xff) >>> (8 - offset));
+        }
+        if (copied < bits) {
+            int remaining = (int) (bits - copied);
+            stream.write(remaining, readBits(bytes, offset + copied, remaining));
+        }
+        stream.write(48, EOS_MAGIC);
+        // with a single block, the stream CRC is the block CRC stored right after the block magic
+        stream.write(32, readBits(bytes, offset + 48, 32));
+
+        try (InputStream inputStream = new BZip2CompressorInputStream(new ByteArrayInputStream(stream.toByteArray()))) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    private static long readBits(byte[] bytes, long bitOffset, int count) {
+        long value = 0;
+        for (int i = 0; i < count; i++) {
+            long bit = bitOffset + i;
+            value = value << 1 | (bytes[(int) (bit >>> 3)] >>> (7 - (bit & 7))) & 1;
+        }
+
+        return value;
+    }
+
+    /**
+     * Next block, from its magic number to the following block or end of stream magic, or {@code null} at the end of
+     * the file.
+     */
+    private Segment nextSegment() throws IOException {
+        while (true) {
+            Boundary boundary = nextBoundary();
+            if (boundary == null) {
+                if (blockStart < 0) {
+                    return null;
+                }
+
+                // truncated stream, let the decoder report it
+                Segment segment = new Segment(blockStart, fileBits);
+                blockStart = -1;
+                return segment;
+            }
+
+            Segment segment = blockStart >= 0 ? new Segment(blockStart, boundary.position) : null;
+            blockStart = boundary.block ? boundary.position : -1;
+            if (segment != null) {
+                return segment;
+            }
+        }
+    }
+
+    private Boundary nextBoundary() throws IOException {
+        while (boundaries.isEmpty()) {
+            if (scanned) {
+                return null;
+            }
+
+            int b = scanner.read();
+            if (b == -1) {
+                scanned = true;
+                return null;
+            }
+
+            window = window << 8 | b;
+            scannedBits += 8;
+
+            // check every magic number ending within this byte, from the earliest one
+            for (int shift = 7; shift >= 0; shift--) {
+                long position = scannedBits - shift - 48;
+                if (position < 0) {
+                    continue;
+                }
+
+                long candidate = (window >>> shift) & MAGIC_MASK;
+                if (candidate == BLOCK_MAGIC) {
+                    boundaries.add(new Boundary(position, true));
+                } else if (candidate == EOS_MAGIC) {
+                    boundaries.add(new Boundary(position, false));
+                }
+            }
+        }
+
+        return boundaries.removeFirst();
+    }
+
+    private record Boundary(long position, boolean block) {
+    }
+
+    private static final class Segment {
+        private final long start;
+        private final long end;
+        private Future<byte[]> result;
+
+        private Segment(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class BitWriter {
+        private final ByteArrayOutputStream out;
+        private long buffer;
+        private int bits;
+
+        private BitWriter(int size) {
+            this.out = new ByteArrayOutputStream(size);
+        }
+
+        private void write(int count, long value) {
+            buffer = buffer << count | (value & ((1L << count) - 1));
+            bits += count;
+            while (bits >= 8) {
+                out.write((int) (buffer >>> (bits - 8)));
+                bits -= 8;
+            }
+        }
+
+        private byte[] toByteArray() {
+            if (bits > 0) {
+                write(8 - bits, 0);
+            }
+
+            return out.toByteArray();
+        }
+    }
+}
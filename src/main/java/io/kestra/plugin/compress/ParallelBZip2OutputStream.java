@@ -0,0 +1,52 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+
+import org.apache.commons.compress.compressors.bzip2.BZip2CompressorOutputStream;
+
+/**
+ * pbzip2-style BZIP2 writer: each chunk of one block worth of input is compressed concurrently into its own BZIP2
+ * stream, and the streams are concatenated. bzip2, pbzip2, lbzip2 and {@link ParallelBZip2InputStream} all read
+ * concatenated streams as a single file.
+ */
+final class ParallelBZip2OutputStream extends ParallelCompressorOutputStream {
+    private static final int BLOCK_UNIT = 100_000;
+
+    private final int blockSize;
+    private boolean written;
+
+    ParallelBZip2OutputStream(OutputStream out, int threads, int chunkSize, int blockSize) {
+        super(out, threads, chunkSize > 0 ? chunkSize : blockSize * BLOCK_UNIT);
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    protected Callable<byte[]> chunk(byte[] chunk, int length, boolean last) {
+        if (length == 0 && written) {
+            // no need for a trailing empty stream, an empty input still gets one to stay a valid file
+            return () -> new byte[0];
+        }
+        written = true;
+
+        return () -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 4, 64));
+            try (BZip2CompressorOutputStream bzip2 = new BZip2CompressorOutputStream(compressed, blockSize)) {
+                bzip2.write(chunk, 0, length);
+            }
+
+            return compressed.toByteArray();
+        };
+    }
+
+    @Override
+    protected void writeHeader() {
+        // every chunk is a complete stream
+    }
+
+    @Override
+    protected void writeTrailer() {
+        // every chunk is a complete stream
+    }
+}
@@ -0,0 +1,154 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+/**
+ * Splits the written data into fixed size chunks, compresses them on a thread pool and writes the
+ * compressed chunks to the underlying stream in their original order.
+ * <p>
+ * Subclasses create the compression job for each chunk on the writing thread (so any running state,
+ * like checksums, sees the chunks in order) and frame the output with {@link #writeHeader()} and
+ * {@link #writeTrailer()}.
+ */
+abstract class ParallelCompressorOutputStream extends CompressorOutputStream<OutputStream> {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int maxPending;
+    private final int chunkSize;
+
+    private byte[] buffer;
+    private int length;
+    private boolean started;
+
+    ParallelCompressorOutputStream(OutputStream out, int threads, int chunkSize) {
+        super(out);
+        this.chunkSize = chunkSize;
+        this.buffer = new byte[chunkSize];
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "compress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the job compressing one chunk. Called on the writing thread, in chunk order.
+     *
+     * @param chunk the chunk data, owned by the job from now on
+     * @param length the number of valid bytes in {@code chunk}
+     * @param last whether this is the final chunk of the stream, it may be empty
+     */
+    protected abstract Callable<byte[]> chunk(byte[] chunk, int length, boolean last);
+
+    protected abstract void writeHeader() throws IOException;
+
+    protected abstract void writeTrailer() throws IOException;
+
+    protected void writeChunk(byte[] compressed) throws IOException {
+        out().write(compressed);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        if (isFinished()) {
+            throw new IOException("Stream already finished");
+        }
+
+        while (len > 0) {
+            int n = Math.min(len, chunkSize - length);
+            System.arraycopy(b, off, buffer, length, n);
+            length += n;
+            off += n;
+            len -= n;
+
+            if (length == chunkSize) {
+                submit(false);
+            }
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (isFinished()) {
+            return;
+        }
+        super.finish();
+
+        try {
+            submit(true);
+            while (!pending.isEmpty()) {
+                drain();
+            }
+            ensureStarted();
+            writeTrailer();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            executor.shutdownNow();
+            super.close();
+        }
+    }
+
+    private void submit(boolean last) throws IOException {
+        pending.add(executor.submit(chunk(buffer, length, last)));
+        buffer = last ? null : new byte[chunkSize];
+        length = 0;
+
+        while (pending.size() > maxPending) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        byte[] compressed;
+        try {
+            compressed = pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to compress chunk", e.getCause());
+        }
+
+        ensureStarted();
+        writeChunk(compressed);
+    }
+
+    private void ensureStarted() throws IOException {
+        if (!started) {
+            started = true;
+            writeHeader();
+        }
+    }
+}
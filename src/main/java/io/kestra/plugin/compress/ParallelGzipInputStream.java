@@ -0,0 +1,451 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+
+/**
+ * Multi-member GZIP reader for local files, inflating members concurrently and returning them in order.
+ * <p>
+ * Members are located from the BGZF block size when the header has one, and otherwise by scanning the file for GZIP
+ * headers. A header found by scanning may also be a chance match inside compressed data: members are accepted in
+ * file order, each one starting exactly where the previous one ended, and the candidates in between are dropped.
+ * Without a BGZF size, the scan only looks for one candidate past the member being decoded, and only once the first
+ * member was small enough to be buffered: members too large to be buffered are streamed on the reading thread, so a
+ * single-member file is read at sequential speed, without a scan.
+ */
+final class ParallelGzipInputStream extends CompressorInputStream {
+    /**
+     * Uncompressed bytes a worker buffers per member before handing the rest over to be streamed.
+     */
+    static final int MAX_BUFFERED_MEMBER = 8 * 1024 * 1024;
+
+    private static final int SCAN_SIZE = 1024 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private final ExecutorService executor;
+    private final Deque<Candidate> pending = new ArrayDeque<>();
+    private final int maxPending;
+    private final CodecPools.Pool<Inflater> inflaters = CodecPools.inflaters(true);
+
+    private long scanPosition;
+    private long nextMember = -1;
+    private long expected;
+    private boolean first = true;
+    private boolean scan;
+
+    private byte[] current;
+    private int position;
+    private MemberDecoder streaming;
+
+    ParallelGzipInputStream(Path file, int threads) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.fileSize = channel.size();
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (GzipInputStream.readHeader(new ChannelInputStream(0)) == null) {
+            this.close();
+            throw new IOException("Input is not in the .gz format");
+        }
+        this.nextMember = 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (true) {
+            if (current != null && position < current.length) {
+                int n = Math.min(len, current.length - position);
+                System.arraycopy(current, position, b, off, n);
+                position += n;
+                count(n);
+
+                return n;
+            }
+
+            if (streaming != null) {
+                int n = streaming.read(b, off, len);
+                if (n > 0) {
+                    count(n);
+                    return n;
+                }
+
+                this.ended(streaming.end);
+                streaming.close();
+                streaming = null;
+                continue;
+            }
+
+            Member member = nextMember();
+            if (member == null) {
+                return -1;
+            }
+
+            current = member.data;
+            position = 0;
+            if (first) {
+                scan = member.decoder.end >= 0;
+                first = false;
+            }
+
+            if (member.decoder.end < 0) {
+                streaming = member.decoder;
+            } else {
+                this.ended(member.decoder.end);
+                member.decoder.close();
+
+                // inflate the next member while this one is read
+                this.fill();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        while (!pending.isEmpty()) {
+            pending.removeFirst().discard();
+        }
+        executor.shutdownNow();
+        try {
+            if (streaming != null) {
+                streaming.close();
+                streaming = null;
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Move past a member ending at {@code end}: the next one starts right there, there is no need to scan for it.
+     */
+    private void ended(long end) {
+        expected = end;
+        if (expected < fileSize && pending.stream().noneMatch(candidate -> candidate.start == end)) {
+            nextMember = end;
+        }
+    }
+
+    /**
+     * The member starting at {@link #expected}, or {@code null} at the end of the data.
+     */
+    private Member nextMember() throws IOException {
+        while (true) {
+            fill();
+
+            // candidates inside the previous member were chance matches
+            while (!pending.isEmpty() && pending.peekFirst().start < expected) {
+                pending.removeFirst().discard();
+            }
+
+            if (!pending.isEmpty() && pending.peekFirst().start == expected) {
+                return get(pending.removeFirst().result);
+            }
+
+            if (expected >= fileSize) {
+                return null;
+            }
+
+            Candidate next = pending.peekFirst();
+            if (next == null || next.start > expected) {
+                // not found by the scan, e.g. after a false BGZF size: restart from here if this is a member
+                if (GzipInputStream.readHeader(new ChannelInputStream(expected)) == null) {
+                    return null;
+                }
+
+                while (!pending.isEmpty()) {
+                    pending.removeFirst().discard();
+                }
+                nextMember = expected;
+            }
+        }
+    }
+
+    private void fill() throws IOException {
+        // a streamed member is inflated on this thread, nothing is decoded ahead of it
+        while (streaming == null && pending.size() < maxPending) {
+            long start = nextCandidate();
+            if (start < 0) {
+                return;
+            }
+
+            Candidate candidate = new Candidate(start);
+            candidate.result = executor.submit(() -> decode(candidate));
+            pending.add(candidate);
+        }
+    }
+
+    private Member decode(Candidate candidate) throws IOException {
+        if (candidate.discarded) {
+            return null;
+        }
+
+        MemberDecoder decoder = new MemberDecoder(candidate.start);
+        try {
+            ByteArrayOutputStream data = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while (data.size() < MAX_BUFFERED_MEMBER && (n = decoder.read(buffer, 0, buffer.length)) > 0) {
+                data.write(buffer, 0, n);
+            }
+
+            return candidate.complete(new Member(data.toByteArray(), decoder));
+        } catch (IOException | RuntimeException e) {
+            decoder.close();
+            throw e;
+        }
+    }
+
+    private static Member get(Future<Member> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to decompress member", e.getCause());
+        }
+    }
+
+    /**
+     * Offset of the next possible member: straight from the BGZF size of the previous one or the end of the last one
+     * decoded when known, otherwise the next GZIP header found by scanning past the expected member. {@code -1} when
+     * there is nothing to scan for yet, or once the whole file is scanned.
+     */
+    private long nextCandidate() throws IOException {
+        if (nextMember >= 0) {
+            long candidate = nextMember;
+            nextMember = -1;
+            scanPosition = Math.max(scanPosition, candidate + 1);
+            if (candidate < fileSize && this.hop(candidate)) {
+                return candidate;
+            }
+        }
+
+        if (!scan || pending.stream().anyMatch(candidate -> candidate.start > expected)) {
+            return -1;
+        }
+
+        scanPosition = Math.max(scanPosition, expected + 1);
+        byte[] buffer = new byte[SCAN_SIZE];
+        while (scanPosition + 10 <= fileSize) {
+            int length = readFully(buffer, scanPosition, (int) Math.min(buffer.length, fileSize - scanPosition));
+            for (int i = 0; i + 3 < length; i++) {
+                if (buffer[i] == 0x1f && buffer[i + 1] == (byte) 0x8b && buffer[i + 2] == 8 && (buffer[i + 3] & 0xe0) == 0) {
+                    long candidate = scanPosition + i;
+                    scanPosition = candidate + 1;
+                    if (this.hop(candidate)) {
+                        return candidate;
+                    }
+                }
+            }
+
+            // keep the last bytes, a header may start there
+            scanPosition += Math.max(1, length - 3);
+        }
+
+        return -1;
+    }
+
+    /**
+     * Check the header at {@code candidate} and, for BGZF members, skip the scan to the following member.
+     *
+     * @return whether there is a plausible GZIP header at {@code candidate}
+     */
+    private boolean hop(long candidate) throws IOException {
+        GzipInputStream.Header header;
+        try {
+            header = GzipInputStream.readHeader(new ChannelInputStream(candidate));
+        } catch (EOFException e) {
+            return false;
+        }
+
+        if (header != null && header.memberSize() > 0) {
+            nextMember = candidate + header.memberSize();
+        }
+
+        return header != null;
+    }
+
+    private int readFully(byte[] bytes, long offset, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        return buffer.position();
+    }
+
+    /**
+     * A member being decoded. Its decoder goes back to the pool whoever finishes last: {@link #discard} when the
+     * decode is over, the worker otherwise.
+     */
+    private static final class Candidate {
+        private final long start;
+        private Future<Member> result;
+        private volatile boolean discarded;
+        private Member member;
+
+        private Candidate(long start) {
+            this.start = start;
+        }
+
+        private synchronized Member complete(Member member) {
+            if (discarded) {
+                member.decoder.close();
+                return null;
+            }
+
+            this.member = member;
+            return member;
+        }
+
+        private synchronized void discard() {
+            discarded = true;
+            result.cancel(false);
+            if (member != null) {
+                member.decoder.close();
+                member = null;
+            }
+        }
+    }
+
+    private record Member(byte[] data, MemberDecoder decoder) {
+    }
+
+    /**
+     * Inflates one member read with positional reads, {@link #end} is set once its trailer is checked.
+     */
+    private final class MemberDecoder {
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[64 * 1024];
+        private Inflater inflater;
+        private long input;
+        private long end = -1;
+
+        private MemberDecoder(long start) throws IOException {
+            ChannelInputStream header = new ChannelInputStream(start);
+            if (GzipInputStream.readHeader(header) == null) {
+                throw new IOException("Invalid GZIP member header at offset " + start);
+            }
+            this.input = header.position;
+            this.inflater = inflaters.acquire();
+        }
+
+        private int read(byte[] b, int off, int len) throws IOException {
+            if (end >= 0) {
+                return -1;
+            }
+
+            while (true) {
+                int n;
+                try {
+                    n = inflater.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new IOException("Invalid deflate data: " + e.getMessage(), e);
+                }
+
+                if (n > 0) {
+                    crc.update(b, off, n);
+                    return n;
+                }
+
+                if (inflater.finished()) {
+                    long trailer = input - inflater.getRemaining();
+                    GzipInputStream.checkTrailer(new ChannelInputStream(trailer), crc, inflater.getBytesWritten());
+                    end = trailer + 8;
+
+                    return -1;
+                } else if (inflater.needsDictionary()) {
+                    throw new IOException("Deflate data needs a preset dictionary");
+                } else if (inflater.needsInput()) {
+                    int length = input < fileSize ? readFully(buffer, input, (int) Math.min(buffer.length, fileSize - input)) : 0;
+                    if (length <= 0) {
+                        throw new EOFException("Unexpected end of GZIP member");
+                    }
+                    input += length;
+                    inflater.setInput(buffer, 0, length);
+                }
+            }
+        }
+
+        private void close() {
+            if (inflater != null) {
+                inflaters.release(inflater);
+                inflater = null;
+            }
+        }
+    }
+
+    /**
+     * Sequential reads from a file offset, for headers and trailers.
+     */
+    private final class ChannelInputStream extends InputStream {
+        private final ByteBuffer single = ByteBuffer.allocate(1);
+        private long position;
+
+        private ChannelInputStream(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            single.clear();
+            if (channel.read(single, position) <= 0) {
+                return -1;
+            }
+            position++;
+
+            return single.get(0) & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = channel.read(ByteBuffer.wrap(b, off, len), position);
+            if (n > 0) {
+                position += n;
+            }
+
+            return n;
+        }
+    }
+}
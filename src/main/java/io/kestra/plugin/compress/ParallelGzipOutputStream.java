@@ -0,0 +1,88 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * pigz-style GZIP writer: the input is cut into chunks that are deflated concurrently, each one primed with the
+ * last 32 KiB of the previous chunk as preset dictionary. Every chunk but the last ends on a byte aligned sync
+ * flush, so the compressed chunks concatenate into a single standard GZIP member readable by any decoder.
+ */
+final class ParallelGzipOutputStream extends ParallelCompressorOutputStream {
+    static final int DEFAULT_CHUNK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final int level;
+    private final CodecPools.Pool<Deflater> deflaters;
+    private final CRC32 crc = new CRC32();
+    private long size;
+
+    private byte[] previous;
+    private int previousLength;
+
+    ParallelGzipOutputStream(OutputStream out, int threads, int chunkSize, int level) {
+        super(out, threads, chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE);
+        this.level = level;
+        this.deflaters = CodecPools.deflaters(level, true);
+    }
+
+    @Override
+    protected Callable<byte[]> chunk(byte[] chunk, int length, boolean last) {
+        crc.update(chunk, 0, length);
+        size += length;
+
+        byte[] dictionary = previous;
+        int dictionaryLength = previousLength;
+        previous = chunk;
+        previousLength = length;
+
+        return () -> deflate(chunk, length, dictionary, dictionaryLength, last);
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        out().write(GzipOutputStream.header(level));
+    }
+
+    @Override
+    protected void writeTrailer() throws IOException {
+        out().write(GzipOutputStream.trailer(crc.getValue(), size));
+    }
+
+    private byte[] deflate(byte[] chunk, int length, byte[] dictionary, int dictionaryLength, boolean last) {
+        Deflater deflater = deflaters.acquire();
+        try {
+            if (dictionary != null) {
+                int n = Math.min(dictionaryLength, DICTIONARY_SIZE);
+                deflater.setDictionary(dictionary, dictionaryLength - n, n);
+            }
+            deflater.setInput(chunk, 0, length);
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 2, 64));
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    int n = deflater.deflate(buffer);
+                    compressed.write(buffer, 0, n);
+                }
+            } else {
+                // a sync flush consumes all input and pads to a byte boundary, so the next chunk can be appended as is
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+
+            return compressed.toByteArray();
+        } finally {
+            deflaters.release(deflater);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.Checksum;
+
+import org.apache.commons.codec.digest.XXHash32;
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.lz4.BlockLZ4CompressorInputStream;
+
+/**
+ * LZ4 frame reader decoding the blocks of block-independent frames concurrently, and returning them in order. With a
+ * single thread, blocks are decoded on the reading thread. Frames with dependent blocks are still supported but
+ * decoded sequentially by commons-compress, as each block needs the output of the previous one. Concatenated and skippable frames are handled like {@link org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorInputStream}.
+ */
+final class ParallelLZ4FrameInputStream extends CompressorInputStream {
+    private static final int MAGIC = 0x184D2204;
+    private static final int SKIPPABLE_MAGIC = 0x184D2A50;
+    private static final int SKIPPABLE_MAGIC_MASK = 0xFFFFFFF0;
+    private static final int VERSION_MASK = 0xC0;
+    private static final int VERSION = 0x40;
+    private static final int BLOCK_INDEPENDENCE = 0x20;
+    private static final int BLOCK_CHECKSUM = 0x10;
+    private static final int CONTENT_SIZE = 0x08;
+    private static final int CONTENT_CHECKSUM = 0x04;
+    private static final int DICTIONARY_ID = 0x01;
+    private static final int UNCOMPRESSED = 0x80000000;
+    private static final int WINDOW_SIZE = 64 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final InputStream in;
+    private final Lz4Codec codec;
+    private final ExecutorService executor;
+    private final Deque<Block> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    private boolean inFrame;
+    private boolean eof;
+    private boolean independent;
+    private boolean blockChecksum;
+    private boolean contentChecksum;
+    private int maxBlockSize;
+
+    private final Checksum contentHash;
+    private byte[] history;
+    private byte[] current;
+    private int position;
+
+    ParallelLZ4FrameInputStream(InputStream in, int threads, Lz4Codec codec) {
+        this.in = in;
+        this.codec = codec;
+        this.contentHash = codec.contentHash();
+        this.maxPending = Math.max(threads * 2, 1);
+        this.executor = threads <= 1 ? null : Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (current == null || position == current.length) {
+            while (pending.size() < maxPending && !eof) {
+                readBlock();
+            }
+            if (pending.isEmpty()) {
+                return -1;
+            }
+
+            current = take();
+            position = 0;
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        count(n);
+
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        in.close();
+    }
+
+    private void readBlock() throws IOException {
+        if (!inFrame) {
+            readFrameHeader();
+            return;
+        }
+
+        int header = readIntLe(true);
+        if (header == 0) {
+            Block end = new Block();
+            end.end = true;
+            end.contentChecksum = contentChecksum;
+            if (contentChecksum) {
+                end.checksum = readIntLe(true);
+            }
+            pending.add(end);
+            inFrame = false;
+            return;
+        }
+
+        int size = header & ~UNCOMPRESSED;
+        if (size > maxBlockSize) {
+            throw new IOException("LZ4 block of " + size + " bytes exceeds the frame block size of " + maxBlockSize + " bytes");
+        }
+
+        byte[] data = readFully(size);
+        if (blockChecksum) {
+            XXHash32 hash = new XXHash32();
+            hash.update(data, 0, data.length);
+            if (readIntLe(true) != (int) hash.getValue()) {
+                throw new IOException("LZ4 block checksum mismatch");
+            }
+        }
+
+        Block block = new Block();
+        block.contentChecksum = contentChecksum;
+        if ((header & UNCOMPRESSED) != 0) {
+            block.data = CompletableFuture.completedFuture(data);
+        } else if (independent) {
+            int maxLength = maxBlockSize;
+            block.data = executor == null
+                ? CompletableFuture.completedFuture(codec.decompress(data, maxLength))
+                : executor.submit(() -> codec.decompress(data, maxLength));
+        } else {
+            block.dependent = data;
+        }
+        pending.add(block);
+    }
+
+    private void readFrameHeader() throws IOException {
+        int magic = readIntLe(false);
+        if (eof) {
+            return;
+        }
+
+        if ((magic & SKIPPABLE_MAGIC_MASK) == SKIPPABLE_MAGIC) {
+            long size = readIntLe(true) & 0xFFFFFFFFL;
+            in.skipNBytes(size);
+            return;
+        }
+        if (magic != MAGIC) {
+            throw new IOException("Not a LZ4 frame stream");
+        }
+
+        byte[] descriptor = readFully(2);
+        int flags = descriptor[0] & 0xff;
+        if ((flags & VERSION_MASK) != VERSION) {
+            throw new IOException("Unsupported LZ4 frame version " + ((flags & VERSION_MASK) >> 6));
+        }
+        if ((flags & DICTIONARY_ID) != 0) {
+            throw new IOException("LZ4 frames with a dictionary ID are not supported");
+        }
+
+        XXHash32 headerHash = new XXHash32();
+        headerHash.update(descriptor, 0, 2);
+        if ((flags & CONTENT_SIZE) != 0) {
+            byte[] contentSize = readFully(8);
+            headerHash.update(contentSize, 0, 8);
+        }
+        if ((readFully(1)[0] & 0xff) != (int) (headerHash.getValue() >> 8 & 0xff)) {
+            throw new IOException("LZ4 frame header checksum mismatch");
+        }
+
+        independent = (flags & BLOCK_INDEPENDENCE) != 0;
+        blockChecksum = (flags & BLOCK_CHECKSUM) != 0;
+        contentChecksum = (flags & CONTENT_CHECKSUM) != 0;
+        maxBlockSize = 1 << (8 + 2 * ((descriptor[1] & 0x70) >> 4));
+        inFrame = true;
+    }
+
+    private byte[] take() throws IOException {
+        Block block = pending.removeFirst();
+        if (block.end) {
+            if (block.contentChecksum && block.checksum != (int) contentHash.getValue()) {
+                throw new IOException("LZ4 frame content checksum mismatch");
+            }
+            contentHash.reset();
+            history = null;
+
+            return new byte[0];
+        }
+
+        byte[] data;
+        if (block.dependent != null) {
+            data = decodeDependent(block.dependent, history);
+            history = window(history, data);
+        } else {
+            data = get(block.data);
+        }
+
+        if (block.contentChecksum) {
+            contentHash.update(data, 0, data.length);
+        }
+
+        return data;
+    }
+
+    private static byte[] window(byte[] history, byte[] data) {
+        if (data.length >= WINDOW_SIZE || history == null) {
+            return Arrays.copyOfRange(data, Math.max(0, data.length - WINDOW_SIZE), data.length);
+        }
+
+        int kept = Math.min(history.length, WINDOW_SIZE - data.length);
+        byte[] window = new byte[kept + data.length];
+        System.arraycopy(history, history.length - kept, window, 0, kept);
+        System.arraycopy(data, 0, window, kept, data.length);
+
+        return window;
+    }
+
+    private byte[] decodeDependent(byte[] compressed, byte[] history) throws IOException {
+        try (BlockLZ4CompressorInputStream lz4 = new BlockLZ4CompressorInputStream(new ByteArrayInputStream(compressed))) {
+            if (history != null) {
+                lz4.prefill(history);
+            }
+
+            byte[] data = lz4.readNBytes(maxBlockSize + 1);
+            if (data.length > maxBlockSize) {
+                throw new IOException("LZ4 block decompresses to more than " + maxBlockSize + " bytes");
+            }
+
+            return data;
+        }
+    }
+
+    private static byte[] get(Future<byte[]> result) throws IOException {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to decompress block", e.getCause());
+        }
+    }
+
+    private byte[] readFully(int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("Unexpected end of LZ4 frame");
+        }
+
+        return bytes;
+    }
+
+    private int readIntLe(boolean required) throws IOException {
+        byte[] bytes = in.readNBytes(4);
+        if (bytes.length == 0 && !required) {
+            eof = true;
+            return 0;
+        }
+        if (bytes.length != 4) {
+            throw new EOFException("Unexpected end of LZ4 frame");
+        }
+
+        return (bytes[0] & 0xff)
+            | (bytes[1] & 0xff) << 8
+            | (bytes[2] & 0xff) << 16
+            | (bytes[3] & 0xff) << 24;
+    }
+
+    private static final class Block {
+        private Future<byte[]> data;
+        private byte[] dependent;
+        private boolean end;
+        private boolean contentChecksum;
+        private int checksum;
+    }
+}
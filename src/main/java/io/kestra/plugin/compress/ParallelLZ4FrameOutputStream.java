@@ -0,0 +1,106 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.Checksum;
+
+import org.apache.commons.codec.digest.XXHash32;
+import org.apache.commons.compress.compressors.lz4.FramedLZ4CompressorOutputStream;
+
+/**
+ * LZ4 frame writer compressing independent blocks concurrently. The frame declares block independence and carries a
+ * content checksum, like {@link FramedLZ4CompressorOutputStream} does by default, so any LZ4 frame decoder reads it.
+ */
+final class ParallelLZ4FrameOutputStream extends ParallelCompressorOutputStream {
+    private static final int MAGIC = 0x184D2204;
+    private static final int VERSION = 0x40;
+    private static final int BLOCK_INDEPENDENCE = 0x20;
+    private static final int CONTENT_CHECKSUM = 0x04;
+    private static final int UNCOMPRESSED = 0x80000000;
+
+    private final int blockSizeIndex;
+    private final Lz4Codec codec;
+    private final Checksum contentHash;
+
+    ParallelLZ4FrameOutputStream(OutputStream out, int threads, FramedLZ4CompressorOutputStream.BlockSize blockSize, Lz4Codec codec) {
+        super(out, threads, blockSize(blockSize));
+        this.blockSizeIndex = switch (blockSize) {
+            case K64 -> 4;
+            case K256 -> 5;
+            case M1 -> 6;
+            case M4 -> 7;
+        };
+        this.codec = codec;
+        this.contentHash = codec.contentHash();
+    }
+
+    static int blockSize(FramedLZ4CompressorOutputStream.BlockSize blockSize) {
+        return switch (blockSize) {
+            case K64 -> 64 * 1024;
+            case K256 -> 256 * 1024;
+            case M1 -> 1024 * 1024;
+            case M4 -> 4 * 1024 * 1024;
+        };
+    }
+
+    @Override
+    protected Callable<byte[]> chunk(byte[] chunk, int length, boolean last) {
+        contentHash.update(chunk, 0, length);
+
+        return () -> {
+            if (length == 0) {
+                return new byte[0];
+            }
+
+            byte[] compressed = codec.compress(chunk, length);
+
+            byte[] block;
+            int header;
+            if (compressed.length < length) {
+                block = new byte[compressed.length + 4];
+                System.arraycopy(compressed, 0, block, 4, compressed.length);
+                header = compressed.length;
+            } else {
+                // incompressible, store the block as is
+                block = new byte[length + 4];
+                System.arraycopy(chunk, 0, block, 4, length);
+                header = length | UNCOMPRESSED;
+            }
+            writeIntLe(block, 0, header);
+
+            return block;
+        };
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        int flags = VERSION | BLOCK_INDEPENDENCE | CONTENT_CHECKSUM;
+        int descriptor = blockSizeIndex << 4;
+
+        XXHash32 headerHash = new XXHash32();
+        headerHash.update(flags);
+        headerHash.update(descriptor);
+
+        byte[] header = new byte[7];
+        writeIntLe(header, 0, MAGIC);
+        header[4] = (byte) flags;
+        header[5] = (byte) descriptor;
+        header[6] = (byte) (headerHash.getValue() >> 8);
+        out().write(header);
+    }
+
+    @Override
+    protected void writeTrailer() throws IOException {
+        byte[] trailer = new byte[8];
+        writeIntLe(trailer, 4, (int) contentHash.getValue());
+        out().write(trailer);
+    }
+
+    private static void writeIntLe(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >>> 8);
+        bytes[offset + 2] = (byte) (value >>> 16);
+        bytes[offset + 3] = (byte) (value >>> 24);
+    }
+}
@@ -0,0 +1,190 @@
+package io.kestra.plugin.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.tukaani.xz.SeekableFileInputStream;
+import org.tukaani.xz.SeekableXZInputStream;
+
+/**
+ * Decompresses the blocks of a local multi-block XZ file concurrently, using the stream index to locate them, and
+ * returns their content in order. Each worker thread reads through its own {@link SeekableXZInputStream}.
+ */
+final class ParallelXZInputStream extends CompressorInputStream {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Path file;
+    private final long[] blockSizes;
+    private final Queue<SeekableXZInputStream> readers = new ConcurrentLinkedQueue<>();
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int maxPending;
+
+    private int nextBlock;
+    private long skip;
+    private byte[] current;
+    private int position;
+
+    private ParallelXZInputStream(Path file, SeekableXZInputStream index, long offset, int threads) {
+        this.file = file;
+        this.blockSizes = new long[index.getBlockCount()];
+        for (int i = 0; i < blockSizes.length; i++) {
+            blockSizes[i] = index.getBlockSize(i);
+        }
+        this.readers.add(index);
+
+        if (offset < index.length()) {
+            this.nextBlock = index.getBlockNumber(offset);
+            this.skip = offset - index.getBlockPos(nextBlock);
+        } else {
+            this.nextBlock = blockSizes.length;
+        }
+
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        while (pending.size() < maxPending && nextBlock < blockSizes.length) {
+            submit();
+        }
+    }
+
+    /**
+     * Open a local XZ file positioned at the uncompressed {@code offset}, decoding blocks on {@code threads} threads
+     * when the file has several blocks of reasonable size, or seeking through a single {@link SeekableXZInputStream}
+     * otherwise.
+     */
+    static CompressorInputStream open(Path file, long offset, int threads) throws IOException {
+        SeekableXZInputStream xz = new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()), CodecPools.ARRAY_CACHE);
+        try {
+            int fitting = threads(threads, xz.getLargestBlockSize());
+            if (fitting > 1 && xz.getBlockCount() > 1) {
+                return new ParallelXZInputStream(file, xz, offset, fitting);
+            }
+
+            xz.seek(Math.min(offset, xz.length()));
+            return new WrappedCompressorInputStream(xz);
+        } catch (IOException | RuntimeException e) {
+            xz.close();
+            throw e;
+        }
+    }
+
+    /**
+     * As many of {@code threads} as fit in {@link CodecPools#PARALLEL_MEMORY_BUDGET}: blocks are decompressed in
+     * memory, up to twice as many pending as threads plus the one being read, and each decoder needs a dictionary up to
+     * the size of its block. Files with blocks too large for two threads are read sequentially.
+     */
+    static int threads(int threads, long largestBlockSize) {
+        int fitting = threads;
+        while (fitting > 1 && (3L * fitting + 1) * largestBlockSize > CodecPools.PARALLEL_MEMORY_BUDGET) {
+            fitting--;
+        }
+
+        return fitting;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (current == null || position == current.length) {
+            if (pending.isEmpty()) {
+                return -1;
+            }
+
+            current = take();
+            position = (int) skip;
+            skip = 0;
+
+            if (nextBlock < blockSizes.length) {
+                submit();
+            }
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        count(n);
+
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        SeekableXZInputStream reader;
+        while ((reader = readers.poll()) != null) {
+            reader.close();
+        }
+    }
+
+    private void submit() {
+        int block = nextBlock++;
+        pending.add(executor.submit(() -> decode(block)));
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            return pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to decompress block", e.getCause());
+        }
+    }
+
+    private byte[] decode(int block) throws IOException {
+        SeekableXZInputStream reader = readers.poll();
+        if (reader == null) {
+            reader = new SeekableXZInputStream(new SeekableFileInputStream(file.toFile()), CodecPools.ARRAY_CACHE);
+        }
+
+        try {
+            reader.seekToBlock(block);
+
+            byte[] data = new byte[(int) blockSizes[block]];
+            if (reader.readNBytes(data, 0, data.length) != data.length) {
+                throw new EOFException("Unexpected end of XZ block " + block);
+            }
+
+            return data;
+        } finally {
+            readers.add(reader);
+        }
+    }
+}
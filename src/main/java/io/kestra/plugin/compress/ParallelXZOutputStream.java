@@ -0,0 +1,184 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Callable;
+import java.util.zip.CRC32;
+
+import org.tukaani.xz.LZMA2Options;
+import org.tukaani.xz.XZ;
+import org.tukaani.xz.XZOutputStream;
+
+/**
+ * Multi-block XZ writer: each chunk is compressed concurrently into its own single-block XZ stream, then the blocks
+ * are stitched into one XZ stream with a regular index listing every block. The result is readable by any XZ decoder
+ * and lets {@link ParallelXZInputStream} decompress blocks concurrently or seek to any of them.
+ */
+final class ParallelXZOutputStream extends ParallelCompressorOutputStream {
+    private static final int MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int MAX_DEFAULT_CHUNK_SIZE = 256 * 1024 * 1024;
+    private static final int HEADER_SIZE = 12;
+    private static final int FOOTER_SIZE = 12;
+    private static final byte[] HEADER_MAGIC = {(byte) 0xfd, '7', 'z', 'X', 'Z', 0};
+    private static final byte[] FOOTER_MAGIC = {'Y', 'Z'};
+    private static final byte[] STREAM_FLAGS = {0, XZ.CHECK_CRC64};
+
+    private final LZMA2Options options;
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream();
+    private long recordCount;
+
+    ParallelXZOutputStream(OutputStream out, int threads, int chunkSize, LZMA2Options options) {
+        super(out, threads(threads, chunkSize(chunkSize, options), options), chunkSize(chunkSize, options));
+        this.options = options;
+    }
+
+    /**
+     * The given chunk size, or the same default as xz itself: three times the dictionary size, so each block still
+     * benefits from a full dictionary. The default is halved while a single thread would not fit in
+     * {@link CodecPools#PARALLEL_MEMORY_BUDGET}, down to the dictionary size: smaller chunks would cost ratio without
+     * saving the encoder memory.
+     */
+    static int chunkSize(int chunkSize, LZMA2Options options) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+
+        int minimum = Math.max(MIN_CHUNK_SIZE, options.getDictSize());
+        int size = (int) Math.min(MAX_DEFAULT_CHUNK_SIZE, Math.max(MIN_CHUNK_SIZE, 3L * options.getDictSize()));
+        while (size > minimum && memoryUsage(1, size, options) > CodecPools.PARALLEL_MEMORY_BUDGET) {
+            size = Math.max(minimum, size / 2);
+        }
+
+        return size;
+    }
+
+    /**
+     * As many of {@code threads} as fit in {@link CodecPools#PARALLEL_MEMORY_BUDGET}, at least one.
+     */
+    static int threads(int threads, int chunkSize, LZMA2Options options) {
+        int fitting = threads;
+        while (fitting > 1 && memoryUsage(fitting, chunkSize, options) > CodecPools.PARALLEL_MEMORY_BUDGET) {
+            fitting--;
+        }
+
+        return fitting;
+    }
+
+    /**
+     * Chunks pending or being filled, {@link ParallelCompressorOutputStream} keeps up to twice as many as threads plus
+     * two, each with its compressed copy in the worst case, and one encoder per thread.
+     */
+    private static long memoryUsage(int threads, int chunkSize, LZMA2Options options) {
+        return (2L * threads + 2) * 2 * chunkSize + threads * options.getEncoderMemoryUsage() * 1024L;
+    }
+
+    @Override
+    protected Callable<byte[]> chunk(byte[] chunk, int length, boolean last) {
+        return () -> {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(length / 2, 64));
+            try (XZOutputStream xz = new XZOutputStream(compressed, options, XZ.CHECK_CRC64, CodecPools.ARRAY_CACHE)) {
+                xz.write(chunk, 0, length);
+            }
+
+            return compressed.toByteArray();
+        };
+    }
+
+    @Override
+    protected void writeHeader() throws IOException {
+        OutputStream out = out();
+        out.write(HEADER_MAGIC);
+        out.write(STREAM_FLAGS);
+        writeIntLe(out, crc32(STREAM_FLAGS));
+    }
+
+    /**
+     * Unwraps the block of a single-block stream and records its sizes from the stream index.
+     */
+    @Override
+    protected void writeChunk(byte[] stream) throws IOException {
+        int backwardSize = (readIntLe(stream, stream.length - 8) + 1) * 4;
+        int indexStart = stream.length - FOOTER_SIZE - backwardSize;
+
+        int[] position = {indexStart + 1};
+        long count = readVarInt(stream, position);
+        if (count == 0) {
+            // empty chunk, the stream has no block
+            return;
+        }
+
+        long unpaddedSize = readVarInt(stream, position);
+        long uncompressedSize = readVarInt(stream, position);
+
+        out().write(stream, HEADER_SIZE, indexStart - HEADER_SIZE);
+        writeVarInt(records, unpaddedSize);
+        writeVarInt(records, uncompressedSize);
+        recordCount++;
+    }
+
+    @Override
+    protected void writeTrailer() throws IOException {
+        ByteArrayOutputStream index = new ByteArrayOutputStream(records.size() + 16);
+        index.write(0);
+        writeVarInt(index, recordCount);
+        records.writeTo(index);
+        while (index.size() % 4 != 0) {
+            index.write(0);
+        }
+        writeIntLe(index, crc32(index.toByteArray()));
+
+        OutputStream out = out();
+        index.writeTo(out);
+
+        ByteArrayOutputStream footer = new ByteArrayOutputStream(6);
+        writeIntLe(footer, index.size() / 4 - 1);
+        footer.write(STREAM_FLAGS);
+        byte[] checked = footer.toByteArray();
+
+        writeIntLe(out, crc32(checked));
+        out.write(checked);
+        out.write(FOOTER_MAGIC);
+    }
+
+    private static int crc32(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return (int) crc.getValue();
+    }
+
+    private static long readVarInt(byte[] bytes, int[] position) {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = bytes[position[0]++] & 0xff;
+            value |= (long) (b & 0x7f) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+
+        return value;
+    }
+
+    private static void writeVarInt(OutputStream out, long value) throws IOException {
+        while (value >= 0x80) {
+            out.write((int) (value | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static int readIntLe(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff)
+            | (bytes[offset + 1] & 0xff) << 8
+            | (bytes[offset + 2] & 0xff) << 16
+            | (bytes[offset + 3] & 0xff) << 24;
+    }
+
+    private static void writeIntLe(OutputStream out, int value) throws IOException {
+        out.write(value);
+        out.write(value >>> 8);
+        out.write(value >>> 16);
+        out.write(value >>> 24);
+    }
+}
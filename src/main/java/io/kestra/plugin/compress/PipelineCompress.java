@@ -0,0 +1,191 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.apache.commons.compress.archivers.ArchiveOutputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Data;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Archive, compress and encrypt files in one pass",
+    description = "Chains `ArchiveCompress`, `FileCompress` and `FileEncrypt` as stream stages: files are archived with `algorithm` (optional), compressed with `compression`, encrypted with `encryption` (optional), and the SHA-256 checksum of the result is computed on the way. Only the final file is written to internal storage, instead of one file per step. Use `PipelineDecompress` to reverse it."
+)
+@Plugin(
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: pipeline_compress
+                namespace: company.team
+
+                inputs:
+                  - id: file1
+                    type: FILE
+                  - id: file2
+                    type: FILE
+
+                tasks:
+                  - id: pipeline
+                    type: io.kestra.plugin.compress.PipelineCompress
+                    from:
+                      data/file1.csv: "{{ inputs.file1 }}"
+                      data/file2.csv: "{{ inputs.file2 }}"
+                    algorithm: TAR
+                    compression: ZSTD
+                    encryption:
+                      password: "{{ secret('ENCRYPTION_PASSWORD') }}"
+                      keyDerivation: ARGON2ID
+                """
+        )
+    }
+)
+public class PipelineCompress extends AbstractFile implements RunnableTask<PipelineCompress.Output>, Data.From {
+    @Schema(
+        title = "Files to process",
+        description = "With `algorithm`, a map of archive entry names to internal storage URIs, like `ArchiveCompress`. Without, the internal storage URI of a single file."
+    )
+    @NotNull
+    @PluginProperty(dynamic = true, internalStorageURI = true, group = "main")
+    private Object from;
+
+    @Schema(
+        title = "Archive container format",
+        description = "AR, CPIO, JAR, TAR or ZIP. Leave null to compress a single file."
+    )
+    @PluginProperty(group = "main")
+    private Property<AbstractArchive.ArchiveAlgorithm> algorithm;
+
+    @Schema(
+        title = "Encryption applied after compression",
+        description = "Same formats as `FileEncrypt`. Leave null to skip encryption."
+    )
+    @PluginProperty(group = "main")
+    private EncryptionOptions encryption;
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        var rAlgorithm = runContext.render(this.algorithm).as(AbstractArchive.ArchiveAlgorithm.class);
+        CompressionAlgorithm rCompression = runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+        CodecOptions options = this.codecOptions(runContext);
+
+        Path tempFile = runContext.workingDir().createTempFile();
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Digests inputDigests = this.digests(runContext);
+        Digests outputDigests = inputDigests.copy();
+        Map<String, Map<String, String>> entryDigests = new LinkedHashMap<>();
+
+        try (OutputStream outputStream = this.encryptingOutputStream(runContext, new DigestOutputStream(new BufferedOutputStream(outputDigests.outputStream(Files.newOutputStream(tempFile))), digest))) {
+            try (CompressorOutputStream compressorOutputStream = this.compressorOutputStream(rCompression, outputStream, options)) {
+                if (rAlgorithm.isPresent()) {
+                    try (ArchiveOutputStream archiveOutputStream = AbstractArchive.archiveOutputStream(compressorOutputStream, rAlgorithm.get())) {
+                        AbstractArchive.writeArchive(runContext, this.from, archiveOutputStream, inputDigests, entryDigests);
+                    }
+                } else {
+                    try (InputStream inputStream = inputDigests.inputStream(runContext.storage().getFile(URI.create(runContext.render(this.from.toString()))), false)) {
+                        inputStream.transferTo(compressorOutputStream);
+                    }
+                }
+            }
+        }
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile.toFile()))
+            .size(Files.size(tempFile))
+            .checksum(HexFormat.of().formatHex(digest.digest()))
+            .inputDigests(rAlgorithm.isPresent() ? null : inputDigests.values())
+            .outputDigests(outputDigests.values())
+            .entryDigests(rAlgorithm.isPresent() && !inputDigests.isEmpty() ? entryDigests : null)
+            .build();
+    }
+
+    private OutputStream encryptingOutputStream(RunContext runContext, OutputStream outputStream) throws Exception {
+        if (this.encryption == null) {
+            return outputStream;
+        }
+
+        var rKeyDerivation = runContext.render(this.encryption.getKeyDerivation()).as(AbstractFileCrypt.KeyDerivation.class).orElse(AbstractFileCrypt.DEFAULT_KEY_DERIVATION);
+        var kdfParams = new AbstractFileCrypt.KdfParams(
+            rKeyDerivation,
+            rKeyDerivation == AbstractFileCrypt.KeyDerivation.ARGON2ID
+                ? runContext.render(this.encryption.getArgon2TimeCost()).as(Integer.class).orElse(AbstractFileCrypt.DEFAULT_ARGON2_TIME_COST)
+                : runContext.render(this.encryption.getIterations()).as(Integer.class).orElse(AbstractFileCrypt.DEFAULT_ITERATIONS),
+            runContext.render(this.encryption.getMemory()).as(Integer.class).orElse(AbstractFileCrypt.DEFAULT_MEMORY),
+            runContext.render(this.encryption.getParallelism()).as(Integer.class).orElse(AbstractFileCrypt.DEFAULT_PARALLELISM)
+        );
+
+        final char[] passChars = runContext.render(this.encryption.getPassword()).as(String.class).orElseThrow().toCharArray();
+        try {
+            // compressors write in small pieces, each one would be a cipher update
+            return new BufferedOutputStream(FileEncrypt.encryptingOutputStream(outputStream, passChars, kdfParams), 64 * 1024);
+        } finally {
+            Arrays.fill(passChars, '\0');
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the output file on Kestra's internal storage"
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Size of the output file in bytes"
+        )
+        private final Long size;
+
+        @Schema(
+            title = "SHA-256 checksum of the output file, in hexadecimal",
+            description = "Pass it to `checksum` on `PipelineDecompress` to verify the file."
+        )
+        private final String checksum;
+
+        @Schema(
+            title = "Digests of the original file",
+            description = "Only set with `digests` and without `algorithm`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the output file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> outputDigests;
+
+        @Schema(
+            title = "Digests of each archived file, by entry name",
+            description = "Only set with `digests` and `algorithm`."
+        )
+        @PluginProperty(additionalProperties = Map.class)
+        private final Map<String, Map<String, String>> entryDigests;
+    }
+}
@@ -0,0 +1,208 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.compress.archivers.ArchiveInputStream;
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.CloseShieldInputStream;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Metric;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Decrypt, decompress and extract a file in one pass",
+    description = "Reverse of `PipelineCompress`, chaining `FileDecrypt`, `FileDecompress` and `ArchiveDecompress` as stream stages: the file is decrypted with `encryption` (optional), decompressed with `compression`, and its entries extracted with `algorithm` (optional). The SHA-256 checksum of the input is computed on the way and checked against `checksum` when set. Only the final files are written to internal storage."
+)
+@Plugin(
+    metrics = {
+        @Metric(name = "size", type = Counter.TYPE, description = "Total size of decompressed files in bytes"),
+        @Metric(name = "count", type = Counter.TYPE, description = "Number of files decompressed")
+    },
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: pipeline_decompress
+                namespace: company.team
+
+                inputs:
+                  - id: file
+                    description: Encrypted tar.zst
+                    type: FILE
+                  - id: checksum
+                    type: STRING
+
+                tasks:
+                  - id: pipeline
+                    type: io.kestra.plugin.compress.PipelineDecompress
+                    from: "{{ inputs.file }}"
+                    algorithm: TAR
+                    compression: ZSTD
+                    encryption:
+                      password: "{{ secret('ENCRYPTION_PASSWORD') }}"
+                    checksum: "{{ inputs.checksum }}"
+                """
+        )
+    }
+)
+public class PipelineDecompress extends AbstractFile implements RunnableTask<PipelineDecompress.Output> {
+    @Schema(
+        title = "Internal storage URI of the file"
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<String> from;
+
+    @Schema(
+        title = "Archive container format",
+        description = "Leave null to decompress a single file."
+    )
+    @PluginProperty(group = "main")
+    private Property<AbstractArchive.ArchiveAlgorithm> algorithm;
+
+    @Schema(
+        title = "Decryption applied before decompression",
+        description = "Same formats as `FileDecrypt`: only `password` is needed, and `iterations` for OpenSSL-compatible files. Leave null if the file is not encrypted."
+    )
+    @PluginProperty(group = "main")
+    private EncryptionOptions encryption;
+
+    @Schema(
+        title = "Expected SHA-256 checksum of the file, in hexadecimal",
+        description = "The task fails when the file does not match, like the `checksum` output of `PipelineCompress`. The whole file is read to compute it, even past the end of the compressed data."
+    )
+    @PluginProperty(group = "advanced")
+    private Property<String> checksum;
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        URI rFrom = URI.create(runContext.render(this.from).as(String.class).orElseThrow());
+        var rAlgorithm = runContext.render(this.algorithm).as(AbstractArchive.ArchiveAlgorithm.class);
+        CompressionAlgorithm rCompression = runContext.render(this.compression).as(CompressionAlgorithm.class).orElseThrow();
+        CodecOptions options = this.codecOptions(runContext);
+
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        Digests inputDigests = this.digests(runContext);
+        Digests outputDigests = inputDigests.copy();
+        Map<String, Map<String, String>> entryDigests = new LinkedHashMap<>();
+        Output.OutputBuilder output = Output.builder();
+
+        try (InputStream inputStream = this.decryptingInputStream(runContext, new DigestInputStream(new BufferedInputStream(inputDigests.inputStream(runContext.storage().getFile(rFrom), false)), digest))) {
+            // the input is read as a stream: the parallel decoders, which need a local copy of the file, do not apply
+            try (CompressorInputStream compressorInputStream = this.compressorInputStream(rCompression, new BufferedInputStream(CloseShieldInputStream.wrap(inputStream)), options)) {
+                if (rAlgorithm.isPresent()) {
+                    try (ArchiveInputStream archiveInputStream = AbstractArchive.archiveInputStream(compressorInputStream, rAlgorithm.get())) {
+                        output.files(AbstractArchive.readArchive(runContext, archiveInputStream, Set.of(), inputDigests, entryDigests));
+                        output.entryDigests(inputDigests.isEmpty() ? null : entryDigests);
+                    }
+                } else {
+                    Path tempFile = runContext.workingDir().createTempFile();
+                    long size = Files.copy(outputDigests.inputStream(compressorInputStream, false), tempFile, StandardCopyOption.REPLACE_EXISTING);
+                    runContext.metric(Counter.of("size", size));
+                    runContext.metric(Counter.of("count", 1));
+                    output.uri(runContext.storage().putFile(tempFile.toFile()));
+                    output.outputDigests(outputDigests.values());
+                }
+            }
+
+            // read up to the end, so that the checksum and the GCM tag cover the whole file
+            IOUtils.consume(inputStream);
+        }
+
+        String actual = HexFormat.of().formatHex(digest.digest());
+        var rChecksum = runContext.render(this.checksum).as(String.class);
+        if (rChecksum.isPresent() && !rChecksum.get().trim().equalsIgnoreCase(actual)) {
+            throw new IOException("Checksum mismatch: expected " + rChecksum.get().trim() + ", got " + actual);
+        }
+
+        return output
+            .checksum(actual)
+            .inputDigests(inputDigests.values())
+            .build();
+    }
+
+    private InputStream decryptingInputStream(RunContext runContext, InputStream inputStream) throws Exception {
+        if (this.encryption == null) {
+            return inputStream;
+        }
+
+        final int rIterations = runContext.render(this.encryption.getIterations()).as(Integer.class).orElse(AbstractFileCrypt.DEFAULT_ITERATIONS);
+        final char[] passChars = runContext.render(this.encryption.getPassword()).as(String.class).orElseThrow().toCharArray();
+        try {
+            return FileDecrypt.decryptingInputStream(inputStream, passChars, rIterations);
+        } finally {
+            Arrays.fill(passChars, '\0');
+        }
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the decompressed file on Kestra's internal storage",
+            description = "Only set without `algorithm`."
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "URIs of the extracted files on Kestra's internal storage",
+            description = "Only set with `algorithm`."
+        )
+        @PluginProperty(additionalProperties = URI.class)
+        private final Map<String, URI> files;
+
+        @Schema(
+            title = "SHA-256 checksum of the input file, in hexadecimal"
+        )
+        private final String checksum;
+
+        @Schema(
+            title = "Digests of the input file",
+            description = "Only set with `digests`."
+        )
+        private final Map<String, String> inputDigests;
+
+        @Schema(
+            title = "Digests of the decompressed file",
+            description = "Only set with `digests` and without `algorithm`."
+        )
+        private final Map<String, String> outputDigests;
+
+        @Schema(
+            title = "Digests of each extracted file, by entry name",
+            description = "Only set with `digests` and `algorithm`."
+        )
+        @PluginProperty(additionalProperties = Map.class)
+        private final Map<String, Map<String, String>> entryDigests;
+    }
+}
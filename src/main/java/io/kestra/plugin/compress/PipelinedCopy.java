@@ -0,0 +1,131 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copies a stream to another with reading and writing on two threads, so a decoder and an encoder chained by the
+ * copy run concurrently instead of taking turns. Chunks are handed over through a small bounded queue and recycled.
+ */
+final class PipelinedCopy {
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final int QUEUED_CHUNKS = 4;
+    private static final byte[] END = new byte[0];
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private PipelinedCopy() {
+    }
+
+    /**
+     * @return the number of bytes copied
+     */
+    static long copy(InputStream in, OutputStream out) throws IOException {
+        BlockingQueue<Chunk> filled = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(QUEUED_CHUNKS + 2);
+        for (int i = 0; i < QUEUED_CHUNKS + 2; i++) {
+            free.add(new byte[CHUNK_SIZE]);
+        }
+
+        Reader reader = new Reader(in, filled, free);
+        Thread thread = new Thread(reader, "pipeline-" + THREAD_COUNTER.incrementAndGet());
+        thread.setDaemon(true);
+        thread.start();
+
+        long total = 0;
+        try {
+            while (true) {
+                Chunk chunk = filled.take();
+                if (chunk.data == END) {
+                    break;
+                }
+
+                out.write(chunk.data, 0, chunk.length);
+                total += chunk.length;
+                free.add(chunk.data);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while copying");
+        } finally {
+            // never return while the reader may still use the input, the caller closes it next
+            thread.interrupt();
+            joinUninterruptibly(thread);
+        }
+
+        switch (reader.failure) {
+            case null -> {
+            }
+            case IOException e -> throw e;
+            case Error e -> throw e;
+            default -> throw new IOException(reader.failure);
+        }
+
+        return total;
+    }
+
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private record Chunk(byte[] data, int length) {
+    }
+
+    private static final class Reader implements Runnable {
+        private final InputStream in;
+        private final BlockingQueue<Chunk> filled;
+        private final BlockingQueue<byte[]> free;
+        private volatile Throwable failure;
+
+        private Reader(InputStream in, BlockingQueue<Chunk> filled, BlockingQueue<byte[]> free) {
+            this.in = in;
+            this.filled = filled;
+            this.free = free;
+        }
+
+        @Override
+        public void run() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    byte[] data = free.take();
+                    int length = in.readNBytes(data, 0, data.length);
+                    if (length > 0) {
+                        filled.put(new Chunk(data, length));
+                    }
+                    if (length < data.length) {
+                        break;
+                    }
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (Throwable e) {
+                // errors too, a decoder running out of memory or missing its native library must not leave the writer waiting
+                failure = e;
+            } finally {
+                if (!interrupted) {
+                    try {
+                        filled.put(new Chunk(END, 0));
+                    } catch (InterruptedException ignored) {
+                        // the writer gave up
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+/**
+ * DEFLATE writer borrowing its {@link Deflater} from {@link CodecPools}, the zlib format unless {@code nowrap} is set.
+ * The deflater goes back to the pool once the stream is finished or closed.
+ */
+class PooledDeflaterOutputStream extends CompressorOutputStream<OutputStream> {
+    private final CodecPools.Pool<Deflater> pool;
+    private final byte[] buffer = new byte[8 * 1024];
+    private Deflater deflater;
+
+    PooledDeflaterOutputStream(OutputStream out, int level, boolean nowrap) {
+        super(out);
+        this.pool = CodecPools.deflaters(level, nowrap);
+        this.deflater = pool.acquire();
+    }
+
+    /**
+     * Called once all the data is compressed, before the deflater is released.
+     *
+     * @param deflater the finished deflater, to read totals from
+     */
+    protected void writeTrailer(Deflater deflater) throws IOException {
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        checkOpen();
+        if (isFinished()) {
+            throw new IOException("Stream already finished");
+        }
+
+        deflater.setInput(b, off, len);
+        while (!deflater.needsInput()) {
+            deflate();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        if (isFinished()) {
+            return;
+        }
+
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate();
+        }
+        writeTrailer(deflater);
+
+        super.finish();
+        release();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            release();
+            super.close();
+        }
+    }
+
+    private void deflate() throws IOException {
+        int n = deflater.deflate(buffer);
+        if (n > 0) {
+            out().write(buffer, 0, n);
+        }
+    }
+
+    private void release() {
+        if (deflater != null) {
+            pool.release(deflater);
+            deflater = null;
+        }
+    }
+}
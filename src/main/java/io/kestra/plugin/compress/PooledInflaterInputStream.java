@@ -0,0 +1,116 @@
+package io.kestra.plugin.compress;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+
+/**
+ * DEFLATE reader borrowing its {@link Inflater} from {@link CodecPools}, the zlib format unless {@code nowrap} is set.
+ * The inflater goes back to the pool when the stream is closed.
+ */
+class PooledInflaterInputStream extends CompressorInputStream {
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * The compressed input. Bytes read ahead by the inflater are pushed back once a deflate stream ends.
+     */
+    protected final PushbackInputStream in;
+
+    private final CodecPools.Pool<Inflater> pool;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private Inflater inflater;
+    private int bufferLength;
+    private boolean eof;
+
+    PooledInflaterInputStream(InputStream in, boolean nowrap) {
+        this.in = new PushbackInputStream(in, BUFFER_SIZE);
+        this.pool = CodecPools.inflaters(nowrap);
+        this.inflater = pool.acquire();
+    }
+
+    /**
+     * Called with every chunk of decompressed data.
+     */
+    protected void inflated(byte[] b, int off, int len) {
+    }
+
+    /**
+     * Called at the end of each deflate stream, with the input positioned right after it.
+     *
+     * @param inflater the finished inflater, to read totals from
+     * @return whether another deflate stream follows, the inflater is then reset
+     */
+    protected boolean endOfStream(Inflater inflater) throws IOException {
+        return false;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        int n = read(b, 0, 1);
+
+        return n == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (inflater == null) {
+            throw new IOException("Stream closed");
+        }
+        if (len == 0) {
+            return 0;
+        }
+
+        while (!eof) {
+            int n;
+            try {
+                n = inflater.inflate(b, off, len);
+            } catch (DataFormatException e) {
+                throw new IOException("Invalid deflate data: " + e.getMessage(), e);
+            }
+
+            if (n > 0) {
+                inflated(b, off, n);
+                count(n);
+                return n;
+            }
+
+            if (inflater.finished()) {
+                int remaining = inflater.getRemaining();
+                if (remaining > 0) {
+                    in.unread(buffer, bufferLength - remaining, remaining);
+                }
+
+                eof = !endOfStream(inflater);
+                inflater.reset();
+            } else if (inflater.needsDictionary()) {
+                throw new IOException("Deflate data needs a preset dictionary");
+            } else if (inflater.needsInput()) {
+                bufferLength = in.read(buffer);
+                if (bufferLength < 0) {
+                    throw new EOFException("Unexpected end of deflate data");
+                }
+                inflater.setInput(buffer, 0, bufferLength);
+            }
+        }
+
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            in.close();
+        } finally {
+            if (inflater != null) {
+                pool.release(inflater);
+                inflater = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.List;
+
+import io.kestra.core.exceptions.IllegalVariableEvaluationException;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.runners.RunContext;
+
+/**
+ * Worker-wide index of task outputs by a hash of their input contents and of their effective settings, so that a task
+ * given the same input again returns the file it already wrote instead of doing the work twice. Only the index is kept
+ * in memory: the files stay in internal storage, and entries whose file is gone, after a purge for example, are
+ * dropped when they are hit.
+ */
+final class ResultCache {
+    /**
+     * Files referenced by the index, an extracted archive counting once per entry.
+     */
+    static final int MAX_FILES = 65536;
+
+    /**
+     * Keys cover passwords: hash them with a secret of this worker so that they cannot be guessed from a key.
+     */
+    private static final byte[] SECRET = new byte[32];
+
+    private static final LruCache<String, Entry> ENTRIES = new LruCache<>(MAX_FILES, entry -> Math.max(1, entry.uris().size()));
+
+    static {
+        new SecureRandom().nextBytes(SECRET);
+    }
+
+    private record Entry(Object output, Collection<URI> uris, Instant created) {
+    }
+
+    private ResultCache() {
+    }
+
+    /**
+     * Start the key of a {@code task} run, {@code null} when {@code options} do not enable the cache. Tenants and
+     * namespaces never share entries.
+     */
+    static Key key(RunContext runContext, ResultCacheOptions options, Class<?> task) throws IllegalVariableEvaluationException {
+        if (options == null || !runContext.render(options.getEnabled()).as(Boolean.class).orElse(true)) {
+            return null;
+        }
+
+        Key key = new Key(runContext, runContext.render(options.getTtl()).as(Duration.class).orElse(null));
+        key.digest.update(SECRET);
+
+        return key
+            .parameter(runContext.flowInfo().tenantId())
+            .parameter(runContext.flowInfo().namespace())
+            .parameter(task.getName());
+    }
+
+    static final class Key {
+        private final RunContext runContext;
+        private final Duration ttl;
+        private final MessageDigest digest = sha256();
+        private String value;
+
+        private Key(RunContext runContext, Duration ttl) {
+            this.runContext = runContext;
+            this.ttl = ttl;
+        }
+
+        Key parameter(Object parameter) {
+            return this.bytes(String.valueOf(parameter).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * The codec settings, with the zstd dictionary by content rather than by instance.
+         */
+        Key codec(CodecOptions options) {
+            this.parameter(options.toBuilder().zstdDictionary(null).gzipIndex(null).build());
+
+            return options.getZstdDictionary() == null ? this.parameter(null) : this.parameter(options.getZstdDictionary().digest());
+        }
+
+        /**
+         * Read {@code inputStream} up to its end and add the hash of its content.
+         */
+        Key content(InputStream inputStream) throws IOException {
+            MessageDigest content = sha256();
+            try (inputStream) {
+                byte[] buffer = new byte[64 * 1024];
+                int n;
+                while ((n = inputStream.read(buffer)) != -1) {
+                    content.update(buffer, 0, n);
+                }
+            }
+
+            return this.bytes(content.digest());
+        }
+
+        Key secret(char[] secret) {
+            ByteBuffer encoded = StandardCharsets.UTF_8.encode(CharBuffer.wrap(secret));
+            byte[] bytes = new byte[encoded.remaining()];
+            encoded.get(bytes);
+            try {
+                return this.bytes(bytes);
+            } finally {
+                Arrays.fill(bytes, (byte) 0);
+                Arrays.fill(encoded.array(), (byte) 0);
+            }
+        }
+
+        private Key bytes(byte[] bytes) {
+            // length prefixed, so that two different lists of parameters never hash the same bytes
+            digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+            digest.update(bytes);
+            return this;
+        }
+
+        private String value() {
+            if (value == null) {
+                value = HexFormat.of().formatHex(digest.digest());
+            }
+
+            return value;
+        }
+
+        /**
+         * The output recorded for this key, {@code null} when there is none, it is older than the ttl, or one of its
+         * files was deleted.
+         */
+        <T> T get(Class<T> type) {
+            Entry entry = ENTRIES.get(this.value());
+            if (entry != null && (ttl != null && entry.created().plus(ttl).isBefore(Instant.now()) || !entry.uris().stream().allMatch(runContext.storage()::isFileExist))) {
+                ENTRIES.remove(this.value());
+                entry = null;
+            }
+
+            runContext.metric(Counter.of(entry == null ? "cache.miss" : "cache.hit", 1));
+            if (entry == null) {
+                return null;
+            }
+
+            runContext.logger().info("Reusing {} file(s) from a previous run with the same input", entry.uris().size());
+            return type.cast(entry.output());
+        }
+
+        void put(Object output, URI uri) {
+            this.put(output, List.of(uri));
+        }
+
+        void put(Object output, Collection<URI> uris) {
+            ENTRIES.put(this.value(), new Entry(output, List.copyOf(uris), Instant.now()));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
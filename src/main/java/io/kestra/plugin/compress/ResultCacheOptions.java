@@ -0,0 +1,32 @@
+package io.kestra.plugin.compress;
+
+import java.time.Duration;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Getter
+@ToString
+@Jacksonized
+public class ResultCacheOptions {
+    @Schema(
+        title = "Whether to reuse and record results",
+        description = "Defaults to true."
+    )
+    @PluginProperty
+    private Property<Boolean> enabled;
+
+    @Schema(
+        title = "Maximum age of a reused result",
+        description = "Results older than this are computed again. Leave null to keep them until they are evicted."
+    )
+    @PluginProperty
+    private Property<Duration> ttl;
+}
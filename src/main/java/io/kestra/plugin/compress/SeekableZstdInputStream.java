@@ -0,0 +1,321 @@
+package io.kestra.plugin.compress;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+
+/**
+ * Reads a range of a local file in the zstd seekable format, decoding only the frames covering it. The frames are
+ * located with the seek table and decompressed concurrently, or streamed from the first one in the range when
+ * running single threaded or when frames are too large to be held in memory.
+ */
+final class SeekableZstdInputStream extends CompressorInputStream {
+    /**
+     * Frames are decompressed in memory, files with larger frames are streamed.
+     */
+    private static final long MAX_PARALLEL_FRAME_SIZE = 256 * 1024 * 1024;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final FileChannel channel;
+    private final SeekTable table;
+    private final CodecOptions options;
+    private final ExecutorService executor;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final int maxPending;
+    private final int endFrame;
+
+    private int nextFrame;
+    private long skip;
+    private byte[] current;
+    private int position;
+
+    private SeekableZstdInputStream(FileChannel channel, SeekTable table, int startFrame, int endFrame, long skip, int threads, CodecOptions options) {
+        this.channel = channel;
+        this.table = table;
+        this.options = options;
+        this.nextFrame = startFrame;
+        this.endFrame = endFrame;
+        this.skip = skip;
+        this.maxPending = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "decompress-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        while (pending.size() < maxPending && nextFrame < endFrame) {
+            submit();
+        }
+    }
+
+    /**
+     * Open a local seekable zstd file positioned at the uncompressed {@code offset}, decoding no frame past
+     * {@code offset + length}.
+     *
+     * @return the stream, or {@code null} if the file has no seek table
+     */
+    static CompressorInputStream open(Path file, long offset, long length, int threads, CodecOptions options) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            SeekTable table = SeekTable.read(channel);
+            if (table == null) {
+                channel.close();
+                return null;
+            }
+
+            int startFrame = table.frameAt(offset);
+            long end = length >= table.size() - offset ? table.size() : offset + length;
+            int endFrame = end <= offset ? startFrame : table.frameAt(end - 1) + 1;
+            long skip = startFrame < table.frames() ? offset - table.decompressedOffset(startFrame) : 0;
+
+            if (threads > 1 && endFrame - startFrame > 1 && table.largestFrame() <= MAX_PARALLEL_FRAME_SIZE) {
+                return new SeekableZstdInputStream(channel, table, startFrame, endFrame, skip, threads, options);
+            }
+
+            // frames are independent, a regular decoder can start at any of them
+            InputStream frames = BoundedInputStream.builder()
+                .setInputStream(Channels.newInputStream(channel.position(table.compressedOffset(startFrame))))
+                .setMaxCount(table.compressedOffset(endFrame) - table.compressedOffset(startFrame))
+                .get();
+            CompressorInputStream zstd = ZstdStreams.inputStream(new BufferedInputStream(frames), options);
+            IOUtils.skipFully(zstd, skip);
+
+            return zstd;
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (current == null || position == current.length) {
+            if (pending.isEmpty()) {
+                return -1;
+            }
+
+            current = take();
+            position = (int) skip;
+            skip = 0;
+
+            if (nextFrame < endFrame) {
+                submit();
+            }
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        count(n);
+
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        channel.close();
+    }
+
+    private void submit() {
+        int frame = nextFrame++;
+        pending.add(executor.submit(() -> decode(frame)));
+    }
+
+    private byte[] take() throws IOException {
+        try {
+            return pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while decompressing");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IOException("Unable to decompress frame", e.getCause());
+        }
+    }
+
+    private byte[] decode(int frame) throws IOException {
+        long start = table.compressedOffset(frame);
+        ByteBuffer compressed = ByteBuffer.allocate((int) (table.compressedOffset(frame + 1) - start));
+        while (compressed.hasRemaining()) {
+            if (channel.read(compressed, start + compressed.position()) < 0) {
+                throw new EOFException("Unexpected end of zstd frame " + frame);
+            }
+        }
+
+        byte[] data = new byte[table.decompressedSize(frame)];
+        try (ZstdDecompressCtx ctx = new ZstdDecompressCtx()) {
+            if (options.getZstdDictionary() != null) {
+                ctx.loadDict(options.getZstdDictionary().forDecompression());
+            }
+
+            int n = ctx.decompressByteArray(data, 0, data.length, compressed.array(), 0, compressed.capacity());
+            if (n != data.length) {
+                throw new IOException("Zstd frame " + frame + " decompressed to " + n + " bytes, the seek table says " + data.length);
+            }
+        } catch (ZstdException e) {
+            throw new IOException("Unable to decompress zstd frame " + frame + ": " + e.getMessage(), e);
+        }
+
+        if (table.checksums() && (int) SeekableZstdOutputStream.XXHASH.hash(data, 0, data.length, 0) != table.checksum(frame)) {
+            throw new IOException("Zstd frame " + frame + " is corrupt (checksum error)");
+        }
+
+        return data;
+    }
+
+    /**
+     * Seek table read from the end of the file, with cumulated compressed and decompressed offsets.
+     */
+    private static final class SeekTable {
+        private final long[] compressedOffsets;
+        private final long[] decompressedOffsets;
+        private final int[] checksums;
+
+        private SeekTable(long[] compressedOffsets, long[] decompressedOffsets, int[] checksums) {
+            this.compressedOffsets = compressedOffsets;
+            this.decompressedOffsets = decompressedOffsets;
+            this.checksums = checksums;
+        }
+
+        static SeekTable read(FileChannel channel) throws IOException {
+            long fileSize = channel.size();
+            if (fileSize < 8 + SeekableZstdOutputStream.FOOTER_SIZE) {
+                return null;
+            }
+
+            ByteBuffer footer = readAt(channel, fileSize - SeekableZstdOutputStream.FOOTER_SIZE, SeekableZstdOutputStream.FOOTER_SIZE);
+            int frames = footer.getInt();
+            int descriptor = footer.get() & 0xff;
+            if (footer.getInt() != SeekableZstdOutputStream.SEEKABLE_MAGIC || frames < 0) {
+                return null;
+            }
+
+            boolean checksum = (descriptor & SeekableZstdOutputStream.CHECKSUM_FLAG) != 0;
+            int entrySize = checksum ? 12 : 8;
+            long frameSize = (long) frames * entrySize + SeekableZstdOutputStream.FOOTER_SIZE;
+            long tableStart = fileSize - frameSize - 8;
+            if (tableStart < 0) {
+                throw new IOException("Invalid zstd seek table: " + frames + " frames do not fit in the file");
+            }
+
+            ByteBuffer header = readAt(channel, tableStart, 8);
+            if (header.getInt() != SeekableZstdOutputStream.SKIPPABLE_MAGIC || header.getInt() != frameSize) {
+                throw new IOException("Invalid zstd seek table header");
+            }
+
+            ByteBuffer entries = readAt(channel, tableStart + 8, frames * entrySize);
+            long[] compressedOffsets = new long[frames + 1];
+            long[] decompressedOffsets = new long[frames + 1];
+            int[] checksums = checksum ? new int[frames] : null;
+            for (int i = 0; i < frames; i++) {
+                compressedOffsets[i + 1] = compressedOffsets[i] + Integer.toUnsignedLong(entries.getInt());
+                decompressedOffsets[i + 1] = decompressedOffsets[i] + Integer.toUnsignedLong(entries.getInt());
+                if (checksum) {
+                    checksums[i] = entries.getInt();
+                }
+            }
+
+            if (compressedOffsets[frames] > tableStart) {
+                throw new IOException("Invalid zstd seek table: frames end past the table");
+            }
+
+            return new SeekTable(compressedOffsets, decompressedOffsets, checksums);
+        }
+
+        private static ByteBuffer readAt(FileChannel channel, long position, int size) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of zstd seek table");
+                }
+            }
+
+            return buffer.flip();
+        }
+
+        int frames() {
+            return compressedOffsets.length - 1;
+        }
+
+        long size() {
+            return decompressedOffsets[frames()];
+        }
+
+        long compressedOffset(int frame) {
+            return compressedOffsets[frame];
+        }
+
+        long decompressedOffset(int frame) {
+            return decompressedOffsets[frame];
+        }
+
+        int decompressedSize(int frame) {
+            return (int) (decompressedOffsets[frame + 1] - decompressedOffsets[frame]);
+        }
+
+        long largestFrame() {
+            long largest = 0;
+            for (int i = 0; i < frames(); i++) {
+                largest = Math.max(largest, decompressedSize(i));
+            }
+
+            return largest;
+        }
+
+        boolean checksums() {
+            return checksums != null;
+        }
+
+        int checksum(int frame) {
+            return checksums[frame];
+        }
+
+        /**
+         * Frame holding the uncompressed {@code offset}, {@link #frames()} past the end.
+         */
+        int frameAt(long offset) {
+            if (offset >= size()) {
+                return frames();
+            }
+
+            int index = Arrays.binarySearch(decompressedOffsets, offset);
+            return index >= 0 ? index : -index - 2;
+        }
+    }
+}
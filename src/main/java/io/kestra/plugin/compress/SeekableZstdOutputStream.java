@@ -0,0 +1,120 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Writes the zstd seekable format: the input is cut into chunks compressed concurrently as independent frames,
+ * followed by a seek table in a skippable frame listing the compressed and decompressed size and the checksum of
+ * every frame. Regular zstd decoders skip the table and read the frames one after the other.
+ *
+ * @see <a href="https://github.com/facebook/zstd/blob/dev/contrib/seekable_format/zstd_seekable_compression_format.md">Zstandard seekable format</a>
+ */
+final class SeekableZstdOutputStream extends ParallelCompressorOutputStream {
+    static final int DEFAULT_FRAME_SIZE = 1024 * 1024;
+
+    static final int SKIPPABLE_MAGIC = 0x184D2A5E;
+    static final int SEEKABLE_MAGIC = 0x8F92EAB1;
+    static final int FOOTER_SIZE = 9;
+    static final int CHECKSUM_FLAG = 0x80;
+
+    static final XXHash64 XXHASH = XXHashFactory.fastestInstance().hash64();
+
+    private final CodecOptions options;
+    private final int level;
+    private final List<Entry> entries = new ArrayList<>();
+    private final Deque<Entry> compressing = new ArrayDeque<>();
+
+    SeekableZstdOutputStream(OutputStream out, int threads, int frameSize, CodecOptions options) {
+        super(out, threads, frameSize > 0 ? frameSize : DEFAULT_FRAME_SIZE);
+        this.options = options;
+        this.level = options.zstdLevel() == 0 ? Zstd.defaultCompressionLevel() : options.zstdLevel();
+    }
+
+    @Override
+    protected Callable<byte[]> chunk(byte[] chunk, int length, boolean last) {
+        if (length == 0) {
+            return () -> new byte[0];
+        }
+
+        Entry entry = new Entry(length, (int) XXHASH.hash(chunk, 0, length, 0));
+        compressing.add(entry);
+
+        return () -> compress(chunk, length);
+    }
+
+    @Override
+    protected void writeHeader() {
+    }
+
+    @Override
+    protected void writeChunk(byte[] compressed) throws IOException {
+        if (compressed.length == 0) {
+            return;
+        }
+
+        Entry entry = compressing.removeFirst();
+        entry.compressedSize = compressed.length;
+        entries.add(entry);
+
+        out().write(compressed);
+    }
+
+    @Override
+    protected void writeTrailer() throws IOException {
+        int frameSize = entries.size() * 12 + FOOTER_SIZE;
+        ByteBuffer table = ByteBuffer.allocate(8 + frameSize).order(ByteOrder.LITTLE_ENDIAN)
+            .putInt(SKIPPABLE_MAGIC)
+            .putInt(frameSize);
+        for (Entry entry : entries) {
+            table.putInt(entry.compressedSize)
+                .putInt(entry.decompressedSize)
+                .putInt(entry.checksum);
+        }
+        table.putInt(entries.size())
+            .put((byte) CHECKSUM_FLAG)
+            .putInt(SEEKABLE_MAGIC);
+
+        out().write(table.array());
+    }
+
+    private byte[] compress(byte[] chunk, int length) {
+        try (ZstdCompressCtx ctx = new ZstdCompressCtx()) {
+            ctx.setLevel(level);
+            ctx.setContentSize(true);
+            if (options.getZstdDictionary() != null) {
+                ctx.loadDict(options.getZstdDictionary().forCompression(level));
+            }
+
+            byte[] compressed = new byte[(int) Zstd.compressBound(length)];
+            int n = ctx.compressByteArray(compressed, 0, compressed.length, chunk, 0, length);
+
+            return Arrays.copyOf(compressed, n);
+        }
+    }
+
+    private static final class Entry {
+        private final int decompressedSize;
+        private final int checksum;
+        private int compressedSize;
+
+        private Entry(int decompressedSize, int checksum) {
+            this.decompressedSize = decompressedSize;
+            this.checksum = checksum;
+        }
+    }
+}
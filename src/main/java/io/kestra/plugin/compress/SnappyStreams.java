@@ -0,0 +1,136 @@
+package io.kestra.plugin.compress;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Arrays;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.FramedSnappyCompressorOutputStream;
+import org.apache.commons.compress.compressors.snappy.SnappyCompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.SnappyCompressorOutputStream;
+import org.xerial.snappy.Snappy;
+import org.xerial.snappy.SnappyFramedInputStream;
+import org.xerial.snappy.SnappyFramedOutputStream;
+
+/**
+ * Snappy streams backed by snappy-java's native library when it loads on this platform, falling back to the
+ * commons-compress pure Java codec otherwise. Both write the same raw and framed formats.
+ */
+final class SnappyStreams {
+    /**
+     * Raw Snappy has no framing, the whole content goes through a single buffer.
+     */
+    static final int MAX_RAW_SIZE = 1024 * 1024 * 1024;
+
+    private static final boolean NATIVE = nativeAvailable();
+
+    private SnappyStreams() {
+    }
+
+    private static boolean nativeAvailable() {
+        try {
+            Snappy.getNativeLibraryVersion();
+            return Snappy.maxCompressedLength(1) > 0;
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+
+    static CompressorOutputStream<OutputStream> rawOutputStream(OutputStream outputStream) {
+        return new RawOutputStream(outputStream);
+    }
+
+    static CompressorInputStream rawInputStream(InputStream inputStream) throws IOException {
+        if (!NATIVE) {
+            return new SnappyCompressorInputStream(inputStream);
+        }
+
+        byte[] compressed = inputStream.readNBytes(MAX_RAW_SIZE + 1);
+        if (compressed.length > MAX_RAW_SIZE || Snappy.uncompressedLength(compressed) > MAX_RAW_SIZE) {
+            // too large for a single buffer, stream it instead
+            return new SnappyCompressorInputStream(new SequenceInputStream(new ByteArrayInputStream(compressed), inputStream));
+        }
+
+        return new WrappedCompressorInputStream(new ByteArrayInputStream(Snappy.uncompress(compressed)));
+    }
+
+    static CompressorOutputStream<OutputStream> framedOutputStream(OutputStream outputStream) throws IOException {
+        return NATIVE
+            ? new WrappedCompressorOutputStream(new SnappyFramedOutputStream(outputStream))
+            : new FramedSnappyCompressorOutputStream(outputStream);
+    }
+
+    static CompressorInputStream framedInputStream(InputStream inputStream) throws IOException {
+        return NATIVE
+            ? new WrappedCompressorInputStream(new SnappyFramedInputStream(inputStream, true))
+            : new FramedSnappyCompressorInputStream(inputStream);
+    }
+
+    /**
+     * Raw Snappy starts with the uncompressed length, so the content is buffered until the stream is finished.
+     */
+    private static final class RawOutputStream extends CompressorOutputStream<OutputStream> {
+        private byte[] buffer = new byte[64 * 1024];
+        private int size;
+
+        private RawOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            checkOpen();
+            if (isFinished()) {
+                throw new IOException("Stream already finished");
+            }
+            if (len > MAX_RAW_SIZE - size) {
+                throw new IOException("Raw SNAPPY is limited to " + MAX_RAW_SIZE + " bytes, use SNAPPYFRAME for larger content");
+            }
+
+            if (size + len > buffer.length) {
+                buffer = Arrays.copyOf(buffer, (int) Math.min(MAX_RAW_SIZE, Math.max(size + len, 2L * buffer.length)));
+            }
+            System.arraycopy(b, off, buffer, size, len);
+            size += len;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (isFinished()) {
+                return;
+            }
+
+            if (NATIVE) {
+                byte[] compressed = new byte[Snappy.maxCompressedLength(size)];
+                int n = Snappy.rawCompress(buffer, 0, size, compressed, 0);
+                out().write(compressed, 0, n);
+            } else {
+                SnappyCompressorOutputStream snappy = new SnappyCompressorOutputStream(out(), size);
+                snappy.write(buffer, 0, size);
+                snappy.finish();
+            }
+            buffer = null;
+
+            super.finish();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                finish();
+            } finally {
+                super.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+/**
+ * Exposes a codec stream from another library as a {@link CompressorOutputStream}.
+ */
+class WrappedCompressorOutputStream extends CompressorOutputStream<OutputStream> {
+    WrappedCompressorOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        out().write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        out().write(b, off, len);
+    }
+}
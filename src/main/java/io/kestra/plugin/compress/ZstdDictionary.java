@@ -0,0 +1,92 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import io.kestra.core.runners.RunContext;
+import io.kestra.core.storages.FileAttributes;
+
+/**
+ * A zstd dictionary loaded from internal storage. Loaded dictionaries are kept in a worker-wide cache, along with
+ * their digested forms, so tasks sharing a dictionary only read and parse it once.
+ * <p>
+ * Evicted entries are not closed explicitly since a running task may still use them, zstd-jni releases the native
+ * memory once they are garbage collected.
+ */
+final class ZstdDictionary {
+    private static final int MAX_DICTIONARY_SIZE = 16 * 1024 * 1024;
+    private static final LruCache<String, ZstdDictionary> CACHE = new LruCache<>(32);
+
+    private final byte[] content;
+    private final long size;
+    private final long lastModifiedTime;
+    private final Map<Integer, ZstdDictCompress> compress = new ConcurrentHashMap<>();
+    private volatile ZstdDictDecompress decompress;
+    private volatile String digest;
+
+    private ZstdDictionary(byte[] content, FileAttributes attributes) {
+        this.content = content;
+        this.size = attributes.getSize();
+        this.lastModifiedTime = attributes.getLastModifiedTime();
+    }
+
+    static ZstdDictionary load(RunContext runContext, URI uri) throws IOException {
+        // tenants and namespaces share the worker, never let one resolve a dictionary loaded by another
+        String key = runContext.flowInfo().tenantId() + "|" + runContext.flowInfo().namespace() + "|" + uri;
+
+        // asked on every load, hit or not: storage checks that this run may read the file, and tells if it changed
+        FileAttributes attributes = runContext.storage().getAttributes(uri);
+
+        ZstdDictionary dictionary = CACHE.get(key);
+        if (dictionary == null || dictionary.size != attributes.getSize() || dictionary.lastModifiedTime != attributes.getLastModifiedTime()) {
+            try (InputStream inputStream = runContext.storage().getFile(uri)) {
+                byte[] content = inputStream.readNBytes(MAX_DICTIONARY_SIZE + 1);
+                if (content.length > MAX_DICTIONARY_SIZE) {
+                    throw new IllegalArgumentException("zstd dictionary '" + uri + "' is larger than " + MAX_DICTIONARY_SIZE + " bytes");
+                }
+
+                dictionary = new ZstdDictionary(content, attributes);
+            }
+
+            CACHE.put(key, dictionary);
+        }
+
+        return dictionary;
+    }
+
+    ZstdDictCompress forCompression(int level) {
+        return compress.computeIfAbsent(level, l -> new ZstdDictCompress(content, l));
+    }
+
+    /**
+     * SHA-256 of the dictionary, in hexadecimal.
+     */
+    String digest() {
+        if (digest == null) {
+            try {
+                digest = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        return digest;
+    }
+
+    ZstdDictDecompress forDecompression() {
+        if (decompress == null) {
+            decompress = new ZstdDictDecompress(content);
+        }
+
+        return decompress;
+    }
+}
@@ -0,0 +1,150 @@
+package io.kestra.plugin.compress;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictTrainer;
+
+import io.kestra.core.models.annotations.Example;
+import io.kestra.core.models.annotations.Plugin;
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.executions.metrics.Counter;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.models.tasks.RunnableTask;
+import io.kestra.core.models.tasks.Task;
+import io.kestra.core.runners.RunContext;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+import lombok.experimental.SuperBuilder;
+
+@SuperBuilder
+@ToString
+@EqualsAndHashCode
+@Getter
+@NoArgsConstructor
+@Schema(
+    title = "Train a zstd dictionary from sample files",
+    description = "Builds a Zstandard dictionary from representative samples, typically many small files sharing the same structure (JSON events, log lines, CSV rows). Pass the resulting URI to `zstd.dictionary` on `FileCompress`, `FileDecompress`, `ArchiveCompress` or `ArchiveDecompress` to compress such files far better than without a dictionary."
+)
+@Plugin(
+    examples = {
+        @Example(
+            full = true,
+            code = """
+                id: zstd_dictionary
+                namespace: company.team
+
+                tasks:
+                  - id: train
+                    type: io.kestra.plugin.compress.ZstdDictionaryTrain
+                    from: "{{ outputs.download.uris }}"
+
+                  - id: compress
+                    type: io.kestra.plugin.compress.FileCompress
+                    from: "{{ outputs.download.uris[0] }}"
+                    compression: ZSTD
+                    zstd:
+                      dictionary: "{{ outputs.train.uri }}"
+                """
+        )
+    }
+)
+public class ZstdDictionaryTrain extends Task implements RunnableTask<ZstdDictionaryTrain.Output> {
+    @Schema(
+        title = "Internal storage URIs of the sample files",
+        description = "Each file is one sample; zstd needs a few dozen samples at least to train a useful dictionary."
+    )
+    @NotNull
+    @PluginProperty(internalStorageURI = true, group = "main")
+    private Property<List<String>> from;
+
+    @Schema(
+        title = "Maximum size in bytes of the dictionary",
+        description = "Around 100 KiB works well for most data sets, smaller dictionaries load faster."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> dictionarySize = Property.ofValue(112_640);
+
+    @Schema(
+        title = "Maximum total size in bytes of the samples",
+        description = "Samples are read in order until this budget is used up, larger samples are truncated to fit. Training needs this much memory."
+    )
+    @Builder.Default
+    @PluginProperty(group = "advanced")
+    private Property<Integer> maxSamplesSize = Property.ofValue(128 * 1024 * 1024);
+
+    @Override
+    public Output run(RunContext runContext) throws Exception {
+        List<String> rFrom = runContext.render(this.from).asList(String.class);
+        int rDictionarySize = runContext.render(this.dictionarySize).as(Integer.class).orElseThrow();
+        int rMaxSamplesSize = runContext.render(this.maxSamplesSize).as(Integer.class).orElseThrow();
+
+        if (rFrom.isEmpty()) {
+            throw new IllegalArgumentException("At least one sample file is required to train a zstd dictionary");
+        }
+
+        ZstdDictTrainer trainer = new ZstdDictTrainer(rMaxSamplesSize, rDictionarySize);
+        long remaining = rMaxSamplesSize;
+        int samples = 0;
+
+        for (String uri : rFrom) {
+            if (remaining <= 0) {
+                runContext.logger().warn("Reached maxSamplesSize after {} samples, the remaining files are ignored", samples);
+                break;
+            }
+
+            try (InputStream inputStream = runContext.storage().getFile(URI.create(uri))) {
+                byte[] sample = inputStream.readNBytes((int) remaining);
+                if (sample.length > 0 && trainer.addSample(sample)) {
+                    remaining -= sample.length;
+                    samples++;
+                }
+            }
+        }
+
+        byte[] dictionary = trainer.trainSamples();
+        long dictionaryId = Zstd.getDictIdFromDict(dictionary);
+
+        File tempFile = runContext.workingDir().createTempFile(dictionary, ".dict").toFile();
+
+        runContext.metric(Counter.of("samples", samples));
+        runContext.metric(Counter.of("size", dictionary.length));
+
+        return Output.builder()
+            .uri(runContext.storage().putFile(tempFile))
+            .dictionaryId(dictionaryId)
+            .size(dictionary.length)
+            .samples(samples)
+            .build();
+    }
+
+    @Builder
+    @Getter
+    public static class Output implements io.kestra.core.models.tasks.Output {
+        @Schema(
+            title = "URI of the dictionary on Kestra's internal storage"
+        )
+        private final URI uri;
+
+        @Schema(
+            title = "Dictionary ID, recorded in every frame compressed with it"
+        )
+        private final Long dictionaryId;
+
+        @Schema(
+            title = "Dictionary size in bytes"
+        )
+        private final Integer size;
+
+        @Schema(
+            title = "Number of samples used for training"
+        )
+        private final Integer samples;
+    }
+}
@@ -0,0 +1,70 @@
+package io.kestra.plugin.compress;
+
+import io.kestra.core.models.annotations.PluginProperty;
+import io.kestra.core.models.property.Property;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+
+@Builder
+@Getter
+@Jacksonized
+public class ZstdOptions {
+    @Schema(
+        title = "Compression level",
+        description = "From 1 (fastest) to 22 (smallest output), negative values trade more ratio for speed. Defaults to 3."
+    )
+    @PluginProperty
+    private Property<Integer> level;
+
+    @Schema(
+        title = "Number of native compression workers",
+        description = "Defaults to the task `threads` value. With more than one worker, zstd compresses jobs of `jobSize` bytes concurrently; the output stays a regular zstd frame."
+    )
+    @PluginProperty
+    private Property<Integer> workers;
+
+    @Schema(
+        title = "Size in bytes of each multithreaded compression job",
+        description = "Only used with more than one worker. Defaults to a value derived from the window size."
+    )
+    @PluginProperty
+    private Property<Integer> jobSize;
+
+    @Schema(
+        title = "Base 2 logarithm of the match window size",
+        description = "From 10 to 31. Larger windows find more distant matches but need more memory to compress and decompress. Files written with a window above 27 can only be decompressed with `windowLogMax` set accordingly."
+    )
+    @PluginProperty
+    private Property<Integer> windowLog;
+
+    @Schema(
+        title = "Enable long distance matching",
+        description = "Like `zstd --long`, finds repetitions far apart in large inputs, such as near-duplicate files in an archive. The window defaults to 27 (128 MiB) when `windowLog` is not set."
+    )
+    @PluginProperty
+    private Property<Boolean> longDistanceMatching;
+
+    @Schema(
+        title = "Base 2 logarithm of the largest window accepted when decompressing",
+        description = "From 10 to 31. Defaults to `windowLog` when set, otherwise to 27; decompression needs up to this much memory. Like `zstd --memory`, required to read files written with a window above 27."
+    )
+    @PluginProperty
+    private Property<Integer> windowLogMax;
+
+    @Schema(
+        title = "Write the seekable zstd format",
+        description = "Compresses chunks of the task `chunkSize` (default 1 MiB) as independent frames on `threads` threads, followed by a seek table. Any zstd decoder reads the output; decompressing it with `offset` and `length` only decodes the frames covering the range, and with `threads` decodes frames in parallel. Smaller chunks give finer random access at the cost of ratio."
+    )
+    @PluginProperty
+    private Property<Boolean> seekable;
+
+    @Schema(
+        title = "Internal storage URI of a zstd dictionary",
+        description = "Dictionary trained with the `ZstdDictionaryTrain` task, it boosts the ratio of small, similar files. The same dictionary must be given to compress and to decompress."
+    )
+    @PluginProperty(internalStorageURI = true)
+    private Property<String> dictionary;
+}
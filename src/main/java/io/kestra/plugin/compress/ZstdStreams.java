@@ -0,0 +1,70 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.apache.commons.compress.compressors.CompressorInputStream;
+import org.apache.commons.compress.compressors.CompressorOutputStream;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStreamNoFinalizer;
+import com.github.luben.zstd.ZstdOutputStreamNoFinalizer;
+
+/**
+ * Zstandard streams built directly on zstd-jni, for the settings commons-compress does not expose such as
+ * pre-digested dictionaries.
+ */
+final class ZstdStreams {
+    static final int LONG_WINDOW_LOG = 27;
+
+    private ZstdStreams() {
+    }
+
+    static CompressorOutputStream<OutputStream> outputStream(OutputStream outputStream, CodecOptions options) throws IOException {
+        int level = options.zstdLevel() == 0 ? Zstd.defaultCompressionLevel() : options.zstdLevel();
+
+        ZstdOutputStreamNoFinalizer zstd = new ZstdOutputStreamNoFinalizer(outputStream, CodecPools.ZSTD_BUFFERS);
+        try {
+            zstd.setLevel(level);
+            if (options.zstdWorkers() > 0) {
+                zstd.setWorkers(options.zstdWorkers());
+            }
+            if (options.getZstdJobSize() > 0) {
+                zstd.setJobSize(options.getZstdJobSize());
+            }
+            if (options.isZstdLongDistanceMatching()) {
+                // sets a 2^27 window like zstd --long, zstd-jni silently ignores larger values here so windowLog comes after
+                zstd.setLong(LONG_WINDOW_LOG);
+            }
+            if (options.getZstdWindowLog() > 0) {
+                zstd.setWindowLog(options.getZstdWindowLog());
+            }
+            if (options.getZstdDictionary() != null) {
+                zstd.setDict(options.getZstdDictionary().forCompression(level));
+            }
+        } catch (IOException | RuntimeException e) {
+            zstd.close();
+            throw e;
+        }
+
+        return new WrappedCompressorOutputStream(zstd);
+    }
+
+    static CompressorInputStream inputStream(InputStream inputStream, CodecOptions options) throws IOException {
+        ZstdInputStreamNoFinalizer zstd = new ZstdInputStreamNoFinalizer(inputStream, CodecPools.ZSTD_BUFFERS);
+        try {
+            if (options.zstdWindowLogMax() > 0) {
+                zstd.setLongMax(options.zstdWindowLogMax());
+            }
+            if (options.getZstdDictionary() != null) {
+                zstd.setDict(options.getZstdDictionary().forDecompression());
+            }
+        } catch (IOException | RuntimeException e) {
+            zstd.close();
+            throw e;
+        }
+
+        return new WrappedCompressorInputStream(zstd);
+    }
+}
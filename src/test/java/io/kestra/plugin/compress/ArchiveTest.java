@@ -2,9 +2,15 @@ package io.kestra.plugin.compress;
 
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
 
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
 import org.hamcrest.MatcherAssert;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -14,17 +20,22 @@ import org.junit.jupiter.params.provider.MethodSource;
 import com.google.common.io.CharStreams;
 
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContext;
 import io.kestra.core.runners.RunContextFactory;
 import io.kestra.core.storages.StorageInterface;
 import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.IdUtils;
 import io.kestra.core.utils.TestsUtils;
 
 import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
 
 @KestraTest
 class ArchiveTest {
@@ -123,4 +134,211 @@ class ArchiveTest {
         );
     }
 
+    @Test
+    void entryDigests() throws Exception {
+        URI f1 = compressUtils.uploadToStorageString("1");
+        URI f2 = compressUtils.uploadToStorageString("2");
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .digests(Property.ofValue(List.of(Digests.Algorithm.XXHASH64, Digests.Algorithm.BLAKE3)))
+            .from(
+                Map.of(
+                    "folder/1.txt", f1.toString(),
+                    "2.txt", f2.toString()
+                )
+            )
+            .build();
+
+        ArchiveCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        assertThat(runCompress.getEntryDigests().size(), is(2));
+        assertThat(runCompress.getEntryDigests().get("folder/1.txt").keySet(), contains("XXHASH64", "BLAKE3"));
+
+        ArchiveDecompress decompress = ArchiveDecompress.builder()
+            .id("unit-test")
+            .type(ArchiveDecompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .digests(Property.ofValue(List.of(Digests.Algorithm.XXHASH64, Digests.Algorithm.BLAKE3)))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        ArchiveDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(runDecompress.getEntryDigests(), is(runCompress.getEntryDigests()));
+        assertThat(runDecompress.getInputDigests(), is(runCompress.getOutputDigests()));
+    }
+
+    @Test
+    void autoZip() throws Exception {
+        byte[] random = new byte[100_000];
+        new Random(42).nextBytes(random);
+        URI f1 = compressUtils.uploadToStorageBytes(random);
+        URI f2 = compressUtils.uploadToStorageString("kestra ".repeat(10_000));
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.AUTO))
+            .from(
+                Map.of(
+                    "random.bin", f1.toString(),
+                    "text.txt", f2.toString()
+                )
+            )
+            .build();
+
+        ArchiveCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        assertThat(runCompress.getCompression(), nullValue());
+        Map<String, Integer> methods = new HashMap<>();
+        try (ZipArchiveInputStream zip = new ZipArchiveInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()))) {
+            ZipArchiveEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                methods.put(entry.getName(), entry.getMethod());
+            }
+        }
+        assertThat(methods, is(Map.of("random.bin", ZipEntry.STORED, "text.txt", ZipEntry.DEFLATED)));
+
+        ArchiveDecompress decompress = ArchiveDecompress.builder()
+            .id("unit-test")
+            .type(ArchiveDecompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        ArchiveDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("random.bin")).readAllBytes(), is(random));
+    }
+
+    @Test
+    void autoTar() throws Exception {
+        URI f1 = compressUtils.uploadToStorageString("kestra ".repeat(10_000));
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.AUTO))
+            .from(Map.of("text.txt", f1.toString()))
+            .build();
+
+        ArchiveCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        assertThat(runCompress.getCompression(), is(ArchiveDecompress.CompressionAlgorithm.ZSTD));
+
+        ArchiveDecompress decompress = ArchiveDecompress.builder()
+            .id("unit-test")
+            .type(ArchiveDecompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(runCompress.getCompression()))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        ArchiveDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("text.txt")))), is("kestra ".repeat(10_000)));
+    }
+
+    @Test
+    void compressResultCache() throws Exception {
+        String content = "kestra " + IdUtils.create();
+        URI f1 = compressUtils.uploadToStorageString(content);
+        URI f2 = compressUtils.uploadToStorageString("2");
+
+        Map.Entry<String, URI> first = compress(Map.of("folder/1.txt", f1.toString(), "2.txt", f2.toString()));
+        // same content, uploaded again
+        Map.Entry<String, URI> same = compress(Map.of("folder/1.txt", compressUtils.uploadToStorageString(content).toString(), "2.txt", f2.toString()));
+        Map.Entry<String, URI> renamed = compress(Map.of("folder/3.txt", f1.toString(), "2.txt", f2.toString()));
+
+        assertThat(first.getKey(), is("cache.miss"));
+        assertThat(same.getKey(), is("cache.hit"));
+        assertThat(same.getValue(), is(first.getValue()));
+        assertThat(renamed.getKey(), is("cache.miss"));
+        assertThat(renamed.getValue().equals(first.getValue()), is(false));
+    }
+
+    /**
+     * Build a cached ZIP archive, returning the cache metric along with the archive URI.
+     */
+    private Map.Entry<String, URI> compress(Map<String, String> from) throws Exception {
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .resultCache(ResultCacheOptions.builder().build())
+            .from(from)
+            .build();
+
+        RunContext runContext = TestsUtils.mockRunContext(runContextFactory, compress, Map.of());
+        ArchiveCompress.Output runCompress = compress.run(runContext);
+
+        return Map.entry(cacheMetric(runContext), runCompress.getUri());
+    }
+
+    private static String cacheMetric(RunContext runContext) {
+        return runContext.metrics().stream()
+            .map(AbstractMetricEntry::getName)
+            .filter(name -> name.startsWith("cache."))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    @Test
+    void resultCache() throws Exception {
+        URI f1 = compressUtils.uploadToStorageString("1");
+        URI f2 = compressUtils.uploadToStorageString("2");
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .from(
+                Map.of(
+                    "folder/1.txt", f1.toString(),
+                    "2.txt", f2.toString()
+                )
+            )
+            .build();
+
+        ArchiveCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        ArchiveDecompress.Output[] outputs = new ArchiveDecompress.Output[3];
+        String[] metrics = new String[outputs.length];
+        for (int i = 0; i < outputs.length; i++) {
+            if (i == 2) {
+                // a purged file invalidates the whole files map
+                storageInterface.delete(TenantService.MAIN_TENANT, null, outputs[1].getFiles().get("2.txt"));
+            }
+
+            ArchiveDecompress decompress = ArchiveDecompress.builder()
+                .id("unit-test")
+                .type(ArchiveDecompress.class.getName())
+                .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+                .resultCache(ResultCacheOptions.builder().build())
+                .from(Property.ofValue(runCompress.getUri().toString()))
+                .build();
+
+            RunContext runContext = TestsUtils.mockRunContext(runContextFactory, decompress, Map.of());
+            outputs[i] = decompress.run(runContext);
+            metrics[i] = cacheMetric(runContext);
+        }
+
+        assertThat(metrics[0], is("cache.miss"));
+        assertThat(metrics[1], is("cache.hit"));
+        assertThat(outputs[1].getFiles(), is(outputs[0].getFiles()));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, outputs[1].getFiles().get("folder/1.txt")))), is("1"));
+
+        assertThat(metrics[2], is("cache.miss"));
+        for (String name : List.of("folder/1.txt", "2.txt")) {
+            assertThat(outputs[2].getFiles().get(name).equals(outputs[0].getFiles().get(name)), is(false));
+        }
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, outputs[2].getFiles().get("2.txt")))), is("2"));
+    }
 }
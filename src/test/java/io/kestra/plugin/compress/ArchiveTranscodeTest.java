@@ -0,0 +1,176 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.google.common.io.CharStreams;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class ArchiveTranscodeTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void tarGzipToZip(int threads) throws Exception {
+        String large = "kestra ".repeat(200_000);
+        URI tarGz = this.archive(large);
+
+        ArchiveTranscode transcode = ArchiveTranscode.builder()
+            .id("unit-test")
+            .type(ArchiveTranscode.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .targetAlgorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .threads(Property.ofValue(threads))
+            .from(Property.ofValue(tarGz.toString()))
+            .build();
+
+        ArchiveTranscode.Output runTranscode = transcode.run(TestsUtils.mockRunContext(runContextFactory, transcode, Map.of()));
+
+        assertThat(runTranscode.getCount(), is(3));
+        assertThat(runTranscode.getSize(), is((long) large.length() + 2));
+
+        this.assertEntries(runTranscode.getUri(), ArchiveDecompress.ArchiveAlgorithm.ZIP, null, large);
+    }
+
+    @Test
+    void tarGzipToTarZstd() throws Exception {
+        String large = "kestra ".repeat(200_000);
+        URI tarGz = this.archive(large);
+
+        ArchiveTranscode transcode = ArchiveTranscode.builder()
+            .id("unit-test")
+            .type(ArchiveTranscode.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .targetAlgorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .targetCompression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .from(Property.ofValue(tarGz.toString()))
+            .build();
+
+        ArchiveTranscode.Output runTranscode = transcode.run(TestsUtils.mockRunContext(runContextFactory, transcode, Map.of()));
+
+        assertThat(runTranscode.getCount(), is(3));
+
+        this.assertEntries(runTranscode.getUri(), ArchiveDecompress.ArchiveAlgorithm.TAR, ArchiveDecompress.CompressionAlgorithm.ZSTD, large);
+    }
+
+    private URI archive(String large) throws Exception {
+        URI f1 = compressUtils.uploadToStorageString("1");
+        URI f2 = compressUtils.uploadToStorageString(large);
+        URI f3 = compressUtils.uploadToStorageString("3");
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(
+                Map.of(
+                    "folder/1.txt", f1.toString(),
+                    "folder/2.txt", f2.toString(),
+                    "3.txt", f3.toString()
+                )
+            )
+            .build();
+
+        return compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of())).getUri();
+    }
+
+    @Test
+    void truncatedReleasesThreads() throws Exception {
+        Random random = new Random(42);
+        StringBuilder large = new StringBuilder();
+        while (large.length() < 2_000_000) {
+            large.append(Long.toString(random.nextLong(), 36));
+        }
+
+        // a small entry handed to the deflating threads, then a large one cut short
+        Map<String, String> from = new LinkedHashMap<>();
+        from.put("1.txt", compressUtils.uploadToStorageString("1").toString());
+        from.put("2.txt", compressUtils.uploadToStorageString(large.toString()).toString());
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(from)
+            .build();
+
+        URI tarGz = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of())).getUri();
+        byte[] bytes = storageInterface.get(TenantService.MAIN_TENANT, null, tarGz).readAllBytes();
+        URI truncated = compressUtils.uploadToStorageBytes(Arrays.copyOf(bytes, bytes.length * 3 / 4));
+
+        ArchiveTranscode transcode = ArchiveTranscode.builder()
+            .id("unit-test")
+            .type(ArchiveTranscode.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .targetAlgorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.ZIP))
+            .threads(Property.ofValue(2))
+            .from(Property.ofValue(truncated.toString()))
+            .build();
+
+        assertThrows(IOException.class, () -> transcode.run(TestsUtils.mockRunContext(runContextFactory, transcode, Map.of())));
+
+        // the deflating threads of the batch that was never written are stopped
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (transcodeThreads() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(transcodeThreads(), is(0L));
+    }
+
+    private static long transcodeThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+            .filter(thread -> thread.getName().startsWith("transcode-") && thread.isAlive())
+            .count();
+    }
+
+    private void assertEntries(URI uri, ArchiveDecompress.ArchiveAlgorithm algorithm, ArchiveDecompress.CompressionAlgorithm compression, String large) throws Exception {
+        ArchiveDecompress decompress = ArchiveDecompress.builder()
+            .id("unit-test")
+            .type(ArchiveDecompress.class.getName())
+            .algorithm(Property.ofValue(algorithm))
+            .compression(compression == null ? null : Property.ofValue(compression))
+            .from(Property.ofValue(uri.toString()))
+            .build();
+
+        ArchiveDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(runDecompress.getFiles().size(), is(3));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("folder/1.txt")))), is("1"));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("folder/2.txt")))), is(large));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("3.txt")))), is("3"));
+    }
+}
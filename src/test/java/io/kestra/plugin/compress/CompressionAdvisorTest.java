@@ -0,0 +1,120 @@
+package io.kestra.plugin.compress;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class CompressionAdvisorTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Test
+    void rank() throws Exception {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            content.append("{\"id\":").append(i).append(",\"namespace\":\"company.team\",\"state\":\"").append(i % 3 == 0 ? "FAILED" : "SUCCESS").append("\"}\n");
+        }
+        URI uri = compressUtils.uploadToStorageString(content.toString());
+
+        CompressionAdvisor advisor = CompressionAdvisor.builder()
+            .id("unit-test")
+            .type(CompressionAdvisor.class.getName())
+            .from(Property.ofValue(uri.toString()))
+            .algorithms(Property.ofValue(List.of(AbstractTask.CompressionAlgorithm.GZIP, AbstractTask.CompressionAlgorithm.ZSTD, AbstractTask.CompressionAlgorithm.SNAPPY)))
+            .profiles(Property.ofValue(List.of(CompressionTuning.Profile.FAST, CompressionTuning.Profile.MAX)))
+            .samples(Property.ofValue(4))
+            .sampleSize(Property.ofValue(64 * 1024))
+            .build();
+
+        CompressionAdvisor.Output runAdvisor = advisor.run(TestsUtils.mockRunContext(runContextFactory, advisor, Map.of()));
+
+        assertThat(runAdvisor.getSize(), is((long) content.length()));
+        assertThat(runAdvisor.getSamples(), is(4));
+        assertThat(runAdvisor.getSampledSize(), is(4L * 64 * 1024));
+
+        // SNAPPY has no levels and is measured once
+        List<CompressionAdvisor.Candidate> candidates = runAdvisor.getCandidates();
+        assertThat(candidates.size(), is(5));
+        assertThat(candidates.stream().filter(candidate -> candidate.getCompression() == AbstractTask.CompressionAlgorithm.SNAPPY).findFirst().orElseThrow().getProfile(), nullValue());
+        assertThat(runAdvisor.getBest(), is(candidates.getFirst()));
+
+        for (int i = 0; i < candidates.size(); i++) {
+            CompressionAdvisor.Candidate candidate = candidates.get(i);
+            assertThat(candidate.getRatio(), greaterThan(1.0));
+            assertThat(candidate.getEstimatedSize(), lessThan(runAdvisor.getSize()));
+            assertThat(candidate.getCompressionSpeed(), greaterThan(0.0));
+            if (i > 0) {
+                assertThat(candidates.get(i - 1).getRatio(), greaterThanOrEqualTo(candidate.getRatio()));
+            }
+        }
+    }
+
+    @Test
+    void wholeFile() throws Exception {
+        URI uri = compressUtils.uploadToStorageString("kestra ".repeat(1_000));
+
+        CompressionAdvisor advisor = CompressionAdvisor.builder()
+            .id("unit-test")
+            .type(CompressionAdvisor.class.getName())
+            .from(Property.ofValue(uri.toString()))
+            .algorithms(Property.ofValue(List.of(AbstractTask.CompressionAlgorithm.LZ4FRAME)))
+            .profiles(Property.ofValue(List.of(CompressionTuning.Profile.BALANCED)))
+            .rankBy(Property.ofValue(CompressionAdvisor.RankBy.COMPRESSION_SPEED))
+            .concurrency(Property.ofValue(1))
+            .build();
+
+        CompressionAdvisor.Output runAdvisor = advisor.run(TestsUtils.mockRunContext(runContextFactory, advisor, Map.of()));
+
+        assertThat(runAdvisor.getSampledSize(), is(7_000L));
+        assertThat(runAdvisor.getSamples(), is(1));
+        assertThat(runAdvisor.getBest().getCompression(), is(AbstractTask.CompressionAlgorithm.LZ4FRAME));
+        assertThat(runAdvisor.getBest().getProfile(), is(CompressionTuning.Profile.BALANCED));
+    }
+
+    @Test
+    void decodeOnly() {
+        CompressionAdvisor advisor = CompressionAdvisor.builder()
+            .id("unit-test")
+            .type(CompressionAdvisor.class.getName())
+            .from(Property.ofValue("kestra:///file.txt"))
+            .algorithms(Property.ofValue(List.of(AbstractTask.CompressionAlgorithm.DEFLATE64)))
+            .build();
+
+        assertThrows(IllegalArgumentException.class, () -> advisor.run(TestsUtils.mockRunContext(runContextFactory, advisor, Map.of())));
+    }
+
+    @Test
+    void digests() throws Exception {
+        URI uri = compressUtils.uploadToStorageString("kestra ".repeat(1_000));
+
+        CompressionAdvisor advisor = CompressionAdvisor.builder()
+            .id("unit-test")
+            .type(CompressionAdvisor.class.getName())
+            .from(Property.ofValue(uri.toString()))
+            .digests(Property.ofValue(List.of(Digests.Algorithm.SHA256)))
+            .build();
+
+        assertThrows(IllegalArgumentException.class, () -> advisor.run(TestsUtils.mockRunContext(runContextFactory, advisor, Map.of())));
+    }
+}
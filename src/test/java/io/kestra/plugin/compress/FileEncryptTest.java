@@ -2,6 +2,7 @@ package io.kestra.plugin.compress;
 
 import com.google.common.io.CharStreams;
 import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.executions.AbstractMetricEntry;
 import io.kestra.core.models.property.Property;
 import io.kestra.plugin.compress.AbstractFileCrypt.KeyDerivation;
 import io.kestra.core.runners.RunContextFactory;
@@ -510,6 +511,63 @@ class FileEncryptTest {
         assertTamperFails(KeyDerivation.SCRYPT, b -> b.memory(Property.ofValue(1024)).parallelism(Property.ofValue(1)));
     }
 
+    @Test
+    void resultCache() throws Exception {
+        var source = compressUtils.uploadToStorageString("cached payload " + IdUtils.create());
+
+        var first = encrypt(source, "correct", 100_000);
+        var same = encrypt(source, "correct", 100_000);
+        var otherPassword = encrypt(source, "other", 100_000);
+        var otherIterations = encrypt(source, "correct", 200_000);
+
+        assertThat(first.getKey(), is("cache.miss"));
+        assertThat(same.getKey(), is("cache.hit"));
+        assertThat(same.getValue(), is(first.getValue()));
+
+        // the password and the key derivation settings are part of the key
+        assertThat(otherPassword.getKey(), is("cache.miss"));
+        assertThat(otherPassword.getValue(), not(is(first.getValue())));
+        assertThat(otherIterations.getKey(), is("cache.miss"));
+        assertThat(otherIterations.getValue(), not(is(first.getValue())));
+        assertThat(otherIterations.getValue(), not(is(otherPassword.getValue())));
+
+        var decrypt = FileDecrypt.builder()
+            .id(IdUtils.create()).type(FileDecrypt.class.getName())
+            .from(Property.ofValue(otherPassword.getValue().toString()))
+            .password(Property.ofValue("other"))
+            .iterations(Property.ofValue(100_000))
+            .build();
+        var decOut = decrypt.run(TestsUtils.mockRunContext(runContextFactory, decrypt, Map.of()));
+
+        assertThat(
+            CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, decOut.getUri()))),
+            is(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, source))))
+        );
+    }
+
+    /**
+     * Encrypt with a result cache, returning the cache metric along with the output URI.
+     */
+    private Map.Entry<String, URI> encrypt(URI source, String password, int iterations) throws Exception {
+        var encrypt = FileEncrypt.builder()
+            .id(IdUtils.create()).type(FileEncrypt.class.getName())
+            .from(Property.ofValue(source.toString()))
+            .password(Property.ofValue(password))
+            .iterations(Property.ofValue(iterations))
+            .resultCache(ResultCacheOptions.builder().build())
+            .build();
+        var runContext = TestsUtils.mockRunContext(runContextFactory, encrypt, Map.of());
+        var encOut = encrypt.run(runContext);
+
+        var metric = runContext.metrics().stream()
+            .map(AbstractMetricEntry::getName)
+            .filter(name -> name.startsWith("cache."))
+            .findFirst()
+            .orElseThrow();
+
+        return Map.entry(metric, encOut.getUri());
+    }
+
     private void assertTamperFails(KeyDerivation kdf, java.util.function.Consumer<FileEncrypt.FileEncryptBuilder<?, ?>> configure) throws Exception {
         var source = compressUtils.uploadToStorageString("secret payload");
         var builder = FileEncrypt.builder()
@@ -0,0 +1,87 @@
+package io.kestra.plugin.compress;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@KestraTest
+class FilePeekTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @Test
+    void lines() throws Exception {
+        URI compressed = this.compress("line\n".repeat(100_000), ArchiveDecompress.CompressionAlgorithm.ZSTD);
+
+        FilePeek peek = FilePeek.builder()
+            .id("unit-test")
+            .type(FilePeek.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .maxLines(Property.ofValue(3))
+            .from(Property.ofValue(compressed.toString()))
+            .build();
+
+        FilePeek.Output runPeek = peek.run(TestsUtils.mockRunContext(runContextFactory, peek, Map.of()));
+
+        assertThat(runPeek.getContent(), is("line\nline\nline\n"));
+        assertThat(runPeek.getLines(), is(3));
+        assertThat(runPeek.getSize(), is(15L));
+        assertThat(runPeek.getTruncated(), is(true));
+        assertThat(runPeek.getUri(), nullValue());
+    }
+
+    @Test
+    void bytes() throws Exception {
+        URI compressed = this.compress("kestra", ArchiveDecompress.CompressionAlgorithm.GZIP);
+
+        FilePeek peek = FilePeek.builder()
+            .id("unit-test")
+            .type(FilePeek.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .maxBytes(Property.ofValue(6))
+            .store(Property.ofValue(true))
+            .from(Property.ofValue(compressed.toString()))
+            .build();
+
+        FilePeek.Output runPeek = peek.run(TestsUtils.mockRunContext(runContextFactory, peek, Map.of()));
+
+        assertThat(runPeek.getTruncated(), is(false));
+        assertThat(runPeek.getLines(), is(1));
+        assertThat(runPeek.getContent(), nullValue());
+        try (InputStream preview = storageInterface.get(TenantService.MAIN_TENANT, null, runPeek.getUri())) {
+            assertThat(new String(preview.readAllBytes()), is("kestra"));
+        }
+    }
+
+    private URI compress(String content, ArchiveDecompress.CompressionAlgorithm compression) throws Exception {
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(compression))
+            .from(Property.ofValue(compressUtils.uploadToStorageString(content).toString()))
+            .build();
+
+        return compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of())).getUri();
+    }
+}
@@ -1,14 +1,32 @@
 package io.kestra.plugin.compress;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.apache.commons.compress.compressors.brotli.BrotliCompressorInputStream;
+import org.apache.commons.compress.compressors.snappy.SnappyCompressorInputStream;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.tukaani.xz.LZMA2Options;
 
+import com.github.luben.zstd.ZstdInputStream;
 import com.google.common.io.CharStreams;
 
 import io.kestra.core.junit.annotations.KestraTest;
@@ -22,6 +40,10 @@ import jakarta.inject.Inject;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @KestraTest
 class FileTest {
@@ -36,12 +58,14 @@ class FileTest {
 
     static Stream<Arguments> source() {
         return Stream.of(
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.BROTLI),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.BZIP2),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.DEFLATE),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.GZIP),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZ4BLOCK),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZMA),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.SNAPPY),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.SNAPPYFRAME),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.XZ),
             Arguments.of(ArchiveDecompress.CompressionAlgorithm.ZSTD)
@@ -73,4 +97,615 @@ class FileTest {
 
         assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is("1"));
     }
+
+    @Test
+    void parallelGzip() throws Exception {
+        String content = "kestra ".repeat(100_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .threads(Property.ofValue(4))
+            .chunkSize(Property.ofValue(64 * 1024))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @Test
+    void zstdOptions() throws Exception {
+        String content = "kestra ".repeat(500_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(ZstdOptions.builder()
+                .level(Property.ofValue(19))
+                .workers(Property.ofValue(2))
+                .jobSize(Property.ofValue(1024 * 1024))
+                .windowLog(Property.ofValue(23))
+                .build()
+            )
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @Test
+    void zstdLongDistanceMatching() throws Exception {
+        // two copies of a random block, further apart than the default window
+        byte[] block = new byte[4 * 1024 * 1024];
+        new Random(42).nextBytes(block);
+        byte[] content = new byte[block.length * 2];
+        System.arraycopy(block, 0, content, 0, block.length);
+        System.arraycopy(block, 0, content, block.length, block.length);
+        URI f1 = compressUtils.uploadToStorageBytes(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(ZstdOptions.builder()
+                .longDistanceMatching(Property.ofValue(true))
+                .windowLog(Property.ofValue(28))
+                .build()
+            )
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        try (InputStream compressed = storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri())) {
+            assertThat(compressed.readAllBytes().length, lessThan(block.length + block.length / 10));
+        }
+
+        FileDecompress decompressDefault = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        assertThrows(IOException.class, () -> decompressDefault.run(TestsUtils.mockRunContext(runContextFactory, decompressDefault, Map.of())));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(ZstdOptions.builder().windowLogMax(Property.ofValue(28)).build())
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        try (InputStream decompressed = storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri())) {
+            assertThat(decompressed.readAllBytes(), is(content));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void seekableZstd(int threads) throws Exception {
+        String content = "kestra ".repeat(200_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(ZstdOptions.builder().seekable(Property.ofValue(true)).build())
+            .threads(Property.ofValue(threads))
+            .chunkSize(Property.ofValue(64 * 1024))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        // regular zstd decoders skip the seek table
+        try (InputStream compressed = new ZstdInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()))) {
+            assertThat(new String(compressed.readAllBytes()), is(content));
+        }
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .threads(Property.ofValue(threads))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+
+        FileDecompress range = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .threads(Property.ofValue(threads))
+            .offset(Property.ofValue(700_000L))
+            .length(Property.ofValue(14L))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runRange = range.run(TestsUtils.mockRunContext(runContextFactory, range, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runRange.getUri()))), is("kestra kestra "));
+    }
+
+    @Test
+    void parallelXz() throws Exception {
+        String content = "kestra ".repeat(200_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.XZ))
+            .threads(Property.ofValue(2))
+            .chunkSize(Property.ofValue(256 * 1024))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.XZ))
+            .threads(Property.ofValue(2))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+
+        FileDecompress range = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.XZ))
+            .offset(Property.ofValue(700_000L))
+            .length(Property.ofValue(14L))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runRange = range.run(TestsUtils.mockRunContext(runContextFactory, range, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runRange.getUri()))), is("kestra kestra "));
+    }
+
+    @Test
+    void parallelXzMemory() throws Exception {
+        // preset 9 encoders need about 674 MiB each, 192 MiB default chunks do not fit the budget of at most 1 GiB
+        LZMA2Options preset9 = new LZMA2Options(9);
+        int chunkSize = ParallelXZOutputStream.chunkSize(0, preset9);
+        assertThat(chunkSize, lessThan(3 * preset9.getDictSize()));
+        assertThat(ParallelXZOutputStream.threads(16, chunkSize, preset9), is(1));
+        assertThat(ParallelXZOutputStream.chunkSize(4 * 1024 * 1024, preset9), is(4 * 1024 * 1024));
+
+        assertThat(ParallelXZInputStream.threads(16, 512L * 1024 * 1024), is(1));
+        assertThat(ParallelXZInputStream.threads(16, 1024 * 1024), greaterThan(1));
+    }
+
+    @Test
+    void parallelBzip2() throws Exception {
+        String content = "kestra ".repeat(400_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.BZIP2))
+            .threads(Property.ofValue(2))
+            .tuning(CompressionTuning.builder().blockSize(Property.ofValue(100_000)).build())
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.BZIP2))
+            .threads(Property.ofValue(2))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @Test
+    void parallelLz4Frame() throws Exception {
+        String content = "kestra ".repeat(50_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME))
+            .threads(Property.ofValue(2))
+            .tuning(CompressionTuning.builder().blockSize(Property.ofValue(64 * 1024)).build())
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME))
+            .threads(Property.ofValue(2))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @ParameterizedTest
+    @EnumSource(AbstractTask.Lz4Backend.class)
+    void lz4Backend(AbstractTask.Lz4Backend backend) throws Exception {
+        String content = "kestra ".repeat(50_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME))
+            .lz4Backend(Property.ofValue(backend))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        // read back with the default backend to check both write the same format
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+
+        FileDecompress backendDecompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME))
+            .lz4Backend(Property.ofValue(backend))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runBackendDecompress = backendDecompress.run(TestsUtils.mockRunContext(runContextFactory, backendDecompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runBackendDecompress.getUri()))), is(content));
+    }
+
+    @Test
+    void gzipInterop() throws Exception {
+        String content = "kestra ".repeat(50_000);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream outputStream = new GZIPOutputStream(gzip)) {
+            outputStream.write(content.getBytes());
+        }
+        URI f1 = compressUtils.uploadToStorageBytes(gzip.toByteArray());
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(runDecompress.getUri().toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        try (InputStream inputStream = new GZIPInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()))) {
+            assertThat(new String(inputStream.readAllBytes()), is(content));
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4})
+    void multiMemberGzip(int threads) throws Exception {
+        StringBuilder content = new StringBuilder();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        for (int i = 0; i < 20; i++) {
+            String member = ("kestra " + i + " ").repeat(10_000);
+            content.append(member);
+            try (GZIPOutputStream outputStream = new GZIPOutputStream(gzip)) {
+                outputStream.write(member.getBytes());
+            }
+        }
+        URI f1 = compressUtils.uploadToStorageBytes(gzip.toByteArray());
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .threads(Property.ofValue(threads))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content.toString()));
+    }
+
+    @Test
+    void rawSnappyInterop() throws Exception {
+        String content = "kestra ".repeat(50_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.SNAPPY))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        try (InputStream snappy = new SnappyCompressorInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()))) {
+            assertThat(new String(snappy.readAllBytes()), is(content));
+        }
+    }
+
+    @Test
+    void brotliOptions() throws Exception {
+        String content = "kestra ".repeat(50_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.BROTLI))
+            .brotli(BrotliOptions.builder()
+                .quality(Property.ofValue(9))
+                .lgwin(Property.ofValue(20))
+                .mode(Property.ofValue(BrotliOptions.Mode.TEXT))
+                .build()
+            )
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        // the pure Java decoder must read what the native encoder wrote
+        try (InputStream brotli = new BrotliCompressorInputStream(storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()))) {
+            assertThat(new String(brotli.readAllBytes()), is(content));
+        }
+    }
+
+    static Stream<Arguments> tuning() {
+        return Stream.of(
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.GZIP, CompressionTuning.builder().profile(Property.ofValue(CompressionTuning.Profile.FAST)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.DEFLATE, CompressionTuning.builder().level(Property.ofValue(9)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.BZIP2, CompressionTuning.builder().blockSize(Property.ofValue(100_000)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.XZ, CompressionTuning.builder().profile(Property.ofValue(CompressionTuning.Profile.MAX)).dictionarySize(Property.ofValue(1024 * 1024)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZMA, CompressionTuning.builder().profile(Property.ofValue(CompressionTuning.Profile.FAST)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZ4BLOCK, CompressionTuning.builder().lz4HighCompression(Property.ofValue(true)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.LZ4FRAME, CompressionTuning.builder().blockSize(Property.ofValue(64 * 1024)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.ZSTD, CompressionTuning.builder().profile(Property.ofValue(CompressionTuning.Profile.MAX)).build()),
+            Arguments.of(ArchiveDecompress.CompressionAlgorithm.BROTLI, CompressionTuning.builder().profile(Property.ofValue(CompressionTuning.Profile.FAST)).build())
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("tuning")
+    void tuning(ArchiveDecompress.CompressionAlgorithm compression, CompressionTuning tuning) throws Exception {
+        String content = "kestra ".repeat(50_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(compression))
+            .tuning(tuning)
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        // settings written in the stream headers
+        byte[] compressed = storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()).readAllBytes();
+        if (compression == ArchiveDecompress.CompressionAlgorithm.BZIP2) {
+            // "BZh1": 100k blocks
+            assertThat(compressed[3], is((byte) '1'));
+        } else if (compression == ArchiveDecompress.CompressionAlgorithm.LZ4FRAME) {
+            // block maximum size 4: 64 KiB blocks
+            assertThat(compressed[5] >> 4 & 0x7, is(4));
+        }
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(compression))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = ArchiveDecompress.CompressionAlgorithm.class, names = {"GZIP", "ZSTD", "XZ", "BROTLI"})
+    void profiles(ArchiveDecompress.CompressionAlgorithm compression) throws Exception {
+        // records that do not repeat, where harder settings find more matches
+        Random random = new Random(42);
+        StringBuilder content = new StringBuilder();
+        while (content.length() < 1_000_000) {
+            content.append("{\"id\":").append(random.nextInt(1_000_000)).append(",\"value\":").append(random.nextDouble()).append("}\n");
+        }
+        URI f1 = compressUtils.uploadToStorageString(content.toString());
+
+        long[] sizes = new long[2];
+        CompressionTuning.Profile[] profiles = {CompressionTuning.Profile.FAST, CompressionTuning.Profile.MAX};
+        for (int i = 0; i < profiles.length; i++) {
+            FileCompress compress = FileCompress.builder()
+                .id("unit-test")
+                .type(FileCompress.class.getName())
+                .compression(Property.ofValue(compression))
+                .tuning(CompressionTuning.builder().profile(Property.ofValue(profiles[i])).build())
+                .from(Property.ofValue(f1.toString()))
+                .build();
+
+            FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+            sizes[i] = storageInterface.getAttributes(TenantService.MAIN_TENANT, null, runCompress.getUri()).getSize();
+        }
+
+        assertThat(sizes[0], greaterThan(sizes[1]));
+    }
+
+    @Test
+    void digests() throws Exception {
+        byte[] content = "kestra ".repeat(50_000).getBytes(StandardCharsets.UTF_8);
+        URI f1 = compressUtils.uploadToStorageString(new String(content, StandardCharsets.UTF_8));
+        Property<List<Digests.Algorithm>> digests = Property.ofValue(List.of(Digests.Algorithm.CRC32C, Digests.Algorithm.SHA256));
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .digests(digests)
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        CRC32C crc = new CRC32C();
+        crc.update(content);
+        assertThat(runCompress.getInputDigests().get("CRC32C"), is(String.format("%08x", crc.getValue())));
+        assertThat(runCompress.getInputDigests().get("SHA256"), is(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content))));
+
+        byte[] compressed = storageInterface.get(TenantService.MAIN_TENANT, null, runCompress.getUri()).readAllBytes();
+        assertThat(runCompress.getOutputDigests().get("SHA256"), is(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(compressed))));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .digests(digests)
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(runDecompress.getInputDigests(), is(runCompress.getOutputDigests()));
+        assertThat(runDecompress.getOutputDigests(), is(runCompress.getInputDigests()));
+    }
+
+    @Test
+    void auto() throws Exception {
+        byte[] random = new byte[200_000];
+        new Random(42).nextBytes(random);
+        String text = "kestra ".repeat(50_000);
+
+        FileCompress.Output stored = this.auto(compressUtils.uploadToStorageBytes(random));
+        assertThat(stored.getCompression(), nullValue());
+        assertThat(storageInterface.get(TenantService.MAIN_TENANT, null, stored.getUri()).readAllBytes(), is(random));
+
+        FileCompress.Output compressed = this.auto(compressUtils.uploadToStorageString(text));
+        assertThat(compressed.getCompression(), is(ArchiveDecompress.CompressionAlgorithm.ZSTD));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(compressed.getCompression()))
+            .from(Property.ofValue(compressed.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(text));
+    }
+
+    private FileCompress.Output auto(URI uri) throws Exception {
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.AUTO))
+            .from(Property.ofValue(uri.toString()))
+            .build();
+
+        return compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+    }
+
+    @Test
+    void resultCache() throws Exception {
+        String content = "kestra ".repeat(50_000);
+        ResultCacheOptions resultCache = ResultCacheOptions.builder().build();
+
+        FileCompress.Output[] outputs = new FileCompress.Output[3];
+        for (int i = 0; i < outputs.length; i++) {
+            // same content uploaded again, the last time compressed with another algorithm
+            FileCompress compress = FileCompress.builder()
+                .id("unit-test")
+                .type(FileCompress.class.getName())
+                .compression(Property.ofValue(i < 2 ? ArchiveDecompress.CompressionAlgorithm.GZIP : ArchiveDecompress.CompressionAlgorithm.ZSTD))
+                .resultCache(resultCache)
+                .from(Property.ofValue(compressUtils.uploadToStorageString(content).toString()))
+                .build();
+
+            outputs[i] = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+        }
+
+        assertThat(outputs[1].getUri(), is(outputs[0].getUri()));
+        assertThat(outputs[2].getUri().equals(outputs[0].getUri()), is(false));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(outputs[1].getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
 }
@@ -0,0 +1,93 @@
+package io.kestra.plugin.compress;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.google.common.io.CharStreams;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class FileTranscodeTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 2})
+    void gzipToZstd(int threads) throws Exception {
+        String content = "kestra ".repeat(500_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileTranscode transcode = FileTranscode.builder()
+            .id("unit-test")
+            .type(FileTranscode.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .targetCompression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .threads(Property.ofValue(threads))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileTranscode.Output runTranscode = transcode.run(TestsUtils.mockRunContext(runContextFactory, transcode, Map.of()));
+
+        assertThat(runTranscode.getSize(), is((long) content.length()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .from(Property.ofValue(runTranscode.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    @Test
+    @Timeout(10)
+    void readerError() {
+        InputStream failing = new InputStream() {
+            @Override
+            public int read() {
+                throw new OutOfMemoryError("decoder");
+            }
+        };
+
+        // the writer side must get the error instead of waiting for data that never comes
+        assertThrows(OutOfMemoryError.class, () -> PipelinedCopy.copy(failing, OutputStream.nullOutputStream()));
+    }
+}
@@ -0,0 +1,189 @@
+package io.kestra.plugin.compress;
+
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.io.CharStreams;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class GzipIndexTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @Test
+    void fileRange() throws Exception {
+        String content = content(2_000_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        GzipIndex index = GzipIndex.builder()
+            .id("unit-test")
+            .type(GzipIndex.class.getName())
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .spacing(Property.ofValue(256L * 1024))
+            .build();
+
+        GzipIndex.Output runIndex = index.run(TestsUtils.mockRunContext(runContextFactory, index, Map.of()));
+
+        assertThat(runIndex.getSize(), is((long) content.length()));
+        assertThat(runIndex.getCheckpoints(), greaterThan(1));
+        assertThat(runIndex.getEntries(), is(0));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .index(Property.ofValue(runIndex.getUri().toString()))
+            .offset(Property.ofValue(1_500_000L))
+            .length(Property.ofValue(1_000L))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(
+            CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))),
+            is(content.substring(1_500_000, 1_501_000))
+        );
+    }
+
+    @Test
+    void otherFile() throws Exception {
+        URI f1 = compressUtils.uploadToStorageString(content(1_000_000));
+        URI f2 = compressUtils.uploadToStorageString(content(1_000_000).toUpperCase());
+
+        FileCompress compress1 = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(f1.toString()))
+            .build();
+        FileCompress.Output runCompress1 = compress1.run(TestsUtils.mockRunContext(runContextFactory, compress1, Map.of()));
+
+        FileCompress compress2 = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(f2.toString()))
+            .build();
+        FileCompress.Output runCompress2 = compress2.run(TestsUtils.mockRunContext(runContextFactory, compress2, Map.of()));
+
+        GzipIndex index = GzipIndex.builder()
+            .id("unit-test")
+            .type(GzipIndex.class.getName())
+            .from(Property.ofValue(runCompress1.getUri().toString()))
+            .spacing(Property.ofValue(256L * 1024))
+            .build();
+
+        GzipIndex.Output runIndex = index.run(TestsUtils.mockRunContext(runContextFactory, index, Map.of()));
+
+        // the index of the first file used against the second one
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .index(Property.ofValue(runIndex.getUri().toString()))
+            .offset(Property.ofValue(500_000L))
+            .length(Property.ofValue(1_000L))
+            .from(Property.ofValue(runCompress2.getUri().toString()))
+            .build();
+
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class, () -> decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of())));
+        assertThat(exception.getMessage(), containsString("does not match"));
+    }
+
+    @Test
+    void tarEntry() throws Exception {
+        String large = content(1_000_000);
+        URI f1 = compressUtils.uploadToStorageString(large);
+        URI f2 = compressUtils.uploadToStorageString(large);
+        URI f3 = compressUtils.uploadToStorageString("3");
+
+        ArchiveCompress compress = ArchiveCompress.builder()
+            .id("unit-test")
+            .type(ArchiveCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(
+                Map.of(
+                    "folder/1.txt", f1.toString(),
+                    "folder/2.txt", f2.toString(),
+                    "3.txt", f3.toString()
+                )
+            )
+            .build();
+
+        ArchiveCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        GzipIndex index = GzipIndex.builder()
+            .id("unit-test")
+            .type(GzipIndex.class.getName())
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .spacing(Property.ofValue(256L * 1024))
+            .build();
+
+        GzipIndex.Output runIndex = index.run(TestsUtils.mockRunContext(runContextFactory, index, Map.of()));
+
+        assertThat(runIndex.getEntries(), is(3));
+
+        ArchiveDecompress decompress = ArchiveDecompress.builder()
+            .id("unit-test")
+            .type(ArchiveDecompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .index(Property.ofValue(runIndex.getUri().toString()))
+            .entries(Property.ofValue(List.of("3.txt", "folder/2.txt")))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        ArchiveDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(runDecompress.getFiles().size(), is(2));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("folder/2.txt")))), is(large));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("3.txt")))), is("3"));
+    }
+
+    private static String content(int size) {
+        Random random = new Random(42);
+        StringBuilder builder = new StringBuilder();
+        while (builder.length() < size) {
+            builder.append("{\"id\":").append(random.nextInt(1_000_000)).append(",\"value\":").append(random.nextDouble()).append("}\n");
+        }
+
+        return builder.substring(0, size);
+    }
+}
@@ -0,0 +1,135 @@
+package io.kestra.plugin.compress;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.io.CharStreams;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@KestraTest
+class PipelineCompressTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @Test
+    void archiveRoundTrip() throws Exception {
+        String large = "kestra ".repeat(200_000);
+        URI f1 = compressUtils.uploadToStorageString("1");
+        URI f2 = compressUtils.uploadToStorageString(large);
+
+        EncryptionOptions encryption = EncryptionOptions.builder()
+            .password(Property.ofValue("secret"))
+            .keyDerivation(Property.ofValue(AbstractFileCrypt.KeyDerivation.ARGON2ID))
+            .memory(Property.ofValue(1024))
+            .build();
+
+        PipelineCompress compress = PipelineCompress.builder()
+            .id("unit-test")
+            .type(PipelineCompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .encryption(encryption)
+            .from(
+                Map.of(
+                    "folder/1.txt", f1.toString(),
+                    "2.txt", f2.toString()
+                )
+            )
+            .build();
+
+        PipelineCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        PipelineDecompress decompress = PipelineDecompress.builder()
+            .id("unit-test")
+            .type(PipelineDecompress.class.getName())
+            .algorithm(Property.ofValue(ArchiveDecompress.ArchiveAlgorithm.TAR))
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .encryption(encryption)
+            .checksum(Property.ofValue(runCompress.getChecksum()))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        PipelineDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(runDecompress.getChecksum(), is(runCompress.getChecksum()));
+        assertThat(runDecompress.getFiles().size(), is(2));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("folder/1.txt")))), is("1"));
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getFiles().get("2.txt")))), is(large));
+    }
+
+    @Test
+    void singleFile() throws Exception {
+        String content = "kestra ".repeat(100_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+
+        EncryptionOptions encryption = EncryptionOptions.builder()
+            .password(Property.ofValue("secret"))
+            .build();
+
+        PipelineCompress compress = PipelineCompress.builder()
+            .id("unit-test")
+            .type(PipelineCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .encryption(encryption)
+            .from(f1.toString())
+            .build();
+
+        PipelineCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        // the OpenSSL-compatible output is a regular FileEncrypt file
+        FileDecrypt decrypt = FileDecrypt.builder()
+            .id("unit-test")
+            .type(FileDecrypt.class.getName())
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .password(Property.ofValue("secret"))
+            .build();
+
+        FileDecrypt.Output runDecrypt = decrypt.run(TestsUtils.mockRunContext(runContextFactory, decrypt, Map.of()));
+
+        FileDecompress fileDecompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .from(Property.ofValue(runDecrypt.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runFileDecompress = fileDecompress.run(TestsUtils.mockRunContext(runContextFactory, fileDecompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runFileDecompress.getUri()))), is(content));
+
+        PipelineDecompress decompress = PipelineDecompress.builder()
+            .id("unit-test")
+            .type(PipelineDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.GZIP))
+            .encryption(encryption)
+            .checksum(Property.ofValue("0".repeat(64)))
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        IOException e = assertThrows(IOException.class, () -> decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of())));
+        assertThat(e.getMessage(), containsString("Checksum mismatch"));
+    }
+}
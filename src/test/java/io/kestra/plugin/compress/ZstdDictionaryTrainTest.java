@@ -0,0 +1,90 @@
+package io.kestra.plugin.compress;
+
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.google.common.io.CharStreams;
+
+import io.kestra.core.junit.annotations.KestraTest;
+import io.kestra.core.models.property.Property;
+import io.kestra.core.runners.RunContextFactory;
+import io.kestra.core.storages.StorageInterface;
+import io.kestra.core.tenant.TenantService;
+import io.kestra.core.utils.TestsUtils;
+
+import jakarta.inject.Inject;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+
+@KestraTest
+class ZstdDictionaryTrainTest {
+    @Inject
+    private CompressUtils compressUtils;
+
+    @Inject
+    private RunContextFactory runContextFactory;
+
+    @Inject
+    private StorageInterface storageInterface;
+
+    @Test
+    void trainAndUse() throws Exception {
+        List<String> samples = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            samples.add(compressUtils.uploadToStorageString(sample(i)).toString());
+        }
+
+        ZstdDictionaryTrain train = ZstdDictionaryTrain.builder()
+            .id("unit-test")
+            .type(ZstdDictionaryTrain.class.getName())
+            .from(Property.ofValue(samples))
+            .dictionarySize(Property.ofValue(16 * 1024))
+            .build();
+
+        ZstdDictionaryTrain.Output runTrain = train.run(TestsUtils.mockRunContext(runContextFactory, train, Map.of()));
+
+        assertThat(runTrain.getUri(), notNullValue());
+        assertThat(runTrain.getSamples(), is(500));
+        assertThat(runTrain.getSize(), greaterThan(0));
+
+        String content = sample(1_000);
+        URI f1 = compressUtils.uploadToStorageString(content);
+        ZstdOptions zstd = ZstdOptions.builder()
+            .dictionary(Property.ofValue(runTrain.getUri().toString()))
+            .build();
+
+        FileCompress compress = FileCompress.builder()
+            .id("unit-test")
+            .type(FileCompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(zstd)
+            .from(Property.ofValue(f1.toString()))
+            .build();
+
+        FileCompress.Output runCompress = compress.run(TestsUtils.mockRunContext(runContextFactory, compress, Map.of()));
+
+        FileDecompress decompress = FileDecompress.builder()
+            .id("unit-test")
+            .type(FileDecompress.class.getName())
+            .compression(Property.ofValue(ArchiveDecompress.CompressionAlgorithm.ZSTD))
+            .zstd(zstd)
+            .from(Property.ofValue(runCompress.getUri().toString()))
+            .build();
+
+        FileDecompress.Output runDecompress = decompress.run(TestsUtils.mockRunContext(runContextFactory, decompress, Map.of()));
+
+        assertThat(CharStreams.toString(new InputStreamReader(storageInterface.get(TenantService.MAIN_TENANT, null, runDecompress.getUri()))), is(content));
+    }
+
+    private static String sample(int i) {
+        return "{\"id\":" + i + ",\"namespace\":\"company.team\",\"flowId\":\"flow_" + (i % 7) + "\",\"state\":\"" + (i % 3 == 0 ? "FAILED" : "SUCCESS") + "\",\"labels\":{\"env\":\"prod\",\"team\":\"data\"}}";
+    }
+}